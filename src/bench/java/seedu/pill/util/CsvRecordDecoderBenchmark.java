@@ -0,0 +1,104 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.PillException;
+
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the bytes allocated per decoded snapshot line, comparing {@link CsvRecordDecoder} with the
+ * String-based parsing that {@code Storage.loadLine} used before it. Run with {@code ./gradlew bench}; it is
+ * kept out of the unit tests, whose results it does not affect.
+ *
+ * <p>Allocation is read from {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, so the
+ * numbers include the {@link Item}, name and date objects that both decoders have to create.</p>
+ */
+public class CsvRecordDecoderBenchmark {
+    private static final int LINES = 100_000;
+    private static final int ROUNDS = 10;
+
+    /**
+     * Runs the benchmark and prints the allocation rate per line for both decoders.
+     *
+     * @param args Unused.
+     * @throws PillException if a generated line cannot be decoded.
+     */
+    public static void main(String[] args) throws PillException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append("item ").append(i % 1000).append(i % 7 == 0 ? "\\, large" : "").append(',')
+                    .append(i % 500 + 1).append(',')
+                    .append(LocalDate.of(2030, 1, 1).plusDays(i % 365)).append(',')
+                    .append(i % 100).append('.').append(i % 10).append("5,")
+                    .append(i % 3 == 0 ? "" : "12.99").append('\n');
+        }
+        CharBuffer chars = CharBuffer.wrap(sb);
+        List<String> lines = List.of(sb.toString().split("\n"));
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long legacyBytes = allocatedBytes(() -> {
+                for (String line : lines) {
+                    legacyLoadLine(line);
+                }
+            });
+            long decoderBytes = allocatedBytes(() -> {
+                CsvRecordDecoder decoder = new CsvRecordDecoder();
+                int lineStart = 0;
+                for (int i = 0; i < chars.length(); i++) {
+                    if (chars.get(i) == '\n') {
+                        decoder.decode(chars, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+            });
+            System.out.printf("round %d: String-based %d bytes/line, decoder %d bytes/line%n",
+                    round + 1, legacyBytes / LINES, decoderBytes / LINES);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void run() throws PillException;
+    }
+
+    private static long allocatedBytes(Body body) throws PillException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        body.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    /**
+     * The String-based parsing used before {@link CsvRecordDecoder}, kept as the baseline.
+     */
+    private static Item legacyLoadLine(String line) {
+        List<String> data = new ArrayList<>();
+        StringBuilder currentField = new StringBuilder();
+        boolean inEscape = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && !inEscape) {
+                inEscape = true;
+            } else if (c == ',' && !inEscape) {
+                data.add(currentField.toString());
+                currentField.setLength(0);
+            } else {
+                currentField.append(c);
+                inEscape = false;
+            }
+        }
+        data.add(currentField.toString());
+
+        String name = data.get(0);
+        int quantity = Integer.parseInt(data.get(1));
+        LocalDate expiryDate = data.size() > 2 && !data.get(2).isEmpty() ? LocalDate.parse(data.get(2)) : null;
+        double cost = data.size() > 3 && !data.get(3).isEmpty() ? Double.parseDouble(data.get(3)) : 0;
+        double price = data.size() > 4 && !data.get(4).isEmpty() ? Double.parseDouble(data.get(4)) : 0;
+        return new Item(name, quantity, expiryDate, cost, price);
+    }
+}
@@ -1,6 +1,7 @@
 package seedu.pill;
 
 import seedu.pill.util.ItemMap;
+import seedu.pill.util.PersistenceScheduler;
 import seedu.pill.util.Parser;
 import seedu.pill.util.Printer;
 import seedu.pill.util.Storage;
@@ -13,7 +14,10 @@ import seedu.pill.exceptions.PillException;
 import java.util.logging.Logger;
 
 public final class Pill {
-    private static final Storage storage = new Storage();
+    private static final Storage storage = Storage.builder()
+            .mode(Storage.Mode.JOURNALED)
+            .durability(PersistenceScheduler.Durability.BATCHED)
+            .build();
     private static ItemMap items = new ItemMap();
     private static final Ui ui = new Ui(items);
     private static final Logger logger = PillLogger.getLogger();
@@ -24,19 +28,51 @@ public final class Pill {
      * Runs the main loop of the Pill chatbot.
      */
     public void run() {
-        items = storage.loadData();
-        transactionManager  = new TransactionManager(items, storage);
+        try {
+            items = storage.loadData();
+        } catch (PillException e) {
+            // Starting with an empty inventory would overwrite the saved data on the first save
+            PillException.printException(e);
+            return;
+        }
+        try {
+            transactionManager = new TransactionManager(items, storage, storage.openTransactionLog());
+        } catch (PillException e) {
+            PillException.printException(e);
+            transactionManager = new TransactionManager(items, storage);
+        }
         Printer.printInitMessage(items, 50);
+        ui.setCompleter(items::completeName);
         parser = new Parser(items, storage, transactionManager, ui);
+        Thread shutdownHook = new Thread(Pill::closeStorage);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
         logger.info("New Chatbot Conversation Created");
         while (!parser.getExitFlag()) {
             String line = ui.getInput();
             parser.parseCommand(line);
         }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            closeStorage();
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down, so the hook closes the storage instead
+        }
         Printer.printExitMessage();
         logger.info("Chatbot Conversation Ended");
     }
 
+    /**
+     * Writes any deferred save to disk. Also runs on shutdown, so that a terminated session keeps its changes, unless
+     * the session already ended normally and closed the storage itself.
+     */
+    private static void closeStorage() {
+        try {
+            storage.close();
+        } catch (PillException e) {
+            PillException.printException(e);
+        }
+    }
+
     /**
      * Main method to run the Pill bot.
      */
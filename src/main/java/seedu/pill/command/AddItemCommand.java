@@ -28,7 +28,6 @@ public class AddItemCommand extends Command {
     public void execute(ItemMap itemMap, Storage storage) throws PillException {
         Item item = new Item(itemName, quantity, expiryDate);
         itemMap.addItem(item);
-        storage.saveItem(item);
         storage.saveItemMap(itemMap);
     }
 
@@ -26,4 +26,18 @@ public abstract class Command {
     public boolean isExit() {
         return false;
     }
+
+    /**
+     * Prints the closest item name in the inventory as a suggestion for a name that was not found,
+     * if there is a close enough one.
+     *
+     * @param itemMap  The inventory to look in.
+     * @param itemName The name that was not found.
+     */
+    protected static void suggestItemName(ItemMap itemMap, String itemName) {
+        String closestName = itemMap.findClosestName(itemName);
+        if (closestName != null) {
+            System.out.println("Did you mean: " + closestName + "?");
+        }
+    }
 }
@@ -1,11 +1,11 @@
 package seedu.pill.command;
 
 import seedu.pill.exceptions.PillException;
-import seedu.pill.util.Item;
 import seedu.pill.util.ItemMap;
 import seedu.pill.util.Storage;
 
 import java.time.LocalDate;
+import java.util.Optional;
 
 public class DeleteItemCommand extends Command {
     private final String itemName;
@@ -23,9 +23,11 @@ public class DeleteItemCommand extends Command {
 
     @Override
     public void execute(ItemMap itemMap, Storage storage) throws PillException {
-        // Looks stupid, but this way I don't handle Optionals in this class
-        Item item = new Item(itemName, 0, expiryDate);
-        itemMap.deleteItem(item.getName(), item.getExpiryDate());
+        boolean isKnownName = !itemMap.get(itemName).isEmpty();
+        itemMap.deleteItem(itemName, Optional.ofNullable(expiryDate));
+        if (!isKnownName) {
+            suggestItemName(itemMap, itemName);
+        }
         storage.saveItemMap(itemMap);
     }
 
@@ -27,7 +27,11 @@ public class EditItemCommand extends Command {
     @Override
     public void execute(ItemMap itemMap, Storage storage) throws PillException {
         Item item = new Item(itemName, newQuantity, expiryDate);
+        boolean isKnownName = !itemMap.get(itemName).isEmpty();
         itemMap.editItem(item);
+        if (!isKnownName) {
+            suggestItemName(itemMap, itemName);
+        }
         storage.saveItemMap(itemMap);
     }
 
@@ -10,7 +10,7 @@ public class ExpiredCommand extends Command {
 
     @Override
     public void execute(ItemMap itemMap, Storage storage) {
-        itemMap.listExpiringItems(LocalDate.now());
+        itemMap.snapshot().listExpiringItems(LocalDate.now());
     }
 
     @Override
@@ -14,7 +14,7 @@ public class ExpiringCommand extends Command {
 
     @Override
     public void execute(ItemMap itemMap, Storage storage) {
-        itemMap.listExpiringItems(cutOffDate);
+        itemMap.snapshot().listExpiringItems(cutOffDate);
     }
 
     @Override
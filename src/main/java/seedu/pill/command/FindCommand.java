@@ -17,6 +17,7 @@ public class FindCommand extends Command {
     public void execute(ItemMap itemMap, Storage storage) throws PillException {
         ItemMap foundItems = itemMap.findItem(itemName);
         if (foundItems.isEmpty()) {
+            suggestItemName(itemMap, itemName);
             throw new PillException(ExceptionMessages.ITEM_NOT_FOUND_ERROR);
         } else {
             ListCommand listCommand = new ListCommand();
@@ -1,6 +1,7 @@
 package seedu.pill.command;
 
 import seedu.pill.exceptions.PillException;
+import seedu.pill.util.BkTree;
 import seedu.pill.util.ItemMap;
 import seedu.pill.util.PillLogger;
 import seedu.pill.util.Storage;
@@ -18,12 +19,13 @@ import java.util.logging.Logger;
 public class HelpCommand extends Command {
     private static final Logger logger = PillLogger.getLogger();
     private static final List<String> VALID_COMMANDS = Arrays.asList(
-            "exit", "add", "delete", "edit", "find", "help", "list",
+            "exit", "add", "delete", "edit", "find", "prefix", "help", "list",
             "stock-check", "expired", "expiring", "cost", "price",
             "restock-all", "restock", "use", "order", "view-orders",
             "fulfill-order", "transactions", "transaction-history",
             "visualize-price", "visualize-cost", "visualize-stock", "visualize-cost-price"
     );
+    private static final BkTree COMMAND_INDEX = BkTree.of(VALID_COMMANDS);
 
     private final String commandName;
     private final boolean verbose;
@@ -83,6 +85,7 @@ public class HelpCommand extends Command {
         System.out.println("  delete                - Deletes an item from the list");
         System.out.println("  edit                  - Edits an item in the list");
         System.out.println("  find                  - Finds all items with the same keyword");
+        System.out.println("  prefix                - Lists the items starting with a prefix, most stocked first");
         System.out.println("  expired               - Lists all items that have expired");
         System.out.println("  expiring              - Lists items expiring before a specified date");
         System.out.println("  list                  - Lists all items");
@@ -144,6 +147,9 @@ public class HelpCommand extends Command {
         case "find":
             showFindHelp();
             break;
+        case "prefix":
+            showPrefixHelp();
+            break;
         case "expired":
             showExpiredHelp();
             break;
@@ -211,7 +217,7 @@ public class HelpCommand extends Command {
             break;
 
         default:
-            String closestMatch = StringMatcher.findClosestMatch(command, VALID_COMMANDS);
+            String closestMatch = COMMAND_INDEX.findClosest(command, StringMatcher.MAX_SUGGESTION_DISTANCE);
             if (closestMatch != null) {
                 System.out.println("Did you mean: " + closestMatch + "?");
                 showSpecificHelp(closestMatch);
@@ -231,7 +237,7 @@ public class HelpCommand extends Command {
         logger.info("Suggesting similar command for: " + command);
 
         System.out.println("Unknown command: " + command);
-        String closestMatch = StringMatcher.findClosestMatch(command, VALID_COMMANDS);
+        String closestMatch = COMMAND_INDEX.findClosest(command, StringMatcher.MAX_SUGGESTION_DISTANCE);
         if (closestMatch != null) {
             System.out.println("Did you mean: " + closestMatch + "?");
             System.out.println("Type 'help " + closestMatch + "' for more information on this command.");
@@ -457,6 +463,23 @@ public class HelpCommand extends Command {
         System.out.println("\nCorrect input format: edit <name> <quantity> <expiry>");
     }
 
+    /**
+     * Prints detailed information about the 'prefix' command.
+     */
+    private void showPrefixHelp() {
+        logger.fine("Showing help information for 'prefix' command");
+
+        System.out.println("prefix: Lists the items whose names start with a prefix, most stocked first.");
+        if (verbose) {
+            System.out.println("Usage: prefix <prefix>");
+            System.out.println("  <prefix>      - Start of the item names to list");
+            System.out.println("\nExample:");
+            System.out.println("  prefix pana");
+            System.out.println("\nEnding an input line with a tab completes the item name being typed.");
+        }
+        System.out.println("\nCorrect input format: prefix <prefix>");
+    }
+
     /**
      * Prints detailed information about the 'expired' command.
      */
@@ -545,7 +568,8 @@ public class HelpCommand extends Command {
         System.out.println("fulfill-order: Processes and completes a pending order.");
         if (verbose) {
             System.out.println("Usage: fulfill-order <order-uuid>");
-            System.out.println("  <order-uuid> - The unique identifier of the order to fulfill");
+            System.out.println("  <order-uuid> - The unique identifier of the order to fulfill, or its first few");
+            System.out.println("                 characters if no other order's identifier starts with them");
             System.out.println("\nExample:");
             System.out.println("  fulfill-order 123e4567-e89b-12d3-a456-556642440000");
             System.out.println("\nNote: This will create the necessary transactions and update inventory levels");
@@ -8,7 +8,7 @@ public class ListCommand extends Command{
 
     @Override
     public void execute(ItemMap itemMap, Storage storage) {
-        itemMap.listItems();
+        itemMap.snapshot().listItems();
     }
 
     @Override
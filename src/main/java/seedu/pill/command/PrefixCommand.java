@@ -0,0 +1,39 @@
+package seedu.pill.command;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+import seedu.pill.util.ItemMap;
+import seedu.pill.util.Storage;
+
+import java.util.List;
+
+/**
+ * Lists the item names starting with a prefix, with the most stocked names first.
+ */
+public class PrefixCommand extends Command {
+    static final int MAX_RESULTS = 10;
+
+    private final String prefix;
+
+    public PrefixCommand(String prefix) {
+        this.prefix = prefix.toLowerCase();
+    }
+
+    @Override
+    public void execute(ItemMap itemMap, Storage storage) throws PillException {
+        List<String> names = itemMap.getNamesWithPrefix(prefix, MAX_RESULTS);
+        if (names.isEmpty()) {
+            suggestItemName(itemMap, prefix);
+            throw new PillException(ExceptionMessages.ITEM_NOT_FOUND_ERROR);
+        }
+        System.out.println("Items starting with " + prefix + ":");
+        for (int i = 0; i < names.size(); i++) {
+            System.out.println((i + 1) + ". " + names.get(i) + ": " + itemMap.stockCount(names.get(i)) + " in stock");
+        }
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -21,24 +21,23 @@ public class RestockAllCommand extends Command {
     @Override
     public void execute(ItemMap itemMap, Storage storage) throws PillException {
         List<Item> itemsToRestock = new ArrayList<>();
-        double totalRestockCost = 0;
+        long totalRestockCents = 0;
 
-        for (Item item : itemMap.getAllItems()) {
-            if (item.getQuantity() < threshold) {
-                int currentStock = item.getQuantity();
-                int restockAmount = threshold - currentStock;
-                double itemRestockCost = item.getCost() * restockAmount;
+        for (Item item : itemMap.getLowStockBatches(threshold, false)) {
+            int currentStock = item.getQuantity();
+            int restockAmount = threshold - currentStock;
+            long itemRestockCents = item.getCostCents() * restockAmount;
 
-                totalRestockCost += itemRestockCost;
-                item.setQuantity(threshold);
+            totalRestockCents += itemRestockCents;
+            itemMap.setItemQuantity(item, threshold);
 
-                itemsToRestock.add(item);
-                System.out.printf("Item: %s, Current Stock: %d, New Stock: %d, Restock Cost: $%.2f%n",
-                        item.getName(), currentStock, threshold, itemRestockCost);
-            }
+            itemsToRestock.add(item);
+            System.out.printf("Item: %s, Current Stock: %d, New Stock: %d, Restock Cost: $%s%n",
+                    item.getName(), currentStock, threshold, Item.formatCents(itemRestockCents));
         }
 
-        System.out.printf("Total Restock Cost for all items below threshold %d: $%.2f%n", threshold, totalRestockCost);
+        System.out.printf("Total Restock Cost for all items below threshold %d: $%s%n", threshold,
+                Item.formatCents(totalRestockCents));
         storage.saveItemMap(itemMap);
     }
 
@@ -40,12 +40,12 @@ public class RestockItemCommand extends Command {
         }
 
         int restockAmount = quantity - currentStock;
-        double restockCost = itemToRestock.getCost() * restockAmount;
+        long restockCents = itemToRestock.getCostCents() * restockAmount;
 
-        itemToRestock.setQuantity(quantity);
+        itemMap.setItemQuantity(itemToRestock, quantity);
 
-        System.out.printf("Restocked Item: %s, Current Stock: %d, New Stock: %d, Total Restock Cost: $%.2f%n",
-                itemName, currentStock, itemToRestock.getQuantity(), restockCost);
+        System.out.printf("Restocked Item: %s, Current Stock: %d, New Stock: %d, Total Restock Cost: $%s%n",
+                itemName, currentStock, itemToRestock.getQuantity(), Item.formatCents(restockCents));
 
         storage.saveItemMap(itemMap);
     }
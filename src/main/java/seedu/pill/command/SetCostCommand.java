@@ -6,19 +6,16 @@ import seedu.pill.util.Item;
 import seedu.pill.util.ItemMap;
 import seedu.pill.util.Storage;
 
-import java.text.DecimalFormat;
-
 /**
  * Command to set the cost of all items with a specified name.
  */
 public class SetCostCommand extends Command {
-    private static final DecimalFormat decimalFormat = new DecimalFormat("#0.00");
     private final String itemName;
-    private final double cost;
+    private final long costCents;
 
     public SetCostCommand(String itemName, double cost) {
         this.itemName = itemName.toLowerCase();
-        this.cost = cost;
+        this.costCents = Item.toCents(cost);
     }
 
     @Override
@@ -27,9 +24,9 @@ public class SetCostCommand extends Command {
         boolean msgIsPrinted = false;
 
         for (Item item : itemMap.getItemsByName(itemName)) {
-            item.setCost(cost);
+            itemMap.setItemCostCents(item, costCents);
             if (!msgIsPrinted) {
-                System.out.println("Set cost of " + itemName + " to $" + decimalFormat.format(cost) + ".");
+                System.out.println("Set cost of " + itemName + " to $" + Item.formatCents(costCents) + ".");
                 msgIsPrinted = true;
             }
             itemFound = true;
@@ -6,19 +6,16 @@ import seedu.pill.util.Item;
 import seedu.pill.util.ItemMap;
 import seedu.pill.util.Storage;
 
-import java.text.DecimalFormat;
-
 /**
  * Command to set the price of all items with a specified name.
  */
 public class SetPriceCommand extends Command {
-    private static final DecimalFormat decimalFormat = new DecimalFormat("#0.00");
     private final String itemName;
-    private final double price;
+    private final long priceCents;
 
     public SetPriceCommand(String itemName, double price) {
         this.itemName = itemName.toLowerCase();
-        this.price = price;
+        this.priceCents = Item.toCents(price);
     }
 
     @Override
@@ -27,9 +24,9 @@ public class SetPriceCommand extends Command {
         boolean msgIsPrinted = false;
 
         for (Item item : itemMap.getItemsByName(itemName)) {
-            item.setPrice(price);
+            itemMap.setItemPriceCents(item, priceCents);
             if (!msgIsPrinted) {
-                System.out.println("Set price of " + itemName + " to $" + decimalFormat.format(price) + ".");
+                System.out.println("Set price of " + itemName + " to $" + Item.formatCents(priceCents) + ".");
                 msgIsPrinted = true;
             }
             itemFound = true;
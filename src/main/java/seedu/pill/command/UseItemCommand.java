@@ -33,6 +33,9 @@ public class UseItemCommand extends Command {
      */
     @Override
     public void execute(ItemMap itemMap, Storage storage) throws PillException {
+        if (itemMap.get(this.itemName).isEmpty()) {
+            suggestItemName(itemMap, this.itemName);
+        }
         itemMap.useItem(this.itemName, this.quantityToUse);
         storage.saveItemMap(itemMap);
     }
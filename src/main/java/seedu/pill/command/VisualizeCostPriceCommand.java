@@ -18,7 +18,7 @@ public class VisualizeCostPriceCommand extends Command {
 
     @Override
     public void execute(ItemMap items, Storage storage) throws PillException {
-        visualizer.setItems(items.getItemsAsArrayList());
+        visualizer.setItems(items.snapshot().getItemsAsArrayList());
 
         try{
             visualizer.drawCostPriceChart();
@@ -12,6 +12,7 @@ public enum ExceptionMessages {
     INVALID_DELETE_COMMAND              ("Invalid Delete command format..."),
     INVALID_EDIT_COMMAND                ("Invalid Edit command format..."),
     INVALID_USE_COMMAND                 ("Invalid Use command format..."),
+    INVALID_PREFIX_COMMAND              ("Invalid prefix command format..."),
     STOCK_UNDERFLOW                     ("Trying to use more items than is available, please try again."),
     NO_ITEM_ERROR                       ("No item with that name in inventory, please try again."),
     PARSE_DATE_ERROR                    ("Date provided is in the wrong format, please try again."),
@@ -27,6 +28,7 @@ public enum ExceptionMessages {
     INVALID_TRANSACTION_HISTORY_COMMAND ("Invalid transaction history command format..."),
     INVALID_DATETIME_FORMAT             ("Invalid datetime format, please try again."),
     INVALID_ORDER                       ("Order not found..."),
+    AMBIGUOUS_ORDER                     ("More than one order starts with that id, please type more of it..."),
     INVALID_INDEX                       ("Index out of bounds, please try again."),
     INVALID_ORDER_COMMAND               ("Invalid order command format..."),
     INVALID_ITEM_FORMAT                 ("Invalid item format..."),
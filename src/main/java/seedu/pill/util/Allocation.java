@@ -0,0 +1,113 @@
+package seedu.pill.util;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The batches a quantity of an item was taken from, earliest expiring first, as planned and applied by
+ * {@link ItemMap#useItem(String, int)}.
+ *
+ * <p>Each line records how much was taken from one batch and how much of the batch is left, so that the use
+ * can be shown to the user and recorded with the transaction it belongs to.</p>
+ */
+public final class Allocation {
+    private final String itemName;
+    private final List<Line> lines;
+
+    /**
+     * The quantity taken from one batch.
+     */
+    public static final class Line {
+        private final long expiryEpochDay;
+        private final int quantity;
+        private final int quantityLeft;
+
+        /**
+         * Creates a line of an allocation.
+         *
+         * @param expiryEpochDay The expiry date of the batch as an epoch day, or {@link Item#NO_EXPIRY}.
+         * @param quantity       The quantity taken from the batch.
+         * @param quantityLeft   The quantity left in the batch afterwards.
+         */
+        public Line(long expiryEpochDay, int quantity, int quantityLeft) {
+            this.expiryEpochDay = expiryEpochDay;
+            this.quantity = quantity;
+            this.quantityLeft = quantityLeft;
+        }
+
+        public boolean hasExpiryDate() {
+            return expiryEpochDay != Item.NO_EXPIRY;
+        }
+
+        public long getExpiryEpochDay() {
+            return expiryEpochDay;
+        }
+
+        public Optional<LocalDate> getExpiryDate() {
+            return hasExpiryDate() ? Optional.of(LocalDate.ofEpochDay(expiryEpochDay)) : Optional.empty();
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public int getQuantityLeft() {
+            return quantityLeft;
+        }
+
+        /**
+         * Returns whether the whole batch was taken, which removes it from the inventory.
+         */
+        public boolean isUsedUp() {
+            return quantityLeft == 0;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Line line) {
+                return expiryEpochDay == line.expiryEpochDay && quantity == line.quantity
+                        && quantityLeft == line.quantityLeft;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Long.hashCode(expiryEpochDay) + quantity) + quantityLeft;
+        }
+
+        @Override
+        public String toString() {
+            String batch = hasExpiryDate() ? "batch expiring " + LocalDate.ofEpochDay(expiryEpochDay) : "batch";
+            return quantity + " from " + batch + ", " + quantityLeft + " left";
+        }
+    }
+
+    Allocation(String itemName, List<Line> lines) {
+        this.itemName = itemName;
+        this.lines = List.copyOf(lines);
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the total quantity taken across all batches.
+     */
+    public int getQuantity() {
+        int quantity = 0;
+        for (Line line : lines) {
+            quantity += line.quantity;
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,326 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the inventory in a compact binary format, as an alternative to the CSV snapshot.
+ *
+ * <p>The file starts with the magic bytes {@code PILL} and a format version, followed by blocks until the
+ * end of the file. Every block is length-prefixed and ends with a CRC-32 of its type and payload:</p>
+ * <pre>
+ *     byte type | int payloadLength | payload | int crc
+ * </pre>
+ * <ul>
+ *     <li>{@code NAMES} - an int count, then that many UTF-8 names, each prefixed with its byte length.
+ *     Names are added to a dictionary shared by all later blocks.</li>
+ *     <li>{@code BATCHES} - an int count, then that many fixed-width records of
+ *     {@code int nameIndex | int quantity | int expiryEpochDay | long costCents | long priceCents}.
+ *     Batches without an expiry date store {@link #NO_EXPIRY}.</li>
+ * </ul>
+ *
+ * <p>Because blocks only refer to names defined before them, a batch can be appended to an existing file
+ * without rewriting it. Cost and price are rounded to cents the same way the CSV snapshot rounds them.</p>
+ */
+public class BinarySnapshot {
+    static final int VERSION = 1;
+    static final int NO_EXPIRY = Integer.MIN_VALUE;
+    static final int MAX_BATCHES_PER_BLOCK = 1 << 16;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final byte[] MAGIC = {'P', 'I', 'L', 'L'};
+    private static final int HEADER_LENGTH = MAGIC.length + Short.BYTES;
+    private static final byte NAMES = 1;
+    private static final byte BATCHES = 2;
+    private static final int BATCH_RECORD_LENGTH = 3 * Integer.BYTES + 2 * Long.BYTES;
+
+    private final File file;
+    private int nameCount = -1;
+
+    /**
+     * Creates a binary snapshot backed by the given file.
+     *
+     * @param file The file holding the snapshot.
+     */
+    public BinarySnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns whether the snapshot file exists.
+     *
+     * @return true if the snapshot has been written before.
+     */
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Replaces the snapshot file with the given items, through a temporary file that is renamed over it, so
+     * the file always holds either the old or the new snapshot in full.
+     *
+     * @param itemMap The items to write.
+     * @param force   Whether to force the written data to the storage device before returning.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(ItemMap itemMap, boolean force) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Item> batches = new ArrayList<>();
+        Map<String, Integer> nameIndexes = new HashMap<>();
+        List<Integer> batchNameIndexes = new ArrayList<>();
+        for (TreeSet<Item> itemSet : itemMap.items.values()) {
+            for (Item item : itemSet) {
+                Integer index = nameIndexes.get(item.getName());
+                if (index == null) {
+                    index = names.size();
+                    nameIndexes.put(item.getName(), index);
+                    names.add(item.getName());
+                }
+                batches.add(item);
+                batchNameIndexes.add(index);
+            }
+        }
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (DataOutputStream data = new DataOutputStream(content)) {
+            data.write(MAGIC);
+            data.writeShort(VERSION);
+            writeNamesBlock(data, names);
+            for (int from = 0; from < batches.size(); from += MAX_BATCHES_PER_BLOCK) {
+                int to = Math.min(from + MAX_BATCHES_PER_BLOCK, batches.size());
+                writeBatchesBlock(data, batches.subList(from, to), batchNameIndexes.subList(from, to));
+            }
+        }
+        // A crash while writing must leave the previous snapshot intact, as the journal only holds changes on top
+        CsvSnapshotWriter.writeAtomically(file, content.toByteArray(), force);
+        nameCount = names.size();
+    }
+
+    /**
+     * Appends a single batch to the snapshot file, writing the header first if the file is new. The number of
+     * names already in the file is kept from the last read, write or append, so the file is only scanned for it
+     * on the first append to a file this snapshot has not read or written.
+     *
+     * @param item The batch to append.
+     * @throws IOException if the file cannot be written.
+     */
+    public void append(Item item) throws IOException {
+        boolean isNew = !file.exists() || file.length() == 0;
+        // The name gets a fresh dictionary entry, so only the number of names before it has to be known
+        int nameIndex = nameCount;
+        if (isNew) {
+            nameIndex = 0;
+        } else if (nameIndex < 0) {
+            nameIndex = countNames();
+        }
+        nameCount = -1;
+        try (DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            if (isNew) {
+                data.write(MAGIC);
+                data.writeShort(VERSION);
+            }
+            writeNamesBlock(data, List.of(item.getName()));
+            writeBatchesBlock(data, List.of(item), List.of(nameIndex));
+        }
+        nameCount = nameIndex + 1;
+    }
+
+    /**
+     * Reads the snapshot into the given item map. Blocks that are truncated or fail their checksum
+     * are reported and skipped, together with every block after them.
+     *
+     * @param itemMap The item map to add the batches to.
+     * @throws IOException if the file cannot be read.
+     */
+    public void read(ItemMap itemMap) throws IOException {
+        nameCount = -1;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!readHeader(buffer)) {
+                PillException.printException(new PillException(ExceptionMessages.LOAD_ERROR));
+                return;
+            }
+
+            List<String> names = new ArrayList<>();
+            CRC32 crc = new CRC32();
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get(buffer.position());
+                ByteBuffer payload = nextBlockPayload(buffer, crc);
+                if (payload == null) {
+                    LOGGER.severe("Corrupt block in binary snapshot at offset " + buffer.position());
+                    PillException.printException(new PillException(ExceptionMessages.LOAD_ERROR));
+                    return;
+                }
+                if (type == NAMES) {
+                    readNames(payload, names);
+                } else if (type == BATCHES) {
+                    readBatches(payload, names, itemMap);
+                } else {
+                    LOGGER.warning("Skipping unknown block type " + type + " in binary snapshot");
+                }
+            }
+            nameCount = names.size();
+        }
+    }
+
+    private static boolean readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return false;
+        }
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                return false;
+            }
+        }
+        int version = buffer.getShort();
+        if (version != VERSION) {
+            LOGGER.severe("Unsupported binary snapshot version " + version);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the block at the buffer's position and returns a view of its payload, advancing the buffer past
+     * the block. Returns null if the block is truncated or fails its checksum.
+     */
+    private static ByteBuffer nextBlockPayload(ByteBuffer buffer, CRC32 crc) {
+        if (buffer.remaining() < 1 + 2 * Integer.BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start + 1);
+        if (length < 0 || length > buffer.remaining() - 1 - 2 * Integer.BYTES) {
+            return null;
+        }
+        int end = start + 1 + Integer.BYTES + length;
+
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(start + 1));
+        crc.update(buffer.duplicate().position(start + 1 + Integer.BYTES).limit(end));
+        if ((int) crc.getValue() != buffer.getInt(end)) {
+            return null;
+        }
+
+        ByteBuffer payload = buffer.duplicate().position(start + 1 + Integer.BYTES).limit(end);
+        buffer.position(end + Integer.BYTES);
+        return payload;
+    }
+
+    private static void readNames(ByteBuffer payload, List<String> names) {
+        int count = payload.getInt();
+        byte[] bytes = new byte[0];
+        for (int i = 0; i < count; i++) {
+            int length = payload.getInt();
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            payload.get(bytes, 0, length);
+            names.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void readBatches(ByteBuffer payload, List<String> names, ItemMap itemMap) {
+        int count = payload.getInt();
+        try {
+            for (int i = 0; i < count; i++) {
+                String name = names.get(payload.getInt());
+                int quantity = payload.getInt();
+                int epochDay = payload.getInt();
+                long expiryEpochDay = epochDay == NO_EXPIRY ? Item.NO_EXPIRY : epochDay;
+                long costCents = payload.getLong();
+                long priceCents = payload.getLong();
+                itemMap.addItemSilent(Item.ofCents(name, quantity, expiryEpochDay, costCents, priceCents));
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            LOGGER.severe("Malformed batch record in binary snapshot: " + e.getMessage());
+            PillException.printException(new PillException(ExceptionMessages.LOAD_ERROR));
+        }
+    }
+
+    private int countNames() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!readHeader(buffer)) {
+                throw new IOException("Not a binary snapshot: " + file);
+            }
+            CRC32 crc = new CRC32();
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get(buffer.position());
+                ByteBuffer payload = nextBlockPayload(buffer, crc);
+                if (payload == null) {
+                    throw new IOException("Corrupt binary snapshot: " + file);
+                }
+                if (type == NAMES) {
+                    count += payload.getInt();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void writeNamesBlock(DataOutputStream out, List<String> names) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeInt(names.size());
+        for (String name : names) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            payload.writeInt(encoded.length);
+            payload.write(encoded);
+        }
+        writeBlock(out, NAMES, bytes.toByteArray());
+    }
+
+    private static void writeBatchesBlock(DataOutputStream out, List<Item> batches, List<Integer> nameIndexes)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Integer.BYTES + batches.size() * BATCH_RECORD_LENGTH);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeInt(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            Item item = batches.get(i);
+            payload.writeInt(nameIndexes.get(i));
+            payload.writeInt(item.getQuantity());
+            payload.writeInt(item.hasExpiryDate() ? Math.toIntExact(item.getExpiryEpochDay()) : NO_EXPIRY);
+            payload.writeLong(item.getCostCents());
+            payload.writeLong(item.getPriceCents());
+        }
+        writeBlock(out, BATCHES, bytes.toByteArray());
+    }
+
+    private static void writeBlock(OutputStream out, byte type, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeByte(type);
+        data.writeInt(payload.length);
+        data.write(payload);
+        data.writeInt((int) crc.getValue());
+    }
+}
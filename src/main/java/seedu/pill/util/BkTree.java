@@ -0,0 +1,258 @@
+package seedu.pill.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A BK-tree over strings, using the case-insensitive Levenshtein distance of {@link StringMatcher} as its
+ * metric. It finds the strings within a few edits of a query while visiting only a small part of the tree.
+ *
+ * <p>Every child of a node is stored under its distance to that node. By the triangle inequality, a string
+ * within {@code r} edits of the query can only be below a child whose distance to the node differs from the
+ * query's distance to the node by at most {@code r}, so all other children are skipped.</p>
+ *
+ * <p>Strings are compared in lower case, and each is returned as it was added. When several strings are
+ * equally close to a query, the one added first wins, as in {@link StringMatcher#findClosestMatch}. Removed
+ * strings are only marked as such, and the tree is rebuilt once they outnumber the remaining ones.</p>
+ */
+public class BkTree {
+    private Node root;
+    private int size;
+    private int removedCount;
+    private long nextSequence;
+    private int lastVisitCount;
+
+    private static class Node {
+        private final String key;
+        private final Map<Integer, Node> children = new HashMap<>();
+        private String value;
+        private long sequence;
+        private boolean isRemoved;
+        private int maxChildDistance;
+
+        private Node(String key, String value, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Builds a tree holding the given strings, in their iteration order.
+     *
+     * @param values The strings to add.
+     * @return The new tree.
+     */
+    public static BkTree of(Collection<String> values) {
+        BkTree tree = new BkTree();
+        for (String value : values) {
+            tree.add(value);
+        }
+        return tree;
+    }
+
+    /**
+     * Adds a string to the tree. A string equal to one already in the tree, ignoring case, is not added
+     * again, unless the earlier one was removed.
+     *
+     * @param value The string to add.
+     */
+    public void add(String value) {
+        String key = value.toLowerCase();
+        if (root == null) {
+            root = new Node(key, value, nextSequence++);
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = StringMatcher.levenshteinDistance(key, node.key);
+            if (distance == 0) {
+                if (node.isRemoved) {
+                    node.isRemoved = false;
+                    node.value = value;
+                    node.sequence = nextSequence++;
+                    removedCount--;
+                    size++;
+                }
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(key, value, nextSequence++));
+                node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Removes a string from the tree, if it is there.
+     *
+     * @param value The string to remove, in any case.
+     */
+    public void remove(String value) {
+        String key = value.toLowerCase();
+        Node node = root;
+        while (node != null) {
+            int distance = StringMatcher.levenshteinDistance(key, node.key);
+            if (distance == 0) {
+                if (!node.isRemoved) {
+                    node.isRemoved = true;
+                    removedCount++;
+                    size--;
+                    if (removedCount > size) {
+                        rebuild();
+                    }
+                }
+                return;
+            }
+            node = node.children.get(distance);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the string closest to the query, if it is within the given number of edits.
+     *
+     * @param query       The string to look for.
+     * @param maxDistance The largest number of edits allowed.
+     * @return The closest string, the earliest added one among equally close strings, or null if there is
+     *         no string within {@code maxDistance} edits.
+     */
+    public String findClosest(String query, int maxDistance) {
+        String key = query.toLowerCase();
+        Node best = null;
+        int bestDistance = maxDistance;
+        lastVisitCount = 0;
+
+        // Each pending node is paired with a lower bound on its distance to the query, and the children
+        // closest to the query's distance are searched first, so that the radius shrinks early
+        Deque<Node> pending = new ArrayDeque<>();
+        Deque<Integer> lowerBounds = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+            lowerBounds.push(0);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (lowerBounds.pop() > bestDistance) {
+                continue;
+            }
+            lastVisitCount++;
+            int distance = distanceTo(key, node, bestDistance);
+            if (!node.isRemoved && distance <= bestDistance
+                    && (best == null || distance < bestDistance || node.sequence < best.sequence)) {
+                best = node;
+                bestDistance = distance;
+            }
+
+            List<Map.Entry<Integer, Node>> children = new ArrayList<>(node.children.entrySet());
+            children.sort(Comparator.comparingInt(child -> -Math.abs(child.getKey() - distance)));
+            for (Map.Entry<Integer, Node> child : children) {
+                int lowerBound = Math.abs(child.getKey() - distance);
+                if (lowerBound <= bestDistance) {
+                    pending.push(child.getValue());
+                    lowerBounds.push(lowerBound);
+                }
+            }
+        }
+        return best == null ? null : best.value;
+    }
+
+    /**
+     * Returns every string within the given number of edits of the query, closest first.
+     *
+     * @param query       The string to look for.
+     * @param maxDistance The largest number of edits allowed.
+     * @return The matching strings, ordered by distance and then by the order they were added in.
+     */
+    public List<String> findWithin(String query, int maxDistance) {
+        String key = query.toLowerCase();
+        List<Node> matches = new ArrayList<>();
+        Map<Node, Integer> distances = new HashMap<>();
+        lastVisitCount = 0;
+
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            lastVisitCount++;
+            int distance = distanceTo(key, node, maxDistance);
+            if (!node.isRemoved && distance <= maxDistance) {
+                matches.add(node);
+                distances.put(node, distance);
+            }
+            pushCandidates(node, distance, maxDistance, pending);
+        }
+
+        matches.sort(Comparator.<Node>comparingInt(distances::get).thenComparingLong(node -> node.sequence));
+        List<String> values = new ArrayList<>(matches.size());
+        for (Node node : matches) {
+            values.add(node.value);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the number of nodes visited by the last search, for checking how selective it was.
+     */
+    int getLastVisitCount() {
+        return lastVisitCount;
+    }
+
+    /**
+     * Returns the distance from the query to a node, or any smaller value that still rules out the node and
+     * all of its children. Beyond {@code radius} more edits than the largest child distance, the node and
+     * every child fail the triangle inequality check, so the comparison can stop there.
+     */
+    private static int distanceTo(String key, Node node, int radius) {
+        return StringMatcher.levenshteinDistance(key, node.key, radius + node.maxChildDistance);
+    }
+
+    private static void pushCandidates(Node node, int distance, int radius, Deque<Node> pending) {
+        for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+            if (Math.abs(child.getKey() - distance) <= radius) {
+                pending.push(child.getValue());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the tree from the strings that were not removed, keeping the order they were added in.
+     */
+    private void rebuild() {
+        List<Node> live = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (!node.isRemoved) {
+                live.add(node);
+            }
+            pending.addAll(node.children.values());
+        }
+        live.sort(Comparator.comparingLong(node -> node.sequence));
+
+        root = null;
+        size = 0;
+        removedCount = 0;
+        for (Node node : live) {
+            add(node.value);
+        }
+    }
+}
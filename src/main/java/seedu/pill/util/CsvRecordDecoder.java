@@ -0,0 +1,233 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Decodes lines of the CSV snapshot into items without building intermediate field strings.
+ *
+ * <p>A line holds up to five comma separated fields: name, quantity, expiry date, cost and price.
+ * A backslash escapes the character after it, so names may contain commas. The decoder finds the field
+ * boundaries in one pass over the line, then parses quantity, ISO dates and decimal amounts directly from
+ * the characters. Fields it cannot handle in place, such as escaped characters or exponent notation, are
+ * handed to the standard JDK parsers, so every line decodes to the same item, or fails with the same error,
+ * as it would with {@code Integer.parseInt}, {@code LocalDate.parse} and {@code Double.parseDouble}.</p>
+ *
+ * <p>A decoder reuses its scratch state between lines and must not be shared between threads.</p>
+ */
+public class CsvRecordDecoder {
+    private static final int MAX_FIELDS = 5;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private final boolean[] fieldEscaped = new boolean[MAX_FIELDS];
+    private final StringBuilder scratch = new StringBuilder();
+    private int fieldCount;
+
+    /**
+     * Decodes a whole line.
+     *
+     * @param line The line, without its line separator.
+     * @return The item described by the line.
+     * @throws PillException if the line is not a valid snapshot line.
+     */
+    public Item decode(CharSequence line) throws PillException {
+        return decode(line, 0, line.length());
+    }
+
+    /**
+     * Decodes the line held in the given window of characters.
+     *
+     * @param chars The characters holding the line.
+     * @param start The index of the first character of the line.
+     * @param end   The index just after the last character of the line, excluding the line separator.
+     * @return The item described by the line.
+     * @throws PillException if the line is not a valid snapshot line.
+     */
+    public Item decode(CharSequence chars, int start, int end) throws PillException {
+        splitFields(chars, start, end);
+        if (fieldCount < 2) {
+            throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
+        }
+
+        try {
+            String name = fieldString(chars, 0);
+            int quantity = parseQuantity(chars, 1);
+            long expiryEpochDay = isPresent(2) ? parseDate(chars, 2).toEpochDay() : Item.NO_EXPIRY;
+            long costCents = isPresent(3) ? Item.toCents(parseAmount(chars, 3)) : 0;
+            long priceCents = isPresent(4) ? Item.toCents(parseAmount(chars, 4)) : 0;
+            return Item.ofCents(name, quantity, expiryEpochDay, costCents, priceCents);
+        } catch (NumberFormatException e) {
+            throw new PillException(ExceptionMessages.INVALID_QUANTITY_FORMAT);
+        } catch (DateTimeException e) {
+            throw new PillException(ExceptionMessages.PARSE_DATE_ERROR);
+        }
+    }
+
+    /**
+     * Records where each field starts and ends. A backslash escapes the next character, and more than
+     * four unescaped commas make the line invalid.
+     */
+    private void splitFields(CharSequence chars, int start, int end) throws PillException {
+        fieldCount = 0;
+        int fieldStart = start;
+        boolean isEscaped = false;
+        boolean inEscape = false;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c == '\\' && !inEscape) {
+                inEscape = true;
+                isEscaped = true;
+            } else if (c == ',' && !inEscape) {
+                if (fieldCount == MAX_FIELDS - 1) {
+                    throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
+                }
+                addField(fieldStart, i, isEscaped);
+                fieldStart = i + 1;
+                isEscaped = false;
+            } else {
+                inEscape = false;
+            }
+        }
+        addField(fieldStart, end, isEscaped);
+    }
+
+    private void addField(int start, int end, boolean isEscaped) {
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldEscaped[fieldCount] = isEscaped;
+        fieldCount++;
+    }
+
+    private boolean isPresent(int field) {
+        if (field >= fieldCount) {
+            return false;
+        }
+        int length = fieldEnds[field] - fieldStarts[field];
+        // A lone backslash escapes nothing and leaves the field empty
+        return length > 1 || (length == 1 && !fieldEscaped[field]);
+    }
+
+    /**
+     * Returns the unescaped value of a field.
+     */
+    private String fieldString(CharSequence chars, int field) {
+        scratch.setLength(0);
+        if (!fieldEscaped[field]) {
+            return scratch.append(chars, fieldStarts[field], fieldEnds[field]).toString();
+        }
+        boolean inEscape = false;
+        for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+            char c = chars.charAt(i);
+            if (c == '\\' && !inEscape) {
+                inEscape = true;
+            } else {
+                scratch.append(c);
+                inEscape = false;
+            }
+        }
+        return scratch.toString();
+    }
+
+    /**
+     * Parses a field the way {@link Integer#parseInt(String)} does.
+     */
+    private int parseQuantity(CharSequence chars, int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        if (!fieldEscaped[field] && end > start) {
+            boolean isNegative = chars.charAt(start) == '-';
+            int i = isNegative || chars.charAt(start) == '+' ? start + 1 : start;
+            // Up to nine digits cannot overflow an int
+            if (i < end && end - i <= 9) {
+                int value = 0;
+                for (; i < end; i++) {
+                    int digit = chars.charAt(i) - '0';
+                    if (digit < 0 || digit > 9) {
+                        break;
+                    }
+                    value = value * 10 + digit;
+                }
+                if (i == end) {
+                    return isNegative ? -value : value;
+                }
+            }
+        }
+        return Integer.parseInt(fieldString(chars, field));
+    }
+
+    /**
+     * Parses a field the way {@link LocalDate#parse(CharSequence)} does.
+     */
+    private LocalDate parseDate(CharSequence chars, int field) {
+        int start = fieldStarts[field];
+        if (!fieldEscaped[field] && fieldEnds[field] - start == 10
+                && chars.charAt(start + 4) == '-' && chars.charAt(start + 7) == '-') {
+            int year = digits(chars, start, 4);
+            int month = digits(chars, start + 5, 2);
+            int day = digits(chars, start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(fieldString(chars, field));
+    }
+
+    /**
+     * Returns the value of the given number of ASCII digits, or -1 if any of them is not a digit.
+     */
+    private static int digits(CharSequence chars, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = chars.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a field the way {@link Double#parseDouble(String)} does. Plain decimals with at most
+     * fifteen significant digits are exact in a double, as is their power-of-ten divisor, so dividing
+     * them gives the same correctly rounded result.
+     */
+    private double parseAmount(CharSequence chars, int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        if (!fieldEscaped[field]) {
+            boolean isNegative = chars.charAt(start) == '-';
+            int i = isNegative || chars.charAt(start) == '+' ? start + 1 : start;
+            long mantissa = 0;
+            int digitCount = 0;
+            int fractionDigits = -1;
+            for (; i < end; i++) {
+                char c = chars.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digitCount++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else {
+                    break;
+                }
+            }
+            if (i == end && digitCount > 0 && digitCount <= MAX_EXACT_DIGITS) {
+                double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+                return isNegative ? -value : value;
+            }
+        }
+        return Double.parseDouble(fieldString(chars, field));
+    }
+}
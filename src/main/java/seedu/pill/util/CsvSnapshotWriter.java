@@ -0,0 +1,301 @@
+package seedu.pill.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Writes the CSV snapshot through a {@link FileChannel}, encoding lines as UTF-8 into a reusable direct buffer.
+ *
+ * <p>A snapshot is first written to a temporary file next to the target and then renamed over it, so a crash
+ * in the middle of a save leaves either the old or the new snapshot, never a truncated one.</p>
+ *
+ * <p>Cost and price are written with two decimals from the whole cents an {@link Item} holds, which gives the
+ * same text as {@code String.format("%.2f")} with a period as the decimal separator.</p>
+ *
+ * <p>A writer reuses its buffer between saves and must not be used by two threads at once.</p>
+ */
+public class CsvSnapshotWriter {
+    static final int BUFFER_BYTES = 64 * 1024;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private FileChannel channel;
+
+    /**
+     * Replaces the target file with a snapshot of the given items.
+     *
+     * @param target  The snapshot file to replace.
+     * @param itemMap The items to write.
+     * @param force   Whether to force the snapshot to the storage device before returning.
+     * @throws IOException if the snapshot cannot be written. The target file is left untouched.
+     */
+    public void write(File target, ItemMap itemMap, boolean force) throws IOException {
+        Path targetPath = target.toPath();
+        Path tempPath = targetPath.resolveSibling(target.getName() + TEMP_SUFFIX);
+        try {
+            channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.clear();
+            for (TreeSet<Item> itemSet : itemMap.items.values()) {
+                for (Item item : itemSet) {
+                    putLine(item);
+                }
+            }
+            drain();
+            if (force) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            closeChannel();
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        closeChannel();
+        moveIntoPlace(tempPath, targetPath, force);
+    }
+
+    /**
+     * Replaces the target file with the given content, through a temporary file that is renamed over it.
+     *
+     * @param target  The file to replace.
+     * @param content The new content of the file.
+     * @param force   Whether to force the content to the storage device before returning.
+     * @throws IOException if the content cannot be written. The target file is left untouched.
+     */
+    static void writeAtomically(File target, byte[] content, boolean force) throws IOException {
+        Path targetPath = target.toPath();
+        Path tempPath = targetPath.resolveSibling(target.getName() + TEMP_SUFFIX);
+        try (FileChannel out = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(content);
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            if (force) {
+                out.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        moveIntoPlace(tempPath, targetPath, force);
+    }
+
+    private static void moveIntoPlace(Path tempPath, Path targetPath, boolean force) throws IOException {
+        try {
+            Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.warning("Atomic rename not supported, replacing snapshot non-atomically");
+            Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (force) {
+            forceDirectory(targetPath.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Appends a single line to the end of the given file.
+     *
+     * @param target The snapshot file to append to.
+     * @param item   The item to append.
+     * @throws IOException if the line cannot be written.
+     */
+    public void append(File target, Item item) throws IOException {
+        try {
+            channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            buffer.clear();
+            putLine(item);
+            drain();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Formats an item as a single snapshot line, without the line separator.
+     *
+     * @param item The item to format.
+     * @return The comma separated representation of the item.
+     */
+    public static String formatLine(Item item) {
+        StringBuilder sb = new StringBuilder();
+        String name = item.getName();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == ',') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append(',').append(item.getQuantity()).append(',');
+        if (item.hasExpiryDate()) {
+            sb.append(LocalDate.ofEpochDay(item.getExpiryEpochDay()));
+        }
+        sb.append(',');
+        if (item.getCostCents() > 0) {
+            sb.append(Item.formatCents(item.getCostCents()));
+        }
+        sb.append(',');
+        if (item.getPriceCents() > 0) {
+            sb.append(Item.formatCents(item.getPriceCents()));
+        }
+        return sb.toString();
+    }
+
+    private void putLine(Item item) throws IOException {
+        putName(item.getName());
+        putByte(',');
+        putLong(item.getQuantity());
+        putByte(',');
+        if (item.hasExpiryDate()) {
+            putDate(LocalDate.ofEpochDay(item.getExpiryEpochDay()));
+        }
+        putByte(',');
+        if (item.getCostCents() > 0) {
+            putCents(item.getCostCents());
+        }
+        putByte(',');
+        if (item.getPriceCents() > 0) {
+            putCents(item.getPriceCents());
+        }
+        ensure(LINE_SEPARATOR.length);
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a name as UTF-8, escaping its commas. Unpaired surrogates are written as '?', like
+     * {@link String#getBytes} does.
+     */
+    private void putName(String name) throws IOException {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            ensure(4);
+            if (c == ',') {
+                buffer.put((byte) '\\').put((byte) ',');
+            } else if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < name.length()
+                    && Character.isLowSurrogate(name.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, name.charAt(++i));
+                buffer.put((byte) (0xf0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3f))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3f)).put((byte) (0x80 | codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f))
+                        .put((byte) (0x80 | c & 0x3f));
+            }
+        }
+    }
+
+    private void putDate(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            putAscii(date.toString());
+            return;
+        }
+        ensure(10);
+        putDigits(year, 4);
+        buffer.put((byte) '-');
+        putDigits(date.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void putCents(long cents) throws IOException {
+        putLong(cents / 100);
+        ensure(3);
+        buffer.put((byte) '.');
+        putDigits((int) (cents % 100), 2);
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                putAscii(Long.toString(value).substring(1));
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer.put(buffer.position() + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(buffer.position() + digits);
+    }
+
+    private void putDigits(int value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            buffer.put(buffer.position() + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(buffer.position() + count);
+    }
+
+    private void putAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            putByte(text.charAt(i));
+        }
+    }
+
+    private void putByte(char c) throws IOException {
+        ensure(1);
+        buffer.put((byte) c);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to disk. Not every platform can open a directory,
+     * in which case the rename is left to the file system.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            LOGGER.fine(() -> "Could not force directory " + directory + ": " + e.getMessage());
+        }
+    }
+}
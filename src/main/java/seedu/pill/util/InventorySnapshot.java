@@ -0,0 +1,276 @@
+package seedu.pill.util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable view of the whole inventory at one point in time, for reports that should neither block nor
+ * be disturbed by changes made while they run.
+ *
+ * <p>The batches of each name are held as copies in a {@link PersistentSortedMap}, keyed by the order in
+ * which the names were first added. A new snapshot is made from the previous one by replacing the entries
+ * of the names that changed, so it shares the entries of every other name with it. Snapshots are never
+ * changed after they are made, and can be read by any thread without locks. Every batch they return is a
+ * fresh copy.</p>
+ *
+ * <p>Each snapshot published by an inventory has a version one higher than the one published before it.</p>
+ */
+public final class InventorySnapshot {
+    static final InventorySnapshot EMPTY = new InventorySnapshot(0, PersistentSortedMap.empty(), new StockTotals());
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+
+    private final long version;
+    private final PersistentSortedMap<Batches> names;
+    private final StockTotals totals;
+
+    /**
+     * Copies of the batches of one name, earliest expiring first, with their totals.
+     */
+    static final class Batches {
+        private final List<Item> items;
+        private final StockTotals totals = new StockTotals();
+
+        /**
+         * Copies the given batches, which must be in expiry order.
+         *
+         * @param batches The batches of one name.
+         */
+        Batches(Collection<Item> batches) {
+            List<Item> copies = new ArrayList<>(batches.size());
+            for (Item batch : batches) {
+                Item copy = batch.copy();
+                copies.add(copy);
+                totals.add(copy, 1);
+            }
+            this.items = List.copyOf(copies);
+        }
+
+        boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+
+    private InventorySnapshot(long version, PersistentSortedMap<Batches> names, StockTotals totals) {
+        this.version = version;
+        this.names = names;
+        this.totals = totals;
+    }
+
+    /**
+     * Returns a snapshot in which the name numbered {@code sequence} has the given batches, or is absent if
+     * there are none. The version is not changed.
+     *
+     * @param sequence The number giving the position of the name.
+     * @param batches  The new batches of the name.
+     * @return The new snapshot.
+     */
+    InventorySnapshot with(long sequence, Batches batches) {
+        if (batches.isEmpty()) {
+            return without(sequence);
+        }
+        StockTotals newTotals = totalsWithout(sequence);
+        newTotals.add(batches.totals);
+        return new InventorySnapshot(version, names.put(sequence, batches), newTotals);
+    }
+
+    /**
+     * Returns a snapshot without the name numbered {@code sequence}. The version is not changed.
+     *
+     * @param sequence The number giving the position of the name.
+     * @return The new snapshot, or this one if it does not hold the name.
+     */
+    InventorySnapshot without(long sequence) {
+        if (names.get(sequence) == null) {
+            return this;
+        }
+        return new InventorySnapshot(version, names.remove(sequence), totalsWithout(sequence));
+    }
+
+    /**
+     * Returns this snapshot with the next version, to be published.
+     */
+    InventorySnapshot nextVersion() {
+        return new InventorySnapshot(version + 1, names, totals);
+    }
+
+    private StockTotals totalsWithout(long sequence) {
+        StockTotals newTotals = totals.copy();
+        Batches old = names.get(sequence);
+        if (old != null) {
+            newTotals.subtract(old.totals);
+        }
+        return newTotals;
+    }
+
+    /**
+     * Returns the totals of the name numbered {@code sequence}, all zero if the snapshot does not hold it.
+     */
+    StockTotals getTotals(long sequence) {
+        Batches batches = names.get(sequence);
+        return batches == null ? StockTotals.EMPTY : batches.totals.copy();
+    }
+
+    /**
+     * Returns copies of the batches of the name numbered {@code sequence}, earliest expiring first, or an empty
+     * list if the snapshot does not hold it.
+     */
+    List<Item> getBatches(long sequence) {
+        Batches batches = names.get(sequence);
+        if (batches == null) {
+            return List.of();
+        }
+        List<Item> copies = new ArrayList<>(batches.items.size());
+        for (Item item : batches.items) {
+            copies.add(item.copy());
+        }
+        return copies;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    /**
+     * Returns the number of batches in the snapshot.
+     *
+     * @return The number of batches, counting each expiry date of a name separately.
+     */
+    public int size() {
+        return totals.getBatchCount();
+    }
+
+    /**
+     * Returns the quantity in stock and the cost and retail value of that stock for the whole inventory.
+     *
+     * @return A copy of the totals of the snapshot.
+     */
+    public StockTotals getInventoryTotals() {
+        return totals.copy();
+    }
+
+    /**
+     * Returns copies of every batch, grouped by name in the order the names were first added and sorted by
+     * expiry date, for use in external classes like Visualizer.
+     *
+     * @return An ArrayList containing the batches of the snapshot.
+     */
+    public ArrayList<Item> getItemsAsArrayList() {
+        ArrayList<Item> copies = new ArrayList<>(size());
+        for (Batches batches : names) {
+            for (Item item : batches.items) {
+                copies.add(item.copy());
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Returns copies of every batch in a new {@code ItemMap}, with names in the order they were first added.
+     *
+     * @return A map of the batches of the snapshot.
+     */
+    public ItemMap toItemMap() {
+        ItemMap itemMap = new ItemMap(false);
+        itemMap.holdSnapshots();
+        for (Batches batches : names) {
+            for (Item item : batches.items) {
+                itemMap.addItemSilent(item.copy());
+            }
+        }
+        itemMap.releaseSnapshots();
+        return itemMap;
+    }
+
+    /**
+     * Returns copies of the batches expiring before the given date, in a new {@code ItemMap} with names in
+     * the order they were first added. Batches of a name are in expiry order, so only the expiring batches
+     * and the first batch after them are visited for each name.
+     *
+     * @param cutOffDate The date before which batches count as expiring.
+     * @return A map of the expiring batches.
+     */
+    public ItemMap getExpiringItems(LocalDate cutOffDate) {
+        ItemMap expiringItems = new ItemMap(false);
+        expiringItems.holdSnapshots();
+        for (Item item : expiringBatches(cutOffDate.toEpochDay())) {
+            expiringItems.addItemSilent(item.copy());
+        }
+        expiringItems.releaseSnapshots();
+        return expiringItems;
+    }
+
+    private List<Item> expiringBatches(long cutOffDay) {
+        List<Item> expiring = new ArrayList<>();
+        for (Batches batches : names) {
+            for (Item item : batches.items) {
+                if (item.getExpiryEpochDay() >= cutOffDay) {
+                    break;
+                }
+                expiring.add(item);
+            }
+        }
+        return expiring;
+    }
+
+    /**
+     * Lists all the items in the snapshot.
+     */
+    public void listItems() {
+        if (isEmpty()) {
+            LOGGER.info("Attempted to list items, but inventory is empty");
+            System.out.println("The inventory is empty.");
+            return;
+        }
+        LOGGER.info("Listing all items in inventory");
+        System.out.println("Listing all items:");
+        int index = 1;
+        for (Batches batches : names) {
+            for (Item item : batches.items) {
+                System.out.println(index + ". " + item.toString());
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Lists all items in the snapshot that have expired or are expiring before the specified cutoff date.
+     *
+     * @param cutOffDate the date against which item expiry is checked. If the date is today,
+     *                   the method lists items that have expired. If the date is in the future,
+     *                   it lists items expiring before the cutoff date.
+     */
+    public void listExpiringItems(LocalDate cutOffDate) {
+        List<Item> itemList = expiringBatches(cutOffDate.toEpochDay());
+        if (itemList.isEmpty()) {
+            if (cutOffDate.isEqual(LocalDate.now())) {
+                LOGGER.info("There are no items that have expired.");
+                System.out.println("There are no items that have expired.");
+            } else {
+                LOGGER.info("There are no items expiring before " + cutOffDate + ".");
+                System.out.println("There are no items expiring before " + cutOffDate + ".");
+            }
+            return;
+        }
+        if (cutOffDate.isEqual(LocalDate.now())) {
+            LOGGER.info("Listing all items that have expired");
+            System.out.println("Listing all items that have expired");
+        } else {
+            LOGGER.info("Listing all items expiring before " + cutOffDate);
+            System.out.println("Listing all items expiring before " + cutOffDate);
+        }
+
+        IntStream.range(0, itemList.size())
+                .forEach(i -> System.out.println((i + 1) + ". " + itemList.get(i)));
+
+        System.out.println();
+    }
+}
@@ -1,17 +1,32 @@
 package seedu.pill.util;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.Optional;
 
 /**
  * Represents an item in the inventory.
+ *
+ * <p>The expiry date is kept as an epoch day, with {@link #NO_EXPIRY} for items that do not expire, and the
+ * cost and price as whole cents, rounded half up like {@code String.format("%.2f")}. Since the sentinel is
+ * larger than every real date, comparing two items is a single comparison of longs. The methods taking and
+ * returning {@link Optional} dates and {@code double} amounts convert on the fly, for the code that still
+ * uses them.</p>
  */
 public class Item implements Comparable<Item> {
-    private String name;
+    /** The expiry epoch day of items without an expiry date, which sorts after every real date. */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final double MAX_FAST_AMOUNT = 1e9;
+    private static final double TIE_TOLERANCE = 1e-4;
+
+    private final ItemKey key;
+    private final String name;
     private int quantity;
-    private Optional<LocalDate> expiryDate;
-    private double cost;
-    private double price;
+    private long expiryEpochDay;
+    private long costCents;
+    private long priceCents;
 
     public Item(String name, int quantity) {
         this(name, quantity, null, 0, 0);
@@ -22,52 +37,148 @@ public class Item implements Comparable<Item> {
     }
 
     public Item(String name, int quantity, LocalDate expiryDate, double cost, double price) {
-        this.name = name;
+        this.key = ItemKey.of(name);
+        this.name = key.share(name);
         this.quantity = quantity;
-        this.expiryDate = Optional.ofNullable(expiryDate);
-        this.cost = cost;
-        this.price = price;
+        this.expiryEpochDay = toEpochDay(expiryDate);
+        this.costCents = toCents(cost);
+        this.priceCents = toCents(price);
+    }
+
+    /**
+     * Creates an item from its compact representation.
+     *
+     * @param name           The name of the item.
+     * @param quantity       The quantity in stock.
+     * @param expiryEpochDay The expiry date as an epoch day, or {@link #NO_EXPIRY}.
+     * @param costCents      The unit cost in cents, 0 if not set.
+     * @param priceCents     The unit price in cents, 0 if not set.
+     * @return The new item.
+     */
+    public static Item ofCents(String name, int quantity, long expiryEpochDay, long costCents, long priceCents) {
+        Item item = new Item(name, quantity);
+        item.expiryEpochDay = expiryEpochDay;
+        item.costCents = costCents;
+        item.priceCents = priceCents;
+        return item;
+    }
+
+    /**
+     * Returns a copy of this item, which does not change when this item does.
+     */
+    Item copy() {
+        return ofCents(name, quantity, expiryEpochDay, costCents, priceCents);
     }
 
     public String getName() {
         return name;
     }
 
+    public ItemKey getKey() {
+        return key;
+    }
+
     public int getQuantity() {
         return quantity;
     }
 
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public boolean hasExpiryDate() {
+        return expiryEpochDay != NO_EXPIRY;
+    }
+
+    public long getExpiryEpochDay() {
+        return expiryEpochDay;
+    }
+
     public Optional<LocalDate> getExpiryDate() {
-        return expiryDate;
+        return hasExpiryDate() ? Optional.of(LocalDate.ofEpochDay(expiryEpochDay)) : Optional.empty();
     }
 
     public void setExpiryDate(LocalDate expiryDate) {
-        this.expiryDate = Optional.ofNullable(expiryDate);
+        this.expiryEpochDay = toEpochDay(expiryDate);
     }
 
-    public void setQuantity(int quantity) {
-        this.quantity = quantity;
+    public long getCostCents() {
+        return costCents;
+    }
+
+    public void setCostCents(long costCents) {
+        this.costCents = costCents;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     public double getCost() {
-        return cost;
+        return costCents / 100.0;
     }
 
     public void setCost(double cost) {
-        this.cost = cost;
+        this.costCents = toCents(cost);
     }
 
     public double getPrice() {
-        return price;
+        return priceCents / 100.0;
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = toCents(price);
+    }
+
+    /**
+     * Rounds an amount half up to whole cents, like {@code String.format("%.2f")}. Amounts that are not
+     * positive mean the amount is not set, and count as zero.
+     *
+     * <p>The amount is rounded in floating point, and only amounts too large for that or close to a rounding
+     * tie are rounded from their decimal representation through {@link BigDecimal}.</p>
+     *
+     * @param amount The amount in dollars.
+     * @return The amount in cents.
+     */
+    public static long toCents(double amount) {
+        if (!(amount > 0)) {
+            return 0;
+        }
+        if (amount < MAX_FAST_AMOUNT) {
+            double scaled = amount * 100;
+            double whole = Math.floor(scaled);
+            double fraction = scaled - whole;
+            if (Math.abs(fraction - 0.5) >= TIE_TOLERANCE) {
+                return (long) whole + (fraction > 0.5 ? 1 : 0);
+            }
+        }
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /**
+     * Formats an amount of cents as dollars with two decimals.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount, such as {@code 12.05}.
+     */
+    public static String formatCents(long cents) {
+        long fraction = Math.abs(cents % 100);
+        String sign = cents < 0 && cents > -100 ? "-" : "";
+        return sign + cents / 100 + "." + (fraction < 10 ? "0" : "") + fraction;
+    }
+
+    private static long toEpochDay(LocalDate expiryDate) {
+        return expiryDate == null ? NO_EXPIRY : expiryDate.toEpochDay();
     }
 
     /**
      * Compares this {@code Item} with another {@code Item} based on their expiry dates.
-     * The comparison is in ascending order, meaning items with sooner expiry dates will come first.
+     * The comparison is in ascending order, meaning items with sooner expiry dates will come first,
+     * and items without an expiry date come last.
      *
      * @param other The {@code Item} to be compared to this {@code Item}.
      * @return A negative integer if this item expires sooner than the other;
@@ -76,23 +187,21 @@ public class Item implements Comparable<Item> {
      */
     @Override
     public int compareTo(Item other) {
-        return this.getExpiryDate()
-                .map(thisDate -> other.getExpiryDate()
-                        .map(otherDate -> thisDate.compareTo(otherDate))
-                        .orElse(-1))
-                .orElseGet(() -> other.getExpiryDate().map(x -> 1).orElse(0));
+        return Long.compare(expiryEpochDay, other.expiryEpochDay);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(name).append(": ").append(quantity).append(" in stock");
-        expiryDate.ifPresent(date -> sb.append(", expiring: ").append(date));
-        if (cost > 0) {
-            sb.append(", cost: $").append(String.format("%.2f", cost));
+        if (hasExpiryDate()) {
+            sb.append(", expiring: ").append(LocalDate.ofEpochDay(expiryEpochDay));
+        }
+        if (costCents > 0) {
+            sb.append(", cost: $").append(formatCents(costCents));
         }
-        if (price > 0) {
-            sb.append(", price: $").append(String.format("%.2f", price));
+        if (priceCents > 0) {
+            sb.append(", price: $").append(formatCents(priceCents));
         }
         return sb.toString();
     }
@@ -104,10 +213,8 @@ public class Item implements Comparable<Item> {
             return true;
         }
         if (obj instanceof Item item) {
-            return name.equals(item.getName()) && quantity == item.getQuantity()
-                    && expiryDate.equals(item.getExpiryDate())
-                    && Double.compare(cost, item.cost) == 0
-                    && Double.compare(price, item.price) == 0;
+            return name.equals(item.name) && quantity == item.quantity && expiryEpochDay == item.expiryEpochDay
+                    && costCents == item.costCents && priceCents == item.priceCents;
         }
         return false;
     }
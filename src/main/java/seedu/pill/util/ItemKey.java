@@ -0,0 +1,152 @@
+package seedu.pill.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The canonical key of an item name: the lower-cased name, its hash and an id, created once per name.
+ *
+ * <p>Keys are interned, so every spelling of a name in any case maps to the same instance, and two keys are
+ * equal only if they are the same object. Maps keyed on them compare by identity and never hash or lower-case
+ * a name again. The lower-cased name held by a key is itself shared by every batch and transaction of the
+ * name, instead of each holding its own copy.</p>
+ *
+ * <p>Keys are made by {@link #of(String)} when a name is stored, for example when a batch or transaction is
+ * created. Lookups that may name an unknown item, such as queries typed by the user, use
+ * {@link #lookup(String)}, which never adds a key. The table of keys only holds them weakly, so a key, and
+ * every spelling remembered for it, is dropped once no batch, transaction or map refers to it any more. A
+ * name that comes back gets a new key, which is safe as nothing holds the old one to compare it with.</p>
+ */
+public final class ItemKey {
+    private static final ConcurrentHashMap<String, KeyReference> KEYS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<ItemKey> DROPPED_KEYS = new ReferenceQueue<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final String name;
+    private final int hash;
+    private final int id;
+
+    /**
+     * A weak reference to a key from the table, remembering the spelling it is stored under so that the
+     * entry can be removed once the key is dropped.
+     */
+    private static final class KeyReference extends WeakReference<ItemKey> {
+        private final String spelling;
+
+        private KeyReference(String spelling, ItemKey key) {
+            super(key, DROPPED_KEYS);
+            this.spelling = spelling;
+        }
+    }
+
+    private ItemKey(String name, int id) {
+        this.name = name;
+        this.hash = name.hashCode();
+        this.id = id;
+    }
+
+    /**
+     * Returns the key of a name, creating it if the name has no key yet. Only names being stored should be
+     * passed here; queries should use {@link #lookup(String)}.
+     *
+     * @param name The name, in any case.
+     * @return The key shared by every spelling of the name.
+     */
+    public static ItemKey of(String name) {
+        ItemKey key = get(name);
+        if (key != null) {
+            return key;
+        }
+        removeDroppedKeys();
+        String folded = name.toLowerCase();
+        key = intern(folded);
+        if (!folded.equals(name)) {
+            // Remember this spelling too, so that it is not lower-cased again
+            KEYS.put(name, new KeyReference(name, key));
+        }
+        return key;
+    }
+
+    /**
+     * Returns the key of a name if it has one, without creating one.
+     *
+     * @param name The name, in any case.
+     * @return The key of the name, or null if the name has no key.
+     */
+    public static ItemKey lookup(String name) {
+        ItemKey key = get(name);
+        return key != null ? key : get(name.toLowerCase());
+    }
+
+    private static ItemKey get(String spelling) {
+        KeyReference reference = KEYS.get(spelling);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Returns the key of a lower-cased name, creating it if there is none or its key was dropped.
+     */
+    private static ItemKey intern(String folded) {
+        while (true) {
+            KeyReference reference = KEYS.get(folded);
+            ItemKey key = reference == null ? null : reference.get();
+            if (key != null) {
+                return key;
+            }
+            ItemKey created = new ItemKey(folded, NEXT_ID.getAndIncrement());
+            KeyReference createdReference = new KeyReference(folded, created);
+            boolean isStored = reference == null
+                    ? KEYS.putIfAbsent(folded, createdReference) == null
+                    : KEYS.replace(folded, reference, createdReference);
+            if (isStored) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of keys that were dropped since the last call.
+     */
+    private static void removeDroppedKeys() {
+        KeyReference reference;
+        while ((reference = (KeyReference) DROPPED_KEYS.poll()) != null) {
+            KEYS.remove(reference.spelling, reference);
+        }
+    }
+
+    /**
+     * Returns the number of spellings in the table, including those of dropped keys not yet removed.
+     */
+    static int tableSize() {
+        removeDroppedKeys();
+        return KEYS.size();
+    }
+
+    /**
+     * Returns the name held by this key if it equals the given spelling, so that equal names share one
+     * string, or the spelling itself otherwise.
+     */
+    String share(String spelling) {
+        return name.equals(spelling) ? name : spelling;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -4,13 +4,21 @@ import seedu.pill.exceptions.ExceptionMessages;
 import seedu.pill.exceptions.PillException;
 
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.List;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.logging.Logger;
@@ -18,18 +26,76 @@ import java.util.stream.IntStream;
 
 /**
  * Represents a list of items and provides methods to add, delete, list, and edit items.
+ *
+ * <p>Besides the batches grouped by name, the map keeps every batch with an expiry date in an index ordered
+ * by that date, so that finding the batches expiring before a date only visits those batches. The index
+ * holds the batches themselves, so the expiry date of a batch must not be changed while it is in the map.</p>
+ *
+ * <p>The map also keeps the {@link StockTotals} of every name and of the whole inventory. Quantities, costs
+ * and prices of batches held by the map must therefore be changed through the map, for example with
+ * {@link #setItemQuantity(Item, int)}, rather than on the batch itself. The same goes for the index of
+ * batches by quantity, which answers low stock queries, and for the reorder points of item names.</p>
+ *
+ * <p>Every batch can also be found directly by its name and expiry date, without going through the other
+ * batches of the name, so names with many batches are as cheap to add to and edit as any other.</p>
+ *
+ * <p>Reports read the inventory through {@link #snapshot()}, an immutable view that later changes do not
+ * disturb. Every change publishes a new snapshot, made from the previous one by replacing only the entries of
+ * the names it touched, so readers on other threads only read a volatile field and never wait for the
+ * writer.</p>
  */
 public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
     private static final Logger LOGGER = PillLogger.getLogger();
     Map<String, TreeSet<Item>> items;
+    private final Set<String> dirtyNames;
+    private final TreeMap<LocalDate, Map<String, Item>> expiryIndex;
+    private final Map<String, Long> nameSequences;
+    private final Map<ItemKey, StockTotals> nameTotals;
+    private final StockTotals inventoryTotals;
+    private final TreeMap<Integer, Map<Item, String>> quantityIndex;
+    private final Map<BatchKey, Item> batchIndex;
+    private final Map<String, Integer> reorderPoints;
+    private final Set<String> namesToReorder;
+    private final TrigramIndex nameIndex;
+    private final RadixTrie namePrefixes;
+    private BkTree nameTree;
+    private long nextNameSequence;
+    private volatile InventorySnapshot snapshot;
+    private final Map<ItemKey, Long> snapshotChanges;
+    private int heldSnapshots;
 
     /**
      * Constructor for ItemMap.
      * Initializes the internal Map to store items.
      */
     public ItemMap() {
+        this(true);
+    }
+
+    /**
+     * Creates an empty map, optionally without logging its creation. Maps built as query results are
+     * created quietly.
+     *
+     * @param isLogged Whether to log the creation of the map.
+     */
+    ItemMap(boolean isLogged) {
         this.items = new LinkedHashMap<>();
-        LOGGER.info("New ItemMap instance created");
+        this.dirtyNames = new LinkedHashSet<>();
+        this.expiryIndex = new TreeMap<>();
+        this.nameSequences = new HashMap<>();
+        this.nameTotals = new IdentityHashMap<>();
+        this.inventoryTotals = new StockTotals();
+        this.quantityIndex = new TreeMap<>();
+        this.batchIndex = new HashMap<>();
+        this.reorderPoints = new HashMap<>();
+        this.namesToReorder = new HashSet<>();
+        this.nameIndex = new TrigramIndex();
+        this.namePrefixes = new RadixTrie();
+        this.snapshot = InventorySnapshot.EMPTY;
+        this.snapshotChanges = new HashMap<>();
+        if (isLogged) {
+            LOGGER.info("New ItemMap instance created");
+        }
     }
 
     public boolean isEmpty() {
@@ -71,7 +137,7 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      * @param newItem The item to be added.
      */
     public void addItem(Item newItem) {
-        String name = newItem.getName().toLowerCase();
+        String name = newItem.getKey().name();
         int quantity = newItem.getQuantity();
         Optional<LocalDate> expiryDate = newItem.getExpiryDate();
 
@@ -83,37 +149,33 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
             System.out.println("Invalid item name or quantity.");
             return;
         }
+        dirtyNames.add(name);
 
         // If the item name exists, check for items with the same expiry date
         if (items.containsKey(name)) {
             TreeSet<Item> itemSet = items.get(name);
-            boolean itemUpdated = false;
 
             // Check if an item with the same expiry date already exists
-            for (Item item : itemSet) {
-                if (item.getExpiryDate().equals(expiryDate)) {
-                    int newQuantity = item.getQuantity() + quantity;
-                    item.setQuantity(newQuantity);
-                    itemUpdated = true;
-                    expiryDate.ifPresentOrElse(
-                            expiry -> {
-                                LOGGER.info("Updated existing item with expiry date: " + item);
-                                System.out.println("Item already exists with the same expiry date. Updated quantity: \n"
-                                        + item);
-                            },
-                            () -> {
-                                LOGGER.info("Updated existing item with no expiry date: " + item);
-                                System.out.println("Item already exists with no expiry date. Updated quantity: \n"
+            Item item = batchIndex.get(new BatchKey(newItem.getKey(), newItem.getExpiryEpochDay()));
+            if (item != null) {
+                int newQuantity = item.getQuantity() + quantity;
+                changeQuantity(name, item, newQuantity);
+                expiryDate.ifPresentOrElse(
+                        expiry -> {
+                            LOGGER.info("Updated existing item with expiry date: " + item);
+                            System.out.println("Item already exists with the same expiry date. Updated quantity: \n"
                                     + item);
-                            }
-                    );
-                    break;
-                }
-            }
-
-            // If no item with the same expiry date, add a new one
-            if (!itemUpdated) {
+                        },
+                        () -> {
+                            LOGGER.info("Updated existing item with no expiry date: " + item);
+                            System.out.println("Item already exists with no expiry date. Updated quantity: \n"
+                                + item);
+                        }
+                );
+            } else {
+                // If no item with the same expiry date, add a new one
                 itemSet.add(newItem);
+                rememberBatch(name, newItem);
                 LOGGER.info("Added new item with different expiry date: " + newItem);
                 System.out.println("Added new item with a different expiry date: \n"
                         + newItem);
@@ -122,11 +184,13 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
             // If the item doesn't exist, create a new list for the item and add it
             TreeSet<Item> itemSet = new TreeSet<>();
             itemSet.add(newItem);
-            items.put(name, itemSet);
+            putName(name, itemSet);
+            rememberBatch(name, newItem);
             LOGGER.info("Added new item: " + newItem);
             System.out.println("Added the following item to the inventory: \n"
                     + newItem);
         }
+        publishSnapshot();
     }
 
     /**
@@ -135,7 +199,7 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      * @param newItem The item to be added.
      */
     public void addItemSilent(Item newItem) {
-        String name = newItem.getName().toLowerCase();
+        String name = newItem.getKey().name();
         int quantity = newItem.getQuantity();
         Optional<LocalDate> expiryDate = newItem.getExpiryDate();
 
@@ -146,29 +210,28 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
             LOGGER.warning("Attempt to silently add invalid item: name=" + name + ", quantity=" + quantity);
             return;
         }
+        dirtyNames.add(name);
 
         if (items.containsKey(name)) {
             TreeSet<Item> itemSet = items.get(name);
-            boolean itemUpdated = false;
-            for (Item item : itemSet) {
-                if (item.getExpiryDate().equals(expiryDate)) {
-                    int newQuantity = item.getQuantity() + quantity;
-                    item.setQuantity(newQuantity);
-                    itemUpdated = true;
-                    LOGGER.fine("Silently updated existing item: " + name + ", new quantity: " + newQuantity);
-                    break;
-                }
-            }
-            if (!itemUpdated) {
+            Item item = batchIndex.get(new BatchKey(newItem.getKey(), newItem.getExpiryEpochDay()));
+            if (item != null) {
+                int newQuantity = item.getQuantity() + quantity;
+                changeQuantity(name, item, newQuantity);
+                LOGGER.fine(() -> "Silently updated existing item: " + name + ", new quantity: " + newQuantity);
+            } else {
                 itemSet.add(newItem);
-                LOGGER.fine("Silently added new item: " + newItem);
+                rememberBatch(name, newItem);
+                LOGGER.fine(() -> "Silently added new item: " + newItem);
             }
         } else {
             TreeSet<Item> itemSet = new TreeSet<>();
             itemSet.add(newItem);
-            items.put(name, itemSet);
-            LOGGER.fine("Silently added new item: " + newItem);
+            putName(name, itemSet);
+            rememberBatch(name, newItem);
+            LOGGER.fine(() -> "Silently added new item: " + newItem);
         }
+        publishSnapshot();
     }
 
     /**
@@ -178,7 +241,7 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      * @param expiryDate The date of the item to be deleted.
      */
     public void deleteItem(String itemName, Optional<LocalDate> expiryDate) {
-        String name = itemName.toLowerCase();
+        String name = normalise(itemName);
         assert name != null : "Item name cannot be null";
 
         if (name == null || name.trim().isEmpty()) {
@@ -189,20 +252,22 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
 
         TreeSet<Item> itemSet = items.get(name);
         if (itemSet != null) {
-            Item dummyItem = expiryDate.map(ex -> new Item(name.toLowerCase(), 0, ex))
-                            .orElse(new Item(name, 0));
-            Item removedItem = itemSet.ceiling(dummyItem);
-            if (removedItem != null && removedItem.getExpiryDate().equals(expiryDate)) {
+            Item removedItem = getItemByNameAndExpiry(name, expiryDate);
+            if (removedItem != null) {
                 itemSet.remove(removedItem);
+                forgetBatch(name, removedItem);
+                dirtyNames.add(name);
                 LOGGER.info("Deleted item: " + removedItem);
                 System.out.println("Deleted the following item from the inventory: \n"
                         + removedItem);
                 if (itemSet.isEmpty()) {
-                    items.remove(name);
+                    removeName(name);
                 }
+                publishSnapshot();
             } else {
-                LOGGER.warning("Attempt to delete non-existent item: " + removedItem);
-                System.out.println("Item not found: " + removedItem);
+                String batch = name + expiryDate.map(expiry -> ", expiring: " + expiry).orElse("");
+                LOGGER.warning("Attempt to delete non-existent item: " + batch);
+                System.out.println("Item not found: " + batch);
             }
         } else {
             LOGGER.warning("Attempt to delete non-existent item: " + name);
@@ -216,7 +281,7 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      * @param updatedItem The updated item that has a new quantity.
      */
     public void editItem(Item updatedItem) {
-        String name = updatedItem.getName().toLowerCase();
+        String name = updatedItem.getKey().name();
         int quantity = updatedItem.getQuantity();
         Optional<LocalDate> expiryDate = updatedItem.getExpiryDate();
 
@@ -230,15 +295,12 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
         }
 
         TreeSet<Item> itemSet = items.get(name);
-        boolean isUpdated = false;
         if (itemSet != null) {
-            for (Item item : itemSet) {
-                if (item.getExpiryDate().equals(expiryDate)) {
-                    item.setQuantity(quantity);
-                    isUpdated = true;
-                }
-            }
-            if (isUpdated) {
+            Item item = batchIndex.get(new BatchKey(updatedItem.getKey(), updatedItem.getExpiryEpochDay()));
+            if (item != null) {
+                changeQuantity(name, item, quantity);
+                dirtyNames.add(name);
+                publishSnapshot();
                 LOGGER.info("Edited item: " + updatedItem);
                 System.out.println("Edited item: " + updatedItem);
             } else {
@@ -252,30 +314,16 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
     }
 
     /**
-     * Lists all the items in the inventory.
+     * Lists all the items in the inventory, as they are in the current {@link #snapshot()}.
      */
     public void listItems() {
-        if (items.isEmpty()) {
-            LOGGER.info("Attempted to list items, but inventory is empty");
-            System.out.println("The inventory is empty.");
-            return;
-        }
-        LOGGER.info("Listing all items in inventory");
-        System.out.println("Listing all items:");
-        int index = 1;
-        for (Map.Entry<String, TreeSet<Item>> entry : items.entrySet()) {
-            TreeSet<Item> itemSet = entry.getValue();
-            for (Item item : itemSet) {
-                System.out.println(index + ". " + item.toString());
-                index++;
-            }
-        }
+        snapshot().listItems();
     }
 
     /**
      * Lists all items in this {@code ItemMap} that have expired or are expiring before the specified cutoff date.
      * <p>
-     * Retrieves expired or expiring items from {@link #getExpiringItems(LocalDate)}, and logs a message
+     * Retrieves expired or expiring items from the current {@link #snapshot()}, and logs a message
      * if there are no items meeting the specified date criteria. If there are items that have expired
      * (when {@code cutOffDate} is today) or will expire before {@code cutOffDate} (for a future date),
      * the method logs and prints a message listing these items.
@@ -286,32 +334,7 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      *                   it lists items expiring before the cutoff date.
      */
     public void listExpiringItems(LocalDate cutOffDate) {
-        ItemMap expiringItems = this.getExpiringItems(cutOffDate);
-        if (expiringItems.isEmpty()) {
-            if (cutOffDate.isEqual(LocalDate.now())) {
-                LOGGER.info("There are no items that have expired.");
-                System.out.println("There are no items that have expired.");
-            } else {
-                LOGGER.info("There are no items expiring before " + cutOffDate + ".");
-                System.out.println("There are no items expiring before " + cutOffDate + ".");
-            }
-            return;
-        }
-        if (cutOffDate.isEqual(LocalDate.now())) {
-            LOGGER.info("Listing all items that have expired");
-            System.out.println("Listing all items that have expired");
-        } else {
-            LOGGER.info("Listing all items expiring before " + cutOffDate);
-            System.out.println("Listing all items expiring before " + cutOffDate);
-        }
-        List<Item> itemList = expiringItems.items.values().stream()
-                .flatMap(Collection::stream)
-                .toList();
-
-        IntStream.range(0, itemList.size())
-                .forEach(i -> System.out.println((i + 1) + ". " + itemList.get(i)));
-
-        System.out.println();
+        snapshot().listExpiringItems(cutOffDate);
     }
 
     /**
@@ -331,10 +354,7 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
                 throw new PillException(ExceptionMessages.INVALID_QUANTITY);
             }
 
-            List<Item> filteredItems = items.values().stream()
-                    .flatMap(TreeSet::stream)
-                    .filter(item -> item.getQuantity() <= threshold)
-                    .toList();
+            List<Item> filteredItems = getLowStockBatches(threshold, true);
 
             if (filteredItems.isEmpty()) {
                 LOGGER.info(String.format("There are no items that have quantity less than or equal to %d.",
@@ -356,52 +376,185 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
         }
     }
 
+    /**
+     * Returns the batches whose quantity is below, or at, the given threshold, in the order they are listed in.
+     * Only the matching batches are visited, through the index of batches by quantity.
+     *
+     * @param threshold   The quantity to compare batches against.
+     * @param isInclusive Whether batches with exactly the threshold quantity are included.
+     * @return The batches that are low on stock, grouped by name in map order and sorted by expiry date.
+     */
+    public List<Item> getLowStockBatches(int threshold, boolean isInclusive) {
+        List<Map.Entry<Item, String>> lowStock = new ArrayList<>();
+        for (Map<Item, String> batches : quantityIndex.headMap(threshold, isInclusive).values()) {
+            lowStock.addAll(batches.entrySet());
+        }
+        lowStock.sort(Comparator.<Map.Entry<Item, String>>comparingLong(entry -> nameSequences.get(entry.getValue()))
+                .thenComparing(Map.Entry::getKey));
+
+        List<Item> lowStockBatches = new ArrayList<>(lowStock.size());
+        for (Map.Entry<Item, String> entry : lowStock) {
+            lowStockBatches.add(entry.getKey());
+        }
+        return lowStockBatches;
+    }
+
+    /**
+     * Sets the reorder point of an item: the total stock at or below which the item should be reordered.
+     *
+     * @param itemName     The name of the item.
+     * @param reorderPoint The stock level at which to reorder.
+     * @throws PillException if the reorder point is negative.
+     */
+    public void setReorderPoint(String itemName, int reorderPoint) throws PillException {
+        if (reorderPoint < 0) {
+            throw new PillException(ExceptionMessages.INVALID_QUANTITY);
+        }
+        String name = ItemKey.of(itemName).name();
+        reorderPoints.put(name, reorderPoint);
+        refreshReorderState(name);
+        LOGGER.info("Set reorder point of " + name + " to " + reorderPoint);
+    }
+
+    /**
+     * Removes the reorder point of an item, if it has one.
+     *
+     * @param itemName The name of the item.
+     */
+    public void removeReorderPoint(String itemName) {
+        String name = normalise(itemName);
+        reorderPoints.remove(name);
+        namesToReorder.remove(name);
+    }
+
+    /**
+     * Returns the reorder point of an item.
+     *
+     * @param itemName The name of the item.
+     * @return The reorder point, or an empty value if the item has none.
+     */
+    public OptionalInt getReorderPoint(String itemName) {
+        Integer reorderPoint = reorderPoints.get(normalise(itemName));
+        return reorderPoint == null ? OptionalInt.empty() : OptionalInt.of(reorderPoint);
+    }
+
+    /**
+     * Returns the names of the items whose total stock is at or below their reorder point. Items in the map
+     * come first, in map order, followed by items that are out of stock altogether, in alphabetical order.
+     *
+     * @return The lower-cased names of the items to reorder.
+     */
+    public List<String> getNamesToReorder() {
+        List<String> names = new ArrayList<>(namesToReorder);
+        names.sort(Comparator.<String>comparingLong(name -> nameSequences.getOrDefault(name, Long.MAX_VALUE))
+                .thenComparing(Comparator.naturalOrder()));
+        return names;
+    }
+
     /**
      * Finds an item in the list.
      *
+     * <p>Names are looked up in a trigram index of the lower-cased names, so only names sharing every
+     * three-character run of the query are compared with it. Queries shorter than three characters are
+     * compared with every name.</p>
+     *
      * @param itemName The name of the item.
      */
     public ItemMap findItem(String itemName) {
         assert itemName != null : "Item name cannot be null";
 
-        ItemMap foundItems = new ItemMap();
+        ItemMap foundItems = new ItemMap(false);
         if (itemName == null || itemName.trim().isEmpty()) {
             LOGGER.warning("Attempt to find item with null or empty name");
             return foundItems;
         }
         LOGGER.info("Searching for items containing: " + itemName);
-        for (Map.Entry<String, TreeSet<Item>> entry : items.entrySet()) {
-            TreeSet<Item> itemSet = entry.getValue();
-            if (itemSet.first().getName().toLowerCase().contains(itemName.toLowerCase())) {
-                for (Item item : itemSet) {
-                    foundItems.addItemSilent(item);
+        String query = itemName.toLowerCase();
+        List<String> matchingNames;
+        if (nameIndex.canSearch(query)) {
+            matchingNames = nameIndex.search(query);
+            matchingNames.sort(Comparator.comparingLong(nameSequences::get));
+        } else {
+            matchingNames = new ArrayList<>();
+            for (String name : items.keySet()) {
+                if (name.contains(query)) {
+                    matchingNames.add(name);
                 }
             }
         }
+        foundItems.holdSnapshots();
+        for (String name : matchingNames) {
+            for (Item item : items.get(name)) {
+                foundItems.addItemSilent(item);
+            }
+        }
+        foundItems.releaseSnapshots();
         LOGGER.info("Found " + foundItems.items.size() + " items matching: " + itemName);
         return foundItems;
     }
 
+    /**
+     * Returns the item name closest to the given name, for suggesting a correction when a name is mistyped.
+     * Names are compared through a {@link BkTree}, built on the first call and kept up to date afterwards,
+     * so only a small part of the names is compared with each query.
+     *
+     * @param itemName The name to find a similar name for.
+     * @return The closest lower-cased name within {@link StringMatcher#MAX_SUGGESTION_DISTANCE} edits,
+     *         or null if there is none.
+     */
+    public String findClosestName(String itemName) {
+        if (nameTree == null) {
+            nameTree = BkTree.of(items.keySet());
+        }
+        return nameTree.findClosest(itemName, StringMatcher.MAX_SUGGESTION_DISTANCE);
+    }
+
+    /**
+     * Returns the names starting with the given prefix that have the most stock, for listing the items a
+     * partly typed name could refer to. Names are looked up in a radix trie that keeps the largest stock
+     * below each of its nodes, so only the branches holding the returned names are expanded.
+     *
+     * @param prefix The start of the names to look for, in any case.
+     * @param limit  The largest number of names to return.
+     * @return Up to {@code limit} lower-cased names, ordered by total stock and then alphabetically.
+     */
+    public List<String> getNamesWithPrefix(String prefix, int limit) {
+        return namePrefixes.withPrefix(prefix.toLowerCase(), limit);
+    }
+
+    /**
+     * Completes a partly typed item name as far as every name starting with it agrees.
+     *
+     * @param prefix The partly typed name, in any case.
+     * @return The lower-cased completed prefix, or null if no name starts with it.
+     */
+    public String completeName(String prefix) {
+        return namePrefixes.complete(prefix.toLowerCase());
+    }
+
     /**
      * Retrieves all items that expire before the cutOffDate from the item map.
      *
-     * <p>This method iterates through all items in the item map and checks each item's expiry date.
-     * If the expiry date is before the cut off date, the item is added to a new {@code ItemMap}
-     * containing only the expiring items.</p>
+     * <p>The batches expiring before the cut off date are read from the expiry index, and added to a new
+     * {@code ItemMap} in the order their names appear in this map. Only the matching batches are visited.</p>
      *
      * @param cutOffDate date before which all items are considered to be expiring
      * @return an {@code ItemMap} containing all items that are expiring.
      */
     public ItemMap getExpiringItems(LocalDate cutOffDate) {
-        ItemMap expiringItems = new ItemMap();
-        for (Map.Entry<String, TreeSet<Item>> entry : items.entrySet()) {
-            TreeSet<Item> itemSet = entry.getValue();
-            itemSet.stream()
-                    .flatMap(item -> item.getExpiryDate().stream()
-                            .filter(expiry -> expiry.isBefore(cutOffDate))
-                            .map(expiry -> item))
-                    .forEach(expiringItems::addItemSilent);
+        List<Map.Entry<String, Item>> expiring = new ArrayList<>();
+        for (Map<String, Item> batches : expiryIndex.headMap(cutOffDate, false).values()) {
+            expiring.addAll(batches.entrySet());
+        }
+        // The sort is stable, so the batches of each name stay in expiry order
+        expiring.sort(Comparator.comparingLong(entry -> nameSequences.get(entry.getKey())));
+
+        ItemMap expiringItems = new ItemMap(false);
+        expiringItems.holdSnapshots();
+        for (Map.Entry<String, Item> entry : expiring) {
+            expiringItems.addItemSilent(entry.getValue());
         }
+        expiringItems.releaseSnapshots();
         return expiringItems;
     }
 
@@ -410,78 +563,96 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      * If the quantity to use equals or exceeds an item's quantity, that item is deleted.
      * If the quantity to use is less than an item's quantity, the item's quantity is reduced.
      *
+     * <p>The batches are walked once, in expiry order, to plan how much to take from each, and the plan is
+     * applied only once it covers the whole quantity, so the inventory is never left partly used.</p>
+     *
      * @param itemName the name of the item to use
      * @param quantityToUse the quantity of the item to consume
+     * @return the quantity taken from each batch, earliest expiring first
      * @throws PillException if:
      *         - the requested quantity exceeds the total available stock for the item
      *         - the specified item name does not exist in the inventory
      */
-    public void useItem(String itemName, int quantityToUse) throws PillException {
-        itemName = itemName.toLowerCase();
-        if (quantityToUse > this.stockCount(itemName)) {
-            LOGGER.warning("Attempt to use more items than available: name=" + itemName +
+    public Allocation useItem(String itemName, int quantityToUse) throws PillException {
+        return useItem(itemName, quantityToUse, true);
+    }
+
+    /**
+     * Uses a specified quantity of items with the given name, like {@link #useItem(String, int)}, but does not
+     * print any output.
+     *
+     * @param itemName the name of the item to use
+     * @param quantityToUse the quantity of the item to consume
+     * @return the quantity taken from each batch, earliest expiring first
+     * @throws PillException if the requested quantity exceeds the total available stock for the item
+     */
+    public Allocation useItemSilent(String itemName, int quantityToUse) throws PillException {
+        return useItem(itemName, quantityToUse, false);
+    }
+
+    private Allocation useItem(String itemName, int quantityToUse, boolean isPrinted) throws PillException {
+        String name = normalise(itemName);
+        int available = stockCount(name);
+        if (quantityToUse > available) {
+            LOGGER.warning("Attempt to use more items than available: name=" + name +
                     ", requested=" + quantityToUse +
-                    ", available=" + this.stockCount(itemName));
+                    ", available=" + available);
             throw new PillException(ExceptionMessages.STOCK_UNDERFLOW);
         }
+        TreeSet<Item> itemSet = items.get(name);
+        if (itemSet == null || quantityToUse <= 0) {
+            return new Allocation(name, List.of());
+        }
 
-        int originalQuantity = quantityToUse;  // Store for logging purposes
-        while (quantityToUse > 0) {
-            // throws PillException if no key-value pair for itemName exists
-            Item itemToUse = this.getSoonestExpiringItem(itemName);
-
-            if (itemToUse.getQuantity() == quantityToUse) {
-                quantityToUse = 0;
-                this.deleteItem(itemName, itemToUse.getExpiryDate());
-
-                itemToUse.getExpiryDate().ifPresentOrElse(
-                        expiry -> {
-                            LOGGER.info("Completely used item with expiry date: " + itemToUse);
-                            System.out.println("Completely used item with expiry date " + expiry + ": \n" + itemToUse);
-                        },
-                        () -> {
-                            LOGGER.info("Completely used item: " + itemToUse);
-                            System.out.println("Completely used item: \n" + itemToUse);
-                        }
-                );
-            } else if (itemToUse.getQuantity() > quantityToUse) {
-                int oldQuantity = itemToUse.getQuantity();
-                itemToUse.setQuantity(oldQuantity - quantityToUse);
-                this.editItem(itemToUse);
-                quantityToUse = 0;
+        List<Allocation.Line> lines = new ArrayList<>();
+        List<Item> batches = new ArrayList<>();
+        int remaining = quantityToUse;
+        for (Item batch : itemSet) {
+            int taken = Math.min(batch.getQuantity(), remaining);
+            lines.add(new Allocation.Line(batch.getExpiryEpochDay(), taken, batch.getQuantity() - taken));
+            batches.add(batch);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
 
-                itemToUse.getExpiryDate().ifPresentOrElse(
-                        expiry -> {
-                            LOGGER.info("Partially used item with expiry date: " + itemToUse +
-                                    " (reduced from " + oldQuantity + " to " + itemToUse.getQuantity() + ")");
-                            System.out.println("Partially used item with expiry date " + expiry +
-                                    " (reduced from " + oldQuantity + " to " + itemToUse.getQuantity() + "): \n" +
-                                    itemToUse);
-                        },
-                        () -> {
-                            LOGGER.info("Partially used item with no expiry date: " + itemToUse +
-                                    " (reduced from " + oldQuantity + " to " + itemToUse.getQuantity() + ")");
-                            System.out.println("Partially used item with no expiry date" +
-                                    " (reduced from " + oldQuantity + " to " + itemToUse.getQuantity() + "): \n" +
-                                    itemToUse);
-                        }
-                );
+        // The batches used up are the first ones of the set, and only the last batch can be partly used
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isUsedUp()) {
+                forgetBatch(name, itemSet.pollFirst());
             } else {
-                quantityToUse -= itemToUse.getQuantity();
-                this.deleteItem(itemName, itemToUse.getExpiryDate());
+                changeQuantity(name, batches.get(i), lines.get(i).getQuantityLeft());
+            }
+        }
+        dirtyNames.add(name);
+        if (itemSet.isEmpty()) {
+            removeName(name);
+        }
+        publishSnapshot();
 
-                itemToUse.getExpiryDate().ifPresentOrElse(
-                        expiry -> {
-                            LOGGER.info("Completely used item with expiry date " + expiry
-                                    + "(more remaining to use): " + itemToUse);
-                        },
-                        () -> {
-                            // below shouldn't be reachable
-                            LOGGER.warning("Completely used all items, but still need to use more.");
-                        }
-                );
+        Allocation allocation = new Allocation(name, lines);
+        LOGGER.fine(() -> "Used " + quantityToUse + " of " + name + ": " + allocation.getLines());
+        if (isPrinted) {
+            for (int i = 0; i < lines.size(); i++) {
+                printUse(lines.get(i), batches.get(i));
             }
         }
+        return allocation;
+    }
+
+    private static void printUse(Allocation.Line line, Item batch) {
+        String expiry = line.hasExpiryDate() ? " with expiry date " + line.getExpiryDate().get() : "";
+        if (line.isUsedUp()) {
+            System.out.println("Completely used item" + expiry + ": \n" + batch);
+            return;
+        }
+        if (!line.hasExpiryDate()) {
+            expiry = " with no expiry date";
+        }
+        int oldQuantity = line.getQuantity() + line.getQuantityLeft();
+        System.out.println("Partially used item" + expiry + " (reduced from " + oldQuantity + " to "
+                + line.getQuantityLeft() + "): \n" + batch);
     }
 
     /**
@@ -508,11 +679,10 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
     }
 
     /**
-     * Calculates the total quantity in stock for the specified item name.
+     * Returns the total quantity in stock for the specified item name.
      * <p>
-     * Iterates over all instances of the item to aggregate quantities
-     * from each entry, where each {@code Item} represents a distinct batch
-     * with an associated quantity.
+     * The quantity is read from the running totals of the name, which are updated whenever one of its
+     * batches is added, removed or changed through this map, so no batches are visited.
      * </p>
      *
      * @param itemName the name of the item to query
@@ -526,18 +696,59 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
             return 0;
         }
 
-        TreeSet<Item> item = this.items.get(itemName);
+        StockTotals totals = nameTotals.get(keyOfStoredName(itemName));
+        return totals == null ? 0 : (int) totals.getQuantity();
+    }
 
-        if (item == null) {
-            return 0;
-        }
+    /**
+     * Returns the quantity in stock and the cost and retail value of that stock for the specified item name.
+     *
+     * @param itemName the name of the item to query
+     * @return a copy of the current totals of the item, all zero if the item does not exist
+     */
+    public StockTotals getStockTotals(String itemName) {
+        StockTotals totals = nameTotals.get(ItemKey.lookup(itemName));
+        return totals == null ? StockTotals.EMPTY : totals.copy();
+    }
 
-        int totalQuantity = 0;
-        for (Item currentItem : item) {
-            totalQuantity += currentItem.getQuantity();
-        }
+    /**
+     * Returns the quantity in stock and the cost and retail value of that stock for the whole inventory.
+     *
+     * @return a copy of the current totals of the inventory
+     */
+    public StockTotals getInventoryTotals() {
+        return inventoryTotals.copy();
+    }
 
-        return totalQuantity;
+    /**
+     * Returns an immutable view of the inventory as it is now, which later changes to this map do not affect.
+     * The view can be read without locks by any thread, for example while drawing a chart.
+     *
+     * <p>The view is the one published by the latest change, so this only reads a volatile field. Each
+     * change copies the batches of the names it touched and shares the rest with the previous view, which
+     * costs O(log n) per changed name on top of the copies.</p>
+     *
+     * @return The current snapshot of the inventory.
+     */
+    public InventorySnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Stops publishing snapshots until the matching {@link #releaseSnapshots()}, so that a bulk change, like
+     * loading the inventory, publishes one snapshot instead of one per batch. Calls may be nested.
+     */
+    void holdSnapshots() {
+        heldSnapshots++;
+    }
+
+    /**
+     * Ends a {@link #holdSnapshots()}, publishing the changes made since if no other hold is left.
+     */
+    void releaseSnapshots() {
+        assert heldSnapshots > 0 : "Snapshots are not held";
+        heldSnapshots--;
+        publishSnapshot();
     }
 
     /**
@@ -587,21 +798,11 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
      * @return The item with the specified name and expiry date, or null if not found.
      */
     public Item getItemByNameAndExpiry(String itemName, Optional<LocalDate> expiryDate) {
-        TreeSet<Item> itemSet = items.get(itemName);
-        if (itemSet == null) {
+        ItemKey key = itemName == null ? null : keyOfStoredName(itemName);
+        if (key == null) {
             return null;
         }
-
-        for (Item item : itemSet) {
-            if (expiryDate.isPresent()) {
-                if (item.getExpiryDate().equals(expiryDate)) {
-                    return item;
-                }
-            } else if (item.getExpiryDate().isEmpty()) {
-                return item;
-            }
-        }
-        return null;
+        return batchIndex.get(new BatchKey(key, expiryDate.map(LocalDate::toEpochDay).orElse(Item.NO_EXPIRY)));
     }
 
     /**
@@ -623,4 +824,306 @@ public class ItemMap implements Iterable<Map.Entry<String, TreeSet<Item>>> {
     public TreeSet<Item> get(String itemName) {
         return items.getOrDefault(itemName, new TreeSet<>());
     }
+
+    /**
+     * Sets the quantity of a batch held in this map.
+     * Commands should use this instead of {@link Item#setQuantity(int)} so that the change is tracked.
+     *
+     * @param item     The batch to update, as returned by this map.
+     * @param quantity The new quantity of the batch.
+     */
+    public void setItemQuantity(Item item, int quantity) {
+        String name = item.getKey().name();
+        updateBatch(name, item, () -> item.setQuantity(quantity));
+        dirtyNames.add(name);
+        publishSnapshot();
+    }
+
+    /**
+     * Sets the cost of a batch held in this map.
+     *
+     * @param item The batch to update, as returned by this map.
+     * @param cost The new cost of the batch.
+     */
+    public void setItemCost(Item item, double cost) {
+        setItemCostCents(item, Item.toCents(cost));
+    }
+
+    /**
+     * Sets the cost of a batch held in this map, in cents.
+     *
+     * @param item      The batch to update, as returned by this map.
+     * @param costCents The new cost of the batch, in cents.
+     */
+    public void setItemCostCents(Item item, long costCents) {
+        String name = item.getKey().name();
+        updateBatch(name, item, () -> item.setCostCents(costCents));
+        dirtyNames.add(name);
+        publishSnapshot();
+    }
+
+    /**
+     * Sets the price of a batch held in this map.
+     *
+     * @param item  The batch to update, as returned by this map.
+     * @param price The new price of the batch.
+     */
+    public void setItemPrice(Item item, double price) {
+        setItemPriceCents(item, Item.toCents(price));
+    }
+
+    /**
+     * Sets the price of a batch held in this map, in cents.
+     *
+     * @param item       The batch to update, as returned by this map.
+     * @param priceCents The new price of the batch, in cents.
+     */
+    public void setItemPriceCents(Item item, long priceCents) {
+        String name = item.getKey().name();
+        updateBatch(name, item, () -> item.setPriceCents(priceCents));
+        dirtyNames.add(name);
+        publishSnapshot();
+    }
+
+    /**
+     * Replaces every batch stored under the given name with the given batches. Does not print any output.
+     * An existing name keeps its position in the map; an empty list of batches removes the name.
+     *
+     * @param itemName The name of the items to replace.
+     * @param batches  The batches to store under the name.
+     */
+    void replaceItemsSilent(String itemName, List<Item> batches) {
+        String name = ItemKey.of(itemName).name();
+        dirtyNames.add(name);
+        holdSnapshots();
+        try {
+            for (Item batch : get(name)) {
+                forgetBatch(name, batch);
+            }
+            if (batches.isEmpty()) {
+                removeName(name);
+                LOGGER.fine(() -> "Silently removed all items: " + name);
+                return;
+            }
+            putName(name, new TreeSet<>());
+            for (Item batch : batches) {
+                addItemSilent(batch);
+            }
+        } finally {
+            releaseSnapshots();
+        }
+    }
+
+    /**
+     * Returns the lower-cased form of a name, shared with the batches of the name if it has any. Unknown names
+     * are lower-cased without being interned, as they may be mistyped queries.
+     */
+    private static String normalise(String itemName) {
+        ItemKey key = ItemKey.lookup(itemName);
+        return key != null ? key.name() : itemName.toLowerCase();
+    }
+
+    /**
+     * Returns the key of a name as it is stored in this map, that is already lower-cased, or null if there is
+     * no such key.
+     */
+    private static ItemKey keyOfStoredName(String name) {
+        ItemKey key = ItemKey.lookup(name);
+        return key != null && key.name().equals(name) ? key : null;
+    }
+
+    /**
+     * Stores the batches of a name, numbering the name if it is new to the map. The numbers follow the
+     * iteration order of {@link #items}, which keeps the position of a name when its batches are replaced.
+     */
+    private void putName(String name, TreeSet<Item> itemSet) {
+        recordSnapshotChange(name);
+        if (items.put(name, itemSet) == null) {
+            nameSequences.put(name, nextNameSequence++);
+            nameIndex.add(name);
+            namePrefixes.put(name, stockCount(name));
+            if (nameTree != null) {
+                nameTree.add(name);
+            }
+        }
+    }
+
+    private void removeName(String name) {
+        recordSnapshotChange(name);
+        if (items.remove(name) != null) {
+            nameIndex.remove(name);
+            namePrefixes.remove(name);
+            if (nameTree != null) {
+                nameTree.remove(name);
+            }
+        }
+        nameSequences.remove(name);
+    }
+
+    /**
+     * Adds a batch that was just stored under the given name to the expiry index and the stock totals.
+     */
+    private void rememberBatch(String name, Item batch) {
+        recordSnapshotChange(name);
+        batchIndex.put(new BatchKey(batch.getKey(), batch.getExpiryEpochDay()), batch);
+        batch.getExpiryDate().ifPresent(expiry ->
+                expiryIndex.computeIfAbsent(expiry, date -> new HashMap<>()).put(name, batch));
+        nameTotals.computeIfAbsent(batch.getKey(), key -> new StockTotals()).add(batch, 1);
+        inventoryTotals.add(batch, 1);
+        indexQuantity(name, batch);
+        refreshStock(name);
+    }
+
+    /**
+     * Removes a batch that is no longer stored under the given name from the expiry index and the stock totals.
+     */
+    private void forgetBatch(String name, Item batch) {
+        recordSnapshotChange(name);
+        batchIndex.remove(new BatchKey(batch.getKey(), batch.getExpiryEpochDay()), batch);
+        batch.getExpiryDate().ifPresent(expiry -> {
+            Map<String, Item> batches = expiryIndex.get(expiry);
+            if (batches != null && batches.remove(name) != null && batches.isEmpty()) {
+                expiryIndex.remove(expiry);
+            }
+        });
+        StockTotals totals = nameTotals.get(batch.getKey());
+        if (totals != null) {
+            totals.add(batch, -1);
+            if (totals.isEmpty()) {
+                nameTotals.remove(batch.getKey());
+            }
+        }
+        inventoryTotals.add(batch, -1);
+        unindexQuantity(batch);
+        refreshStock(name);
+    }
+
+    private void changeQuantity(String name, Item batch, int quantity) {
+        updateBatch(name, batch, () -> batch.setQuantity(quantity));
+    }
+
+    /**
+     * Applies a change to the quantity, cost or price of a batch, keeping the stock totals up to date if
+     * the batch is held by this map.
+     */
+    private void updateBatch(String name, Item batch, Runnable change) {
+        boolean isHeld = batchIndex.get(new BatchKey(batch.getKey(), batch.getExpiryEpochDay())) == batch;
+        if (isHeld) {
+            recordSnapshotChange(name);
+            nameTotals.get(batch.getKey()).add(batch, -1);
+            inventoryTotals.add(batch, -1);
+            unindexQuantity(batch);
+        }
+        change.run();
+        if (isHeld) {
+            nameTotals.get(batch.getKey()).add(batch, 1);
+            inventoryTotals.add(batch, 1);
+            indexQuantity(name, batch);
+            refreshStock(name);
+        }
+    }
+
+    /**
+     * Records that the batches of a name are about to change, together with the number the name had in the
+     * published snapshot.
+     */
+    private void recordSnapshotChange(String name) {
+        ItemKey key = ItemKey.of(name);
+        if (!snapshotChanges.containsKey(key)) {
+            snapshotChanges.put(key, nameSequences.get(name));
+        }
+    }
+
+    /**
+     * Publishes a snapshot made from the previous one by replacing the entries of the names changed since,
+     * unless snapshots are held. Called once a public change is complete, so that readers never see half of
+     * it.
+     */
+    private void publishSnapshot() {
+        if (heldSnapshots > 0 || snapshotChanges.isEmpty()) {
+            return;
+        }
+        InventorySnapshot next = snapshot;
+        for (Map.Entry<ItemKey, Long> change : snapshotChanges.entrySet()) {
+            String name = change.getKey().name();
+            Long oldSequence = change.getValue();
+            Long sequence = nameSequences.get(name);
+            if (oldSequence != null && !oldSequence.equals(sequence)) {
+                next = next.without(oldSequence);
+            }
+            if (sequence != null) {
+                next = next.with(sequence, new InventorySnapshot.Batches(items.get(name)));
+            }
+        }
+        snapshotChanges.clear();
+        snapshot = next.nextVersion();
+    }
+
+    private void indexQuantity(String name, Item batch) {
+        quantityIndex.computeIfAbsent(batch.getQuantity(), quantity -> new IdentityHashMap<>()).put(batch, name);
+    }
+
+    private void unindexQuantity(Item batch) {
+        Map<Item, String> batches = quantityIndex.get(batch.getQuantity());
+        if (batches != null && batches.remove(batch) != null && batches.isEmpty()) {
+            quantityIndex.remove(batch.getQuantity());
+        }
+    }
+
+    /**
+     * Updates the state that depends on the total stock of a name, after the stock of one of its batches changed.
+     */
+    private void refreshStock(String name) {
+        namePrefixes.setWeight(name, stockCount(name));
+        refreshReorderState(name);
+    }
+
+    private void refreshReorderState(String name) {
+        Integer reorderPoint = reorderPoints.get(name);
+        if (reorderPoint != null && stockCount(name) <= reorderPoint) {
+            namesToReorder.add(name);
+        } else {
+            namesToReorder.remove(name);
+        }
+    }
+
+    /**
+     * Returns the names that were changed since the last call, and resets the tracking.
+     *
+     * @return The lower-cased names of all items added, edited or deleted since the last drain.
+     */
+    Set<String> drainDirtyNames() {
+        Set<String> drained = new LinkedHashSet<>(dirtyNames);
+        dirtyNames.clear();
+        return drained;
+    }
+
+    /**
+     * Identifies a batch by the key of its name and its expiry date, stored as an epoch day.
+     */
+    private static final class BatchKey {
+        private final ItemKey key;
+        private final long epochDay;
+
+        private BatchKey(ItemKey key, long epochDay) {
+            this.key = key;
+            this.epochDay = epochDay;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof BatchKey other) {
+                return epochDay == other.epochDay && key == other.key;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + Long.hashCode(epochDay);
+        }
+    }
 }
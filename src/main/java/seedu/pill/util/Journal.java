@@ -0,0 +1,190 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.PillException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * An append-only write-ahead journal of inventory changes.
+ *
+ * <p>Each save appends one group of delta records followed by a commit record. A group is only
+ * applied on replay once its commit record has been read, so a save that was cut off halfway
+ * leaves the previously committed state intact. Replay cuts such a group off the file before
+ * anything else is appended.</p>
+ *
+ * <p>Record types, one per line:</p>
+ * <ul>
+ *     <li>{@code P<line>} - puts a batch, where {@code <line>} uses the snapshot line format</li>
+ *     <li>{@code R<name>} - removes every batch stored under the name</li>
+ *     <li>{@code C} - commits the records written since the previous commit</li>
+ * </ul>
+ */
+public class Journal {
+    static final char PUT = 'P';
+    static final char REMOVE = 'R';
+    static final char COMMIT = 'C';
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+
+    private final File file;
+    private int recordCount;
+
+    /**
+     * Creates a journal backed by the given file. The file is created on the first append.
+     *
+     * @param file The journal file.
+     */
+    public Journal(File file) {
+        this.file = file;
+        this.recordCount = 0;
+    }
+
+    /**
+     * Returns the number of records appended or replayed since the journal was last truncated.
+     *
+     * @return The number of records currently held in the journal.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Appends the given records to the journal as a single committed group.
+     * The whole group is written with one write call.
+     *
+     * @param records The encoded records, without line separators.
+     * @param force   Whether to force the group to the storage device before returning.
+     * @throws IOException if the journal cannot be written.
+     */
+    public void append(List<String> records, boolean force) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder group = new StringBuilder();
+        for (String record : records) {
+            group.append(record).append('\n');
+        }
+        group.append(COMMIT).append('\n');
+
+        try (FileOutputStream out = new FileOutputStream(file, true);
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(group.toString());
+            writer.flush();
+            if (force) {
+                out.getFD().sync();
+            }
+        }
+        recordCount += records.size() + 1;
+    }
+
+    /**
+     * Applies every committed group in the journal to the given map, in the order they were written.
+     * A trailing group without a commit record is discarded and cut off the file, so that the commit
+     * record of the next append does not commit it too.
+     *
+     * @param storage The storage used to decode batch lines.
+     * @param itemMap The map to apply the changes to.
+     * @throws IOException if the journal cannot be read or the trailing group cannot be cut off.
+     */
+    public void replay(Storage storage, ItemMap itemMap) throws IOException {
+        recordCount = 0;
+        if (!file.exists()) {
+            return;
+        }
+
+        List<String> pending = new ArrayList<>();
+        long committedLength = 0;
+        long length = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                length++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String record = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (record.length() == 1 && record.charAt(0) == COMMIT) {
+                    applyGroup(storage, itemMap, pending);
+                    recordCount += pending.size() + 1;
+                    pending.clear();
+                    committedLength = length;
+                } else {
+                    pending.add(record);
+                }
+            }
+        }
+
+        if (length > committedLength) {
+            LOGGER.warning("Discarding uncommitted journal records after byte " + committedLength);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(committedLength);
+            }
+        }
+    }
+
+    /**
+     * Empties the journal, typically after its contents have been folded into a snapshot.
+     *
+     * @throws IOException if the journal cannot be truncated.
+     */
+    public void truncate() throws IOException {
+        if (file.exists()) {
+            new FileOutputStream(file, false).close();
+        }
+        recordCount = 0;
+    }
+
+    private static void applyGroup(Storage storage, ItemMap itemMap, List<String> group) {
+        String replacedName = null;
+        List<Item> replacement = new ArrayList<>();
+        for (String record : group) {
+            if (record.isEmpty()) {
+                continue;
+            }
+            String body = record.substring(1);
+            switch (record.charAt(0)) {
+            case PUT:
+                try {
+                    Item item = storage.loadLine(body);
+                    if (item.getKey().name().equals(replacedName)) {
+                        replacement.add(item);
+                    } else {
+                        itemMap.addItemSilent(item);
+                    }
+                } catch (PillException e) {
+                    LOGGER.warning("Skipping corrupted journal record: " + record);
+                }
+                break;
+            case REMOVE:
+                if (replacedName != null) {
+                    itemMap.replaceItemsSilent(replacedName, replacement);
+                }
+                replacedName = body;
+                replacement = new ArrayList<>();
+                break;
+            default:
+                LOGGER.warning("Skipping unknown journal record: " + record);
+                break;
+            }
+        }
+        if (replacedName != null) {
+            itemMap.replaceItemsSilent(replacedName, replacement);
+        }
+    }
+}
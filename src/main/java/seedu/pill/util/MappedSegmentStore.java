@@ -0,0 +1,406 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the inventory in a memory-mapped file of fixed-width batch records, which saves update in place.
+ *
+ * <p>The segment file starts with the magic bytes {@code PILM}, a format version and the number of record
+ * slots in use, followed by the slots:</p>
+ * <pre>
+ *     int nameId | int expiryEpochDay | int quantity | int reserved | long costCents | long priceCents
+ * </pre>
+ * <p>A slot whose name id is {@link #FREE} holds no batch and is reused by later saves. Batches without an
+ * expiry date store {@link #NO_EXPIRY}. The names are kept in a separate file, one per line, where the line
+ * number is the name id. The names file is only ever appended to, and new names go to it before any record
+ * refers to them, so an interrupted save never leaves a record naming the wrong drug. Names that are no
+ * longer used stay in the file.</p>
+ *
+ * <p>A save only writes the slots of the names changed since the previous save, directly into the mapped
+ * file, so the cost of a save does not depend on the size of the inventory, and the batches are never held
+ * on the heap by the store. Loading reads the records straight from the mapping, without decoding any text,
+ * but still builds an {@link ItemMap} holding every batch, so it is not free of a load step. Records are
+ * rewritten in place, so a save interrupted midway may leave a changed name with some of its batches updated
+ * and others not. The store must not be used by two threads at once.</p>
+ */
+public class MappedSegmentStore {
+    static final int VERSION = 1;
+    static final int NO_EXPIRY = Integer.MIN_VALUE;
+    static final int FREE = -1;
+    static final int RECORD_LENGTH = 4 * Integer.BYTES + 2 * Long.BYTES;
+    static final int INITIAL_SLOTS = 1024;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final byte[] MAGIC = {'P', 'I', 'L', 'M'};
+    private static final int VERSION_OFFSET = MAGIC.length;
+    private static final int SLOT_COUNT_OFFSET = VERSION_OFFSET + Integer.BYTES;
+    private static final int HEADER_LENGTH = SLOT_COUNT_OFFSET + Integer.BYTES;
+
+    private final File segmentFile;
+    private final File namesFile;
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final Map<String, List<Integer>> keySlots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private List<String> names = new ArrayList<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int slotCount;
+
+    /**
+     * Creates a store backed by the given files, which are only created by the first write.
+     *
+     * @param segmentFile The file holding the batch records.
+     * @param namesFile   The file holding the names the records refer to.
+     */
+    public MappedSegmentStore(File segmentFile, File namesFile) {
+        this.segmentFile = segmentFile;
+        this.namesFile = namesFile;
+    }
+
+    /**
+     * Returns whether the segment file exists, i.e. whether the inventory has been saved in this layout
+     * before.
+     *
+     * @return {@code true} if the segment file exists.
+     */
+    public boolean exists() {
+        return segmentFile.isFile();
+    }
+
+    /**
+     * Reads every batch in the segment into the given item map. Names come in the order they were first
+     * written. A segment with an unknown header is reported and not read.
+     *
+     * @param itemMap The item map to add the batches to.
+     * @throws IOException if the files cannot be read.
+     */
+    public void read(ItemMap itemMap) throws IOException {
+        reset();
+        names = namesFile.isFile()
+                ? new ArrayList<>(Files.readAllLines(namesFile.toPath(), StandardCharsets.UTF_8))
+                : new ArrayList<>();
+        open();
+        if (!hasValidHeader()) {
+            LOGGER.severe("Unsupported or corrupt inventory segment: " + segmentFile);
+            PillException.printException(new PillException(ExceptionMessages.LOAD_ERROR));
+            slotCount = 0;
+            return;
+        }
+
+        // Each live slot goes in the low half of a long whose high half is its name id, to sort by name id
+        slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+        long[] liveSlots = new long[slotCount];
+        int liveCount = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int nameId = buffer.getInt(offsetOf(slot));
+            if (nameId >= 0 && nameId < names.size()) {
+                liveSlots[liveCount++] = (long) nameId << 32 | slot;
+            } else {
+                if (nameId != FREE) {
+                    LOGGER.severe("Unknown name id " + nameId + " in inventory segment slot " + slot);
+                    PillException.printException(new PillException(ExceptionMessages.LOAD_ERROR));
+                }
+                freeSlots.push(slot);
+            }
+        }
+        Arrays.sort(liveSlots, 0, liveCount);
+
+        for (int i = 0; i < liveCount; i++) {
+            int slot = (int) liveSlots[i];
+            Item item = readRecord(slot);
+            nameIds.put(item.getName(), (int) (liveSlots[i] >>> 32));
+            keySlots.computeIfAbsent(item.getKey().name(), key -> new ArrayList<>()).add(slot);
+            itemMap.addItemSilent(item);
+        }
+        LOGGER.info("Read " + liveCount + " batches from inventory segment");
+    }
+
+    /**
+     * Replaces the contents of the segment with the given items. Names keep the ids they already have in the
+     * names file where that keeps them in their current order, and are appended to it otherwise, so records
+     * on disk never point at a renumbered name.
+     *
+     * @param itemMap The items to write.
+     * @param force   Whether to force the written data to the storage device before returning.
+     * @throws IOException if the files cannot be written.
+     */
+    public void writeAll(ItemMap itemMap, boolean force) throws IOException {
+        reset();
+        names = namesFile.isFile()
+                ? new ArrayList<>(Files.readAllLines(namesFile.toPath(), StandardCharsets.UTF_8))
+                : new ArrayList<>();
+        Map<String, Integer> knownIds = new HashMap<>();
+        for (int nameId = 0; nameId < names.size(); nameId++) {
+            knownIds.put(names.get(nameId), nameId);
+        }
+        List<String> newNames = new ArrayList<>();
+        int lastId = -1;
+        for (TreeSet<Item> itemSet : itemMap.items.values()) {
+            for (Item item : itemSet) {
+                if (nameIds.containsKey(item.getName())) {
+                    continue;
+                }
+                Integer nameId = knownIds.get(item.getName());
+                if (nameId != null && nameId > lastId) {
+                    nameIds.put(item.getName(), nameId);
+                    lastId = nameId;
+                } else {
+                    lastId = nameIdOf(item.getName(), newNames);
+                }
+            }
+        }
+        appendNames(newNames, force);
+
+        open();
+        slotCount = 0;
+        for (Map.Entry<String, TreeSet<Item>> entry : itemMap.items.entrySet()) {
+            List<Integer> slots = new ArrayList<>();
+            for (Item item : entry.getValue()) {
+                int slot = slotCount++;
+                ensureCapacity(slotCount);
+                writeRecord(slot, nameIds.get(item.getName()), item);
+                slots.add(slot);
+            }
+            keySlots.put(entry.getKey(), slots);
+        }
+        writeHeader();
+        if (force) {
+            buffer.force();
+        }
+        LOGGER.info("Rewrote inventory segment with " + slotCount + " batches");
+    }
+
+    /**
+     * Rewrites, in place, the records of the given names. Slots left over by a name with fewer batches than
+     * before are freed, and a name with more batches takes free slots first.
+     *
+     * @param itemMap    The items to write.
+     * @param dirtyNames The lowercase names changed since the last write.
+     * @param force      Whether to force the written data to the storage device before returning.
+     * @throws IOException if the files cannot be written.
+     */
+    public void writeDirty(ItemMap itemMap, Collection<String> dirtyNames, boolean force) throws IOException {
+        open();
+        // Names new to the segment go to disk before any record that refers to them
+        List<String> newNames = new ArrayList<>();
+        for (String key : dirtyNames) {
+            Set<String> usedNames = new HashSet<>();
+            for (Item item : itemMap.get(key)) {
+                usedNames.add(item.getName());
+                nameIdOf(item.getName(), newNames);
+            }
+            for (int slot : keySlots.getOrDefault(key, List.of())) {
+                String name = names.get(buffer.getInt(offsetOf(slot)));
+                if (!usedNames.contains(name)) {
+                    nameIds.remove(name);
+                }
+            }
+        }
+        appendNames(newNames, force);
+
+        int written = 0;
+        for (String key : dirtyNames) {
+            List<Integer> oldSlots = keySlots.getOrDefault(key, List.of());
+            List<Integer> slots = new ArrayList<>();
+            for (Item item : itemMap.get(key)) {
+                int slot = slots.size() < oldSlots.size() ? oldSlots.get(slots.size()) : allocateSlot();
+                writeRecord(slot, nameIds.get(item.getName()), item);
+                slots.add(slot);
+                written++;
+            }
+            for (int slot : oldSlots.subList(Math.min(slots.size(), oldSlots.size()), oldSlots.size())) {
+                buffer.putInt(offsetOf(slot), FREE);
+                freeSlots.push(slot);
+            }
+            if (slots.isEmpty()) {
+                keySlots.remove(key);
+            } else {
+                keySlots.put(key, slots);
+            }
+        }
+        writeHeader();
+        if (force) {
+            buffer.force();
+        }
+        int writtenCount = written;
+        LOGGER.fine(() -> "Rewrote " + writtenCount + " records of " + dirtyNames.size() + " names in place");
+    }
+
+    /**
+     * Writes a single batch to a free slot. When the segment is read back, it is merged with any batch of
+     * the same name and expiry date, like an appended line of the CSV snapshot.
+     *
+     * @param item The batch to write.
+     * @throws IOException if the files cannot be written.
+     */
+    public void append(Item item) throws IOException {
+        open();
+        List<String> newNames = new ArrayList<>();
+        int nameId = nameIdOf(item.getName(), newNames);
+        appendNames(newNames, false);
+        int slot = allocateSlot();
+        writeRecord(slot, nameId, item);
+        keySlots.computeIfAbsent(item.getKey().name(), key -> new ArrayList<>()).add(slot);
+        writeHeader();
+    }
+
+    /**
+     * Closes the file behind the mapping. The store opens it again if it is used afterwards.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void reset() {
+        nameIds.clear();
+        keySlots.clear();
+        freeSlots.clear();
+        slotCount = 0;
+    }
+
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        segmentFile.getParentFile().mkdirs();
+        boolean isNew = !segmentFile.exists() || segmentFile.length() < HEADER_LENGTH;
+        channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long length = Math.max(channel.size(), (long) HEADER_LENGTH + (long) INITIAL_SLOTS * RECORD_LENGTH);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        if (isNew) {
+            writeHeader();
+        }
+    }
+
+    private boolean hasValidHeader() {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        int count = buffer.getInt(SLOT_COUNT_OFFSET);
+        return buffer.getInt(VERSION_OFFSET) == VERSION && count >= 0
+                && (long) HEADER_LENGTH + (long) count * RECORD_LENGTH <= buffer.capacity();
+    }
+
+    private void writeHeader() {
+        for (int i = 0; i < MAGIC.length; i++) {
+            buffer.put(i, MAGIC[i]);
+        }
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+    }
+
+    /**
+     * Maps a larger part of the file once the slots in use no longer fit, doubling the mapped slots.
+     */
+    private void ensureCapacity(int slots) throws IOException {
+        long needed = HEADER_LENGTH + (long) slots * RECORD_LENGTH;
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        long length = Math.max(needed, HEADER_LENGTH + 2L * (buffer.capacity() - HEADER_LENGTH));
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Inventory segment is full: " + segmentFile);
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+
+    private int allocateSlot() throws IOException {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        int slot = slotCount++;
+        ensureCapacity(slotCount);
+        return slot;
+    }
+
+    /**
+     * Returns the id of a name, giving it the next id if it has none. New names are collected so that they
+     * can be appended to the names file together.
+     */
+    private int nameIdOf(String name, List<String> newNames) {
+        Integer nameId = nameIds.get(name);
+        if (nameId == null) {
+            nameId = names.size();
+            names.add(name);
+            nameIds.put(name, nameId);
+            newNames.add(name);
+        }
+        return nameId;
+    }
+
+    private void appendNames(List<String> newNames, boolean force) throws IOException {
+        if (newNames.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String name : newNames) {
+            lines.append(name).append(System.lineSeparator());
+        }
+        FileOutputStream out = new FileOutputStream(namesFile, true);
+        try (OutputStream stream = out) {
+            stream.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            if (force) {
+                out.getFD().sync();
+            }
+        }
+    }
+
+    private void writeRecord(int slot, int nameId, Item item) {
+        int offset = offsetOf(slot);
+        buffer.putInt(offset, nameId);
+        buffer.putInt(offset + Integer.BYTES,
+                item.hasExpiryDate() ? Math.toIntExact(item.getExpiryEpochDay()) : NO_EXPIRY);
+        buffer.putInt(offset + 2 * Integer.BYTES, item.getQuantity());
+        buffer.putInt(offset + 3 * Integer.BYTES, 0);
+        buffer.putLong(offset + 4 * Integer.BYTES, item.getCostCents());
+        buffer.putLong(offset + 4 * Integer.BYTES + Long.BYTES, item.getPriceCents());
+    }
+
+    private Item readRecord(int slot) {
+        int offset = offsetOf(slot);
+        String name = names.get(buffer.getInt(offset));
+        int epochDay = buffer.getInt(offset + Integer.BYTES);
+        long expiryEpochDay = epochDay == NO_EXPIRY ? Item.NO_EXPIRY : epochDay;
+        int quantity = buffer.getInt(offset + 2 * Integer.BYTES);
+        long costCents = buffer.getLong(offset + 4 * Integer.BYTES);
+        long priceCents = buffer.getLong(offset + 4 * Integer.BYTES + Long.BYTES);
+        return Item.ofCents(name, quantity, expiryEpochDay, costCents, priceCents);
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_LENGTH + slot * RECORD_LENGTH;
+    }
+}
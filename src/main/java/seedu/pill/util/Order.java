@@ -76,6 +76,29 @@ public class Order {
         this.notes = notes;
     }
 
+    /**
+     * Restores a previously recorded Order with all of its details, such as one read back from a
+     * {@link TransactionLog}.
+     *
+     * @param id              - The unique identifier of the order
+     * @param type            - The type of order (PURCHASE or DISPENSE)
+     * @param creationTime    - The time the order was created
+     * @param fulfillmentTime - The time the order was fulfilled, or null if it has not been
+     * @param status          - The current status of the order
+     * @param itemsToOrder    - The items in the order
+     * @param notes           - Additional information or comments about the order
+     */
+    Order(UUID id, OrderType type, LocalDateTime creationTime, LocalDateTime fulfillmentTime,
+          OrderStatus status, ItemMap itemsToOrder, String notes) {
+        this.id = id;
+        this.type = type;
+        this.creationTime = creationTime;
+        this.fulfillmentTime = fulfillmentTime;
+        this.status = status;
+        this.items = itemsToOrder;
+        this.notes = notes;
+    }
+
     /**
      * Adds an item to this order with the specified name and quantity.
      * Multiple items can be added to a single order.
@@ -0,0 +1,213 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+/**
+ * Loads a CSV snapshot by memory-mapping it and parsing it in chunks on a {@link ForkJoinPool}.
+ *
+ * <p>The file is cut into chunks of at least {@link #MIN_CHUNK_BYTES} bytes, each ending right after a line
+ * separator, so no line is split between chunks. Every chunk is parsed into a plain list of batches, and
+ * the lists are added to the item map in file order, so the indexes of the map are only built once. Lines
+ * that cannot be parsed are reported once all chunks are done, in the order they appear in the file, exactly
+ * as a line-by-line load would report them.</p>
+ */
+public class ParallelCsvLoader {
+    static final int MIN_CHUNK_BYTES = 1 << 20;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final int BOUNDARY_WINDOW_BYTES = 8192;
+
+    private final ForkJoinPool pool;
+    private final int minChunkBytes;
+
+    /**
+     * Creates a loader that parses chunks on the common pool.
+     */
+    public ParallelCsvLoader() {
+        this(ForkJoinPool.commonPool(), MIN_CHUNK_BYTES);
+    }
+
+    /**
+     * Creates a loader with the given pool and smallest chunk size.
+     *
+     * @param pool          The pool the chunks are parsed on.
+     * @param minChunkBytes The smallest chunk worth parsing on its own.
+     */
+    ParallelCsvLoader(ForkJoinPool pool, int minChunkBytes) {
+        assert minChunkBytes > 0 : "Chunk size must be positive";
+        this.pool = pool;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    /**
+     * Loads every line of the given file into the item map, printing an error for each line that
+     * cannot be parsed.
+     *
+     * @param file    The CSV file to load.
+     * @param itemMap The item map to add the loaded batches to.
+     * @throws IOException if the file cannot be read.
+     */
+    public void load(File file, ItemMap itemMap) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<ChunkTask> tasks = new ArrayList<>();
+            long size = channel.size();
+            long chunkBytes = Math.max(minChunkBytes, size / (4L * pool.getParallelism()) + 1);
+            long start = 0;
+            while (start < size) {
+                long end = nextLineStart(channel, Math.min(start + chunkBytes, size));
+                tasks.add(new ChunkTask(channel, start, end));
+                start = end;
+            }
+
+            try {
+                if (tasks.size() == 1) {
+                    merge(tasks.get(0).invoke(), itemMap);
+                    return;
+                }
+                LOGGER.fine(() -> "Loading " + file.getName() + " in " + tasks.size() + " chunks");
+                tasks.forEach(pool::execute);
+                for (ChunkTask task : tasks) {
+                    merge(task.join(), itemMap);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static void merge(ChunkResult result, ItemMap itemMap) {
+        for (PillException e : result.errors) {
+            PillException.printException(e);
+        }
+        for (Item item : result.items) {
+            itemMap.addItemSilent(item);
+        }
+    }
+
+    /**
+     * Returns the offset just after the first line feed at or after the given position,
+     * or the size of the file if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW_BYTES);
+        // Start one byte early, so that a cut landing right after a line feed stays where it is
+        long offset = Math.max(0, position - 1);
+        while (offset < size) {
+            window.clear();
+            int read = channel.read(window, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * The batches and errors parsed from one chunk, in file order.
+     */
+    private static class ChunkResult {
+        private final List<Item> items = new ArrayList<>();
+        private final List<PillException> errors = new ArrayList<>();
+    }
+
+    /**
+     * Parses the lines in one byte range of the file.
+     */
+    private static class ChunkTask extends RecursiveTask<ChunkResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        private ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult result = new ChunkResult();
+            CharBuffer chars;
+            try {
+                ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                chars = decode(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // Lines are decoded in place from the chunk's characters, so no String is built per line
+            CsvRecordDecoder decoder = new CsvRecordDecoder();
+            int lineStart = 0;
+            int length = chars.length();
+            for (int i = 0; i < length; i++) {
+                char c = chars.get(i);
+                if (c != '\n' && c != '\r') {
+                    continue;
+                }
+                parseLine(decoder, chars, lineStart, i, result);
+                if (c == '\r' && i + 1 < length && chars.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+            if (lineStart < length) {
+                parseLine(decoder, chars, lineStart, length, result);
+            }
+            return result;
+        }
+
+        /**
+         * Decodes the chunk as UTF-8, which the snapshot is written in. Snapshots written by older versions
+         * used the platform charset, so a chunk that is not valid UTF-8 is decoded with that instead,
+         * replacing malformed input like Scanner does.
+         */
+        private static CharBuffer decode(ByteBuffer bytes) throws CharacterCodingException {
+            try {
+                return StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(bytes.duplicate());
+            } catch (CharacterCodingException e) {
+                return Charset.defaultCharset().newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(bytes);
+            }
+        }
+
+        private static void parseLine(CsvRecordDecoder decoder, CharBuffer chars, int start, int end,
+                                      ChunkResult result) {
+            try {
+                result.items.add(decoder.decode(chars, start, end));
+            } catch (PillException e) {
+                result.errors.add(e);
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import seedu.pill.command.ExpiredCommand;
 import seedu.pill.command.ExpiringCommand;
 import seedu.pill.command.FindCommand;
 import seedu.pill.command.ListCommand;
+import seedu.pill.command.PrefixCommand;
 import seedu.pill.command.RestockAllCommand;
 import seedu.pill.command.RestockItemCommand;
 import seedu.pill.command.SetCostCommand;
@@ -32,7 +33,6 @@ import seedu.pill.exceptions.PillException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 
 public class Parser {
@@ -55,11 +55,20 @@ public class Parser {
     }
 
     /**
-     * Processes the user's command.
+     * Processes the user's command. The command runs while no deferred save is being written.
      *
      * @param input The user's input command from the scanner.
      */
     public void parseCommand(String input) {
+        storage.runExclusive(() -> executeCommand(input));
+    }
+
+    /**
+     * Parses and executes the user's command.
+     *
+     * @param input The user's input command from the scanner.
+     */
+    private void executeCommand(String input) {
         try {
             input = input.trim();
             String[] splitInput = input.split("\\s+");
@@ -85,6 +94,12 @@ public class Parser {
             case "find":
                 new FindCommand(arguments).execute(this.items, this.storage);
                 break;
+            case "prefix":
+                if (arguments.isEmpty()) {
+                    throw new PillException(ExceptionMessages.INVALID_PREFIX_COMMAND);
+                }
+                new PrefixCommand(arguments).execute(this.items, this.storage);
+                break;
             case "help":
                 boolean flag = flagStr.equals("-v");
                 new HelpCommand(argument, flag).execute(this.items, this.storage);
@@ -176,10 +191,11 @@ public class Parser {
     /**
      * Parses the arguments provided to create a {@link FulfillCommand} instance, which is used to fulfill an order.
      *
-     * @param arguments The command input containing the order UUID to be fulfilled.
+     * @param arguments The command input containing the order UUID to be fulfilled, or a prefix of it that no
+     *                  other order's UUID shares.
      * @return A {@link FulfillCommand} instance that contains the order and transaction manager.
      * @throws PillException if the input contains too many arguments, is empty, cannot be parsed as a number,
-     *                       or if the specified order UUID is invalid.
+     *                       or if the specified order UUID is invalid or matches more than one order.
      *
      */
     private FulfillCommand parseFulfillCommand(String arguments) throws PillException {
@@ -190,20 +206,8 @@ public class Parser {
         if (commandArguments.length == 0 || arguments.isEmpty()) {
             throw new PillException(ExceptionMessages.INVALID_FULFILL_COMMAND);
         }
-        try {
-            List<Order> orders = transactionManager.getOrders();
-            String orderToFetch = commandArguments[0];
-            Order order = orders.stream()
-                    .filter(orderInfo -> orderInfo.getId().toString().equals(orderToFetch))
-                    .findFirst()
-                    .orElse(null);
-            if (order == null) {
-                throw new PillException(ExceptionMessages.INVALID_ORDER);
-            }
-            return new FulfillCommand(order, transactionManager);
-        } catch (IndexOutOfBoundsException e) {
-            throw new PillException(ExceptionMessages.INVALID_ORDER);
-        }
+        Order order = transactionManager.findOrder(commandArguments[0]);
+        return new FulfillCommand(order, transactionManager);
     }
 
     /**
@@ -0,0 +1,314 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.PillException;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces save requests for an {@link ItemMap} so that a burst of changes results in a single disk write.
+ *
+ * <p>How soon a requested save reaches the disk depends on the {@link Durability} level. Saves requested
+ * between {@link #beginBatch()} and {@link #endBatch()} are always held back until the outermost batch ends,
+ * so a multi-line order is written once instead of once per line.</p>
+ *
+ * <p>A background flush that fails is retried after a delay that doubles with every failure, and the failure is
+ * thrown to the next caller of {@link #requestSave} or {@link #close}, so that the user learns that changes
+ * are not reaching the disk.</p>
+ *
+ * <p>The scheduler owns the lock that guards the inventory while it is being written. Code that mutates
+ * the inventory while a background flush may be running should do so through {@link #runExclusive}.</p>
+ */
+public class PersistenceScheduler {
+    static final int DEFAULT_MAX_PENDING_SAVES = 32;
+    static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+    static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+
+    private final Durability durability;
+    private final FlushAction flushAction;
+    private final int maxPendingSaves;
+    private final long maxDelayMillis;
+    private final ReentrantLock lock;
+
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> scheduledFlush;
+    private Object pendingSource;
+    private Supplier<ItemMap> pendingContents;
+    private int pendingSaves;
+    private int batchDepth;
+    private PillException backgroundFailure;
+    private int failedBackgroundFlushes;
+
+    /**
+     * Defines how soon a requested save is written to disk.
+     * SYNC    - every save is written and forced to the device (fsync) before the request returns.
+     * BATCHED - saves are coalesced and written once enough of them are pending or the oldest one is too old.
+     * ON_EXIT - saves are only written when the scheduler is flushed or closed, typically when the app exits.
+     */
+    public enum Durability {
+        SYNC,
+        BATCHED,
+        ON_EXIT
+    }
+
+    /**
+     * Writes an item map to disk on behalf of the scheduler.
+     */
+    @FunctionalInterface
+    public interface FlushAction {
+        /**
+         * Writes the given item map to disk.
+         *
+         * @param itemMap The item map to write.
+         * @param force   Whether the written data must be forced to the storage device before returning.
+         * @throws PillException if the item map cannot be written.
+         */
+        void flush(ItemMap itemMap, boolean force) throws PillException;
+    }
+
+    /**
+     * Creates a scheduler with the default size and time triggers.
+     *
+     * @param durability  How soon requested saves are written to disk.
+     * @param flushAction The action performing the actual write.
+     */
+    public PersistenceScheduler(Durability durability, FlushAction flushAction) {
+        this(durability, flushAction, DEFAULT_MAX_PENDING_SAVES, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates a scheduler with the given size and time triggers.
+     *
+     * @param durability      How soon requested saves are written to disk.
+     * @param flushAction     The action performing the actual write.
+     * @param maxPendingSaves In {@link Durability#BATCHED} mode, the number of pending saves that triggers a flush.
+     * @param maxDelayMillis  In {@link Durability#BATCHED} mode, the longest a pending save is held back.
+     */
+    public PersistenceScheduler(Durability durability, FlushAction flushAction,
+                                int maxPendingSaves, long maxDelayMillis) {
+        assert maxPendingSaves > 0 : "Size trigger must be positive";
+        assert maxDelayMillis >= 0 : "Time trigger cannot be negative";
+
+        this.durability = durability;
+        this.flushAction = flushAction;
+        this.maxPendingSaves = maxPendingSaves;
+        this.maxDelayMillis = maxDelayMillis;
+        this.lock = new ReentrantLock();
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Returns the number of save requests that have not been written to disk yet.
+     *
+     * @return The number of pending save requests.
+     */
+    public int getPendingSaves() {
+        lock.lock();
+        try {
+            return pendingSaves;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the given item map has changed and needs to be saved, and writes it
+     * if the durability level or one of the triggers requires it. A pending save of a different
+     * item map is written first.
+     *
+     * @param itemMap The item map to save.
+     * @throws PillException if a required write fails.
+     */
+    public void requestSave(ItemMap itemMap) throws PillException {
+        requestSave(itemMap, () -> itemMap);
+    }
+
+    /**
+     * Records that an inventory has changed and needs to be saved, like {@link #requestSave(ItemMap)}, for an
+     * inventory that is not held in a single item map. The contents to write are only read when the save is
+     * written, so coalesced saves read them once.
+     *
+     * @param source   The inventory that changed. Saves of the same inventory are coalesced.
+     * @param contents Reads the current contents of the inventory.
+     * @throws PillException if a required write fails, or a background write failed since the last call. The
+     *                       save is still recorded and retried in that case.
+     */
+    public void requestSave(Object source, Supplier<ItemMap> contents) throws PillException {
+        lock.lock();
+        try {
+            if (pendingSource != null && pendingSource != source) {
+                flush();
+            }
+            pendingSource = source;
+            pendingContents = contents;
+            pendingSaves++;
+            if (batchDepth == 0) {
+                flushIfDue();
+            }
+            throwBackgroundFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a group of saves that should be written together. Batches may be nested.
+     */
+    public void beginBatch() {
+        lock.lock();
+        batchDepth++;
+    }
+
+    /**
+     * Ends a group of saves started with {@link #beginBatch()}. When the outermost batch ends, the
+     * pending saves are handled as if they had been requested at once.
+     *
+     * @throws PillException if a required write fails.
+     */
+    public void endBatch() throws PillException {
+        assert lock.isHeldByCurrentThread() : "endBatch called without matching beginBatch";
+        try {
+            batchDepth--;
+            if (batchDepth == 0 && pendingSaves > 0) {
+                flushIfDue();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given action while holding the lock that background flushes take before writing.
+     *
+     * @param action The action to run.
+     */
+    public void runExclusive(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes any pending save to disk immediately, regardless of the durability level.
+     *
+     * @throws PillException if the write fails.
+     */
+    public void flush() throws PillException {
+        lock.lock();
+        try {
+            if (pendingSaves == 0) {
+                return;
+            }
+            flushAction.flush(pendingContents.get(), durability == Durability.SYNC);
+            LOGGER.fine("Flushed " + pendingSaves + " pending saves");
+            pendingSource = null;
+            pendingContents = null;
+            pendingSaves = 0;
+            backgroundFailure = null;
+            failedBackgroundFlushes = 0;
+            cancelScheduledFlush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes any pending save and stops the background timer.
+     *
+     * @throws PillException if the final write fails, or a background write failed and nothing was left to retry.
+     */
+    public void close() throws PillException {
+        lock.lock();
+        try {
+            flush();
+            throwBackgroundFailure();
+            if (timer != null) {
+                timer.shutdownNow();
+                timer = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfDue() throws PillException {
+        switch (durability) {
+        case SYNC:
+            flush();
+            break;
+        case BATCHED:
+            if (pendingSaves >= maxPendingSaves) {
+                flush();
+            } else {
+                scheduleFlush(maxDelayMillis);
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void throwBackgroundFailure() throws PillException {
+        if (backgroundFailure != null) {
+            PillException failure = backgroundFailure;
+            backgroundFailure = null;
+            throw failure;
+        }
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (scheduledFlush != null) {
+            return;
+        }
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pill-persistence");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        scheduledFlush = timer.schedule(this::flushFromTimer, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private void flushFromTimer() {
+        lock.lock();
+        try {
+            scheduledFlush = null;
+            if (batchDepth == 0) {
+                flush();
+            } else {
+                scheduleFlush(maxDelayMillis);
+            }
+        } catch (PillException e) {
+            failedBackgroundFlushes++;
+            backgroundFailure = e;
+            long firstDelay = Math.max(maxDelayMillis, 1);
+            long retryDelay = Math.min(firstDelay << Math.min(failedBackgroundFlushes, 16), MAX_RETRY_DELAY_MILLIS);
+            LOGGER.severe("Background save failed " + failedBackgroundFlushes + " times, retrying in "
+                    + retryDelay + " ms: " + e.getMessage());
+            scheduleFlush(retryDelay);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package seedu.pill.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable map from {@code long} keys to values, iterated in key order.
+ *
+ * <p>The map is an AVL tree whose nodes are never changed once built. Adding or removing a key copies only
+ * the nodes on the path from the root to that key, and shares every other node with the map it was made
+ * from, so each change costs O(log n) time and space and leaves the old map intact. Any number of threads
+ * may therefore read a map while new versions of it are being made.</p>
+ *
+ * @param <V> The type of the values.
+ */
+public final class PersistentSortedMap<V> implements Iterable<V> {
+    private static final PersistentSortedMap<?> EMPTY = new PersistentSortedMap<>(null, 0);
+
+    private final Node<V> root;
+    private final int size;
+
+    private static final class Node<V> {
+        private final long key;
+        private final V value;
+        private final Node<V> left;
+        private final Node<V> right;
+        private final int height;
+
+        private Node(long key, V value, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+        }
+    }
+
+    private PersistentSortedMap(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <V> The type of the values.
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentSortedMap<V> empty() {
+        return (PersistentSortedMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value stored under a key.
+     *
+     * @param key The key to look up.
+     * @return The value, or null if the key is not in the map.
+     */
+    public V get(long key) {
+        Node<V> node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a map with the given value stored under the key, replacing any value it had.
+     *
+     * @param key   The key to store the value under.
+     * @param value The value, which must not be null.
+     * @return The new map.
+     */
+    public PersistentSortedMap<V> put(long key, V value) {
+        assert value != null : "Values cannot be null";
+        boolean isNew = get(key) == null;
+        return new PersistentSortedMap<>(put(root, key, value), isNew ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the given key, or this map if the key is not in it.
+     *
+     * @param key The key to remove.
+     * @return The new map.
+     */
+    public PersistentSortedMap<V> remove(long key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentSortedMap<>(remove(root, key), size - 1);
+    }
+
+    /**
+     * Returns the values of the map in the order of their keys.
+     */
+    @Override
+    public Iterator<V> iterator() {
+        Deque<Node<V>> path = new ArrayDeque<>();
+        pushLeft(path, root);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public V next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<V> node = path.pop();
+                pushLeft(path, node.right);
+                return node.value;
+            }
+        };
+    }
+
+    /**
+     * Returns the height of the tree, which stays within about 1.44 log2(n + 2).
+     */
+    int height() {
+        return heightOf(root);
+    }
+
+    private static <V> void pushLeft(Deque<Node<V>> path, Node<V> node) {
+        while (node != null) {
+            path.push(node);
+            node = node.left;
+        }
+    }
+
+    private static int heightOf(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <V> Node<V> put(Node<V> node, long key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <V> Node<V> remove(Node<V> node, long key) {
+        if (key < node.key) {
+            return balance(node.key, node.value, remove(node.left, key), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, remove(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, remove(node.right, successor.key));
+    }
+
+    /**
+     * Builds a node from subtrees whose heights differ by at most two, rotating once or twice to bring the
+     * difference back to at most one.
+     */
+    private static <V> Node<V> balance(long key, V value, Node<V> left, Node<V> right) {
+        int difference = heightOf(left) - heightOf(right);
+        if (difference > 1) {
+            if (heightOf(left.left) >= heightOf(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<V> middle = left.right;
+            return new Node<>(middle.key, middle.value, new Node<>(left.key, left.value, left.left, middle.left),
+                    new Node<>(key, value, middle.right, right));
+        }
+        if (difference < -1) {
+            if (heightOf(right.right) >= heightOf(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<V> middle = right.left;
+            return new Node<>(middle.key, middle.value, new Node<>(key, value, left, middle.left),
+                    new Node<>(right.key, right.value, middle.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+}
@@ -0,0 +1,297 @@
+package seedu.pill.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * A radix trie over strings, each with a weight, that finds the heaviest strings starting with a prefix.
+ *
+ * <p>Chains of nodes with a single child are merged into one edge, so the trie has at most twice as many
+ * nodes as strings. Every node also keeps the largest weight found below it, which lets a prefix query
+ * expand the most promising branch first and stop once it has found enough strings, without visiting the
+ * other strings under the prefix.</p>
+ *
+ * <p>Strings are stored as given, so callers normalise them, for example to lower case, before adding and
+ * querying.</p>
+ */
+public class RadixTrie {
+    private static final Comparator<Candidate> HEAVIEST_FIRST = Comparator
+            .comparingLong((Candidate candidate) -> -candidate.weight)
+            .thenComparing(candidate -> candidate.text);
+
+    private final Node root = new Node("");
+    private int size;
+
+    private static class Node {
+        private String label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private boolean isKey;
+        private long weight;
+        private long maxWeight = Long.MIN_VALUE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * A node waiting to be expanded, or a string waiting to be returned, by a prefix query.
+     */
+    private static class Candidate {
+        private final Node node;
+        private final String text;
+        private final long weight;
+        private final boolean isResult;
+
+        private Candidate(Node node, String text, long weight, boolean isResult) {
+            this.node = node;
+            this.text = text;
+            this.weight = weight;
+            this.isResult = isResult;
+        }
+    }
+
+    /**
+     * Adds a string with the given weight, or changes its weight if it is already in the trie.
+     *
+     * @param key    The string to add.
+     * @param weight The weight of the string.
+     */
+    public void put(String key, long weight) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.children.put(key.charAt(position), child);
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefixLength(child.label, key, position);
+            if (common < child.label.length()) {
+                child = split(node, child, common);
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+
+        if (!node.isKey) {
+            node.isKey = true;
+            size++;
+        }
+        node.weight = weight;
+        refreshMaxWeights(path);
+    }
+
+    /**
+     * Changes the weight of a string, if it is in the trie.
+     *
+     * @param key    The string to change.
+     * @param weight The new weight of the string.
+     */
+    public void setWeight(String key, long weight) {
+        List<Node> path = findPath(key);
+        if (path != null) {
+            Node node = path.get(path.size() - 1);
+            node.weight = weight;
+            refreshMaxWeights(path);
+        }
+    }
+
+    /**
+     * Removes a string from the trie, if it is there.
+     *
+     * @param key The string to remove.
+     */
+    public void remove(String key) {
+        List<Node> path = findPath(key);
+        if (path == null) {
+            return;
+        }
+        Node node = path.get(path.size() - 1);
+        node.isKey = false;
+        size--;
+
+        if (node.children.isEmpty() && node != root) {
+            Node parent = path.get(path.size() - 2);
+            parent.children.remove(node.label.charAt(0));
+            path.remove(path.size() - 1);
+            mergeWithOnlyChild(parent);
+        } else {
+            mergeWithOnlyChild(node);
+        }
+        refreshMaxWeights(path);
+    }
+
+    public boolean contains(String key) {
+        return findPath(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the heaviest strings starting with the given prefix, heaviest first.
+     *
+     * @param prefix The prefix to look for.
+     * @param limit  The largest number of strings to return.
+     * @return Up to {@code limit} strings starting with the prefix, ordered by weight and then alphabetically.
+     */
+    public List<String> withPrefix(String prefix, int limit) {
+        List<String> matches = new ArrayList<>();
+        Candidate start = locate(prefix);
+        if (start == null || limit <= 0) {
+            return matches;
+        }
+
+        // A node is never heavier than its heaviest string, and its text comes before the text of every
+        // string below it, so strings leave the queue in the order they should be returned
+        PriorityQueue<Candidate> pending = new PriorityQueue<>(HEAVIEST_FIRST);
+        pending.add(start);
+        while (!pending.isEmpty() && matches.size() < limit) {
+            Candidate candidate = pending.poll();
+            if (candidate.isResult) {
+                matches.add(candidate.text);
+                continue;
+            }
+            Node node = candidate.node;
+            if (node.isKey) {
+                pending.add(new Candidate(node, candidate.text, node.weight, true));
+            }
+            for (Node child : node.children.values()) {
+                pending.add(new Candidate(child, candidate.text + child.label, child.maxWeight, false));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the longest string that every string starting with the given prefix also starts with, for
+     * completing a partly typed string.
+     *
+     * @param prefix The partly typed string.
+     * @return The completed prefix, which is the prefix itself if the strings starting with it differ
+     *         straight after it, or null if no string starts with it.
+     */
+    public String complete(String prefix) {
+        Candidate start = locate(prefix);
+        if (start == null) {
+            return null;
+        }
+        Node node = start.node;
+        StringBuilder completion = new StringBuilder(start.text);
+        while (!node.isKey && node.children.size() == 1) {
+            node = node.children.firstEntry().getValue();
+            completion.append(node.label);
+        }
+        return completion.toString();
+    }
+
+    /**
+     * Finds the node at which the strings starting with the prefix begin, along with the full text up to the
+     * end of that node's label.
+     */
+    private Candidate locate(String prefix) {
+        if (size == 0) {
+            return null;
+        }
+        Node node = root;
+        StringBuilder text = new StringBuilder();
+        int position = 0;
+        while (position < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefixLength(child.label, prefix, position);
+            if (common < child.label.length() && position + common < prefix.length()) {
+                return null;
+            }
+            node = child;
+            text.append(child.label);
+            position += common;
+        }
+        return new Candidate(node, text.toString(), node.maxWeight, false);
+    }
+
+    /**
+     * Returns the nodes from the root to the node of the given string, or null if the string is not in the
+     * trie.
+     */
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            node = node.children.get(key.charAt(position));
+            if (node == null || !key.startsWith(node.label, position)) {
+                return null;
+            }
+            path.add(node);
+            position += node.label.length();
+        }
+        return node.isKey ? path : null;
+    }
+
+    /**
+     * Splits the edge to a child after the given number of characters, and returns the new middle node.
+     */
+    private static Node split(Node parent, Node child, int length) {
+        Node middle = new Node(child.label.substring(0, length));
+        child.label = child.label.substring(length);
+        middle.children.put(child.label.charAt(0), child);
+        middle.maxWeight = child.maxWeight;
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    /**
+     * Merges a node that no longer holds a string into its only child, keeping the edges compact.
+     */
+    private void mergeWithOnlyChild(Node node) {
+        if (node == root || node.isKey || node.children.size() != 1) {
+            return;
+        }
+        Node child = node.children.firstEntry().getValue();
+        node.label = node.label + child.label;
+        node.children.clear();
+        node.children.putAll(child.children);
+        node.isKey = child.isKey;
+        node.weight = child.weight;
+        node.maxWeight = child.maxWeight;
+    }
+
+    /**
+     * Recomputes the largest weight below each node of a path, from the bottom up.
+     */
+    private static void refreshMaxWeights(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            long maxWeight = node.isKey ? node.weight : Long.MIN_VALUE;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                maxWeight = Math.max(maxWeight, child.getValue().maxWeight);
+            }
+            node.maxWeight = maxWeight;
+        }
+    }
+
+    private static int commonPrefixLength(String label, String text, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < text.length()
+                && label.charAt(length) == text.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+}
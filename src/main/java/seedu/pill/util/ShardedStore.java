@@ -0,0 +1,260 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the inventory in a directory of bucket files, one per hash of the item name, so that a save only
+ * rewrites the buckets holding names changed since the previous save.
+ *
+ * <p>Each bucket {@code bucket-NN.csv} holds lines of the form {@code <sequence>,<snapshot line>}, where the
+ * snapshot line is the one written to {@code pill.txt}. The sequence number records the position of the
+ * name in the inventory, so the items are loaded back in the order they were listed in, although the names
+ * are spread over many files. Every batch of a name carries the same sequence number, and a name that is
+ * deleted and added again moves to the end.</p>
+ *
+ * <p>Buckets are replaced through a temporary file that is renamed over them, so an interrupted save leaves
+ * each bucket either old or new. The store tracks which names live in which bucket and must not be used by
+ * two threads at once.</p>
+ */
+public class ShardedStore {
+    static final int DEFAULT_BUCKET_COUNT = 64;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final String BUCKET_PREFIX = "bucket-";
+    private static final String BUCKET_SUFFIX = ".csv";
+
+    private final File directory;
+    private final int bucketCount;
+    private final Map<String, Long> sequences = new HashMap<>();
+    private final List<Set<String>> bucketNames = new ArrayList<>();
+    private final CsvRecordDecoder decoder = new CsvRecordDecoder();
+    private long nextSequence;
+
+    /**
+     * Creates a store with the default number of buckets in the given directory.
+     *
+     * @param directory The directory holding the bucket files.
+     */
+    public ShardedStore(File directory) {
+        this(directory, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * Creates a store in the given directory. The bucket count must stay the same for the lifetime of
+     * the directory, as it decides which file a name is kept in.
+     *
+     * @param directory   The directory holding the bucket files.
+     * @param bucketCount The number of bucket files the names are spread over.
+     */
+    public ShardedStore(File directory, int bucketCount) {
+        assert bucketCount > 0 : "A sharded store needs at least one bucket";
+        this.directory = directory;
+        this.bucketCount = bucketCount;
+        for (int i = 0; i < bucketCount; i++) {
+            bucketNames.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Returns whether the store directory exists, i.e. whether the inventory has been saved in this
+     * layout before.
+     *
+     * @return {@code true} if the directory exists.
+     */
+    public boolean exists() {
+        return directory.isDirectory();
+    }
+
+    /**
+     * Rewrites every bucket from the given items, numbering the names in their current order.
+     *
+     * @param itemMap The items to write.
+     * @param force   Whether to force the buckets to the storage device before returning.
+     * @throws IOException if a bucket cannot be written.
+     */
+    public void writeAll(ItemMap itemMap, boolean force) throws IOException {
+        sequences.clear();
+        nextSequence = 0;
+        for (Set<String> names : bucketNames) {
+            names.clear();
+        }
+        for (String name : itemMap.items.keySet()) {
+            track(name);
+        }
+
+        directory.mkdirs();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            writeBucket(bucket, itemMap, force);
+        }
+        LOGGER.info("Rewrote all " + bucketCount + " buckets");
+    }
+
+    /**
+     * Rewrites only the buckets holding the given names. Names that are no longer in the map are
+     * removed from their bucket, and names new to the store are placed after all others.
+     *
+     * @param itemMap    The items to write.
+     * @param dirtyNames The lowercase names changed since the last write.
+     * @param force      Whether to force the buckets to the storage device before returning.
+     * @throws IOException if a bucket cannot be written.
+     */
+    public void writeDirty(ItemMap itemMap, Collection<String> dirtyNames, boolean force) throws IOException {
+        Set<Integer> dirtyBuckets = new TreeSet<>();
+        for (String name : dirtyNames) {
+            if (isPresent(itemMap, name)) {
+                if (!sequences.containsKey(name)) {
+                    track(name);
+                }
+            } else if (sequences.remove(name) != null) {
+                bucketNames.get(bucketOf(name)).remove(name);
+            }
+            dirtyBuckets.add(bucketOf(name));
+        }
+
+        directory.mkdirs();
+        for (int bucket : dirtyBuckets) {
+            writeBucket(bucket, itemMap, force);
+        }
+        LOGGER.fine(() -> "Rewrote " + dirtyBuckets.size() + " of " + bucketCount + " buckets");
+    }
+
+    /**
+     * Appends a single item to the bucket of its name.
+     *
+     * @param item The item to append.
+     * @throws IOException if the bucket cannot be written.
+     */
+    public void append(Item item) throws IOException {
+        String name = item.getKey().name();
+        if (!sequences.containsKey(name)) {
+            track(name);
+        }
+        directory.mkdirs();
+        String line = sequences.get(name) + "," + CsvSnapshotWriter.formatLine(item) + System.lineSeparator();
+        Files.write(bucketFile(bucketOf(name)).toPath(), line.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads every bucket into the given map, adding the names in the order they were saved in.
+     * Invalid lines are reported and skipped.
+     *
+     * @param itemMap The map to add the items to.
+     * @throws IOException if a bucket cannot be read.
+     */
+    public void read(ItemMap itemMap) throws IOException {
+        List<Record> records = new ArrayList<>();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            File file = bucketFile(bucket);
+            if (file.isFile()) {
+                readBucket(file, records);
+            }
+        }
+        records.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+
+        sequences.clear();
+        for (Set<String> names : bucketNames) {
+            names.clear();
+        }
+        nextSequence = 0;
+        for (Record record : records) {
+            itemMap.addItemSilent(record.item);
+            String name = record.item.getKey().name();
+            if (!sequences.containsKey(name)) {
+                sequences.put(name, record.sequence);
+                bucketNames.get(bucketOf(name)).add(name);
+            }
+            nextSequence = Math.max(nextSequence, record.sequence + 1);
+        }
+    }
+
+    private void readBucket(File file, List<Record> records) throws IOException {
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                int separator = line.indexOf(',');
+                if (separator <= 0) {
+                    throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
+                }
+                long sequence;
+                try {
+                    sequence = Long.parseLong(line.substring(0, separator));
+                } catch (NumberFormatException e) {
+                    throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
+                }
+                records.add(new Record(sequence, decoder.decode(line, separator + 1, line.length())));
+            } catch (PillException e) {
+                PillException.printException(e);
+            }
+        }
+    }
+
+    private void writeBucket(int bucket, ItemMap itemMap, boolean force) throws IOException {
+        File file = bucketFile(bucket);
+        Set<String> names = bucketNames.get(bucket);
+        if (names.isEmpty()) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not delete " + file);
+            }
+            return;
+        }
+
+        List<String> ordered = new ArrayList<>(names);
+        ordered.sort((a, b) -> Long.compare(sequences.get(a), sequences.get(b)));
+        StringBuilder sb = new StringBuilder();
+        for (String name : ordered) {
+            long sequence = sequences.get(name);
+            for (Item item : itemMap.get(name)) {
+                sb.append(sequence).append(',').append(CsvSnapshotWriter.formatLine(item))
+                        .append(System.lineSeparator());
+            }
+        }
+        CsvSnapshotWriter.writeAtomically(file, sb.toString().getBytes(StandardCharsets.UTF_8), force);
+    }
+
+    private void track(String name) {
+        sequences.put(name, nextSequence++);
+        bucketNames.get(bucketOf(name)).add(name);
+    }
+
+    private static boolean isPresent(ItemMap itemMap, String name) {
+        TreeSet<Item> itemSet = itemMap.items.get(name);
+        return itemSet != null && !itemSet.isEmpty();
+    }
+
+    int bucketOf(String name) {
+        return Math.floorMod(name.hashCode(), bucketCount);
+    }
+
+    File bucketFile(int bucket) {
+        return new File(directory, String.format("%s%02d%s", BUCKET_PREFIX, bucket, BUCKET_SUFFIX));
+    }
+
+    private static class Record {
+        private final long sequence;
+        private final Item item;
+
+        private Record(long sequence, Item item) {
+            this.sequence = sequence;
+            this.item = item;
+        }
+    }
+}
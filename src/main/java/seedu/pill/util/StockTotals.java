@@ -0,0 +1,104 @@
+package seedu.pill.util;
+
+/**
+ * Holds the running totals of a group of batches: the quantity in stock, the value of that stock at cost,
+ * and its value at the retail price. Values are kept in whole cents, with the unit cost and price of each
+ * batch rounded half up to cents, so that adding and removing batches never accumulates rounding errors.
+ *
+ * <p>{@link ItemMap} keeps one instance per item name and one for the whole inventory, and updates them on
+ * every change. The instances handed out by {@link ItemMap} are copies and do not change afterwards.</p>
+ */
+public final class StockTotals {
+    static final StockTotals EMPTY = new StockTotals();
+
+    private long quantity;
+    private long costValueCents;
+    private long retailValueCents;
+    private int batchCount;
+
+    StockTotals() {
+    }
+
+    private StockTotals(StockTotals other) {
+        this.quantity = other.quantity;
+        this.costValueCents = other.costValueCents;
+        this.retailValueCents = other.retailValueCents;
+        this.batchCount = other.batchCount;
+    }
+
+    /**
+     * Adds a batch to the totals, or removes it when the sign is negative.
+     *
+     * @param batch The batch to count.
+     * @param sign  1 to add the batch, -1 to remove it.
+     */
+    void add(Item batch, int sign) {
+        long batchQuantity = batch.getQuantity();
+        quantity += sign * batchQuantity;
+        costValueCents += sign * batchQuantity * batch.getCostCents();
+        retailValueCents += sign * batchQuantity * batch.getPriceCents();
+        batchCount += sign;
+    }
+
+    /**
+     * Adds the totals of another group of batches to these totals.
+     *
+     * @param other The totals to add.
+     */
+    void add(StockTotals other) {
+        quantity += other.quantity;
+        costValueCents += other.costValueCents;
+        retailValueCents += other.retailValueCents;
+        batchCount += other.batchCount;
+    }
+
+    /**
+     * Removes the totals of a group of batches that were added to these totals.
+     *
+     * @param other The totals to remove.
+     */
+    void subtract(StockTotals other) {
+        quantity -= other.quantity;
+        costValueCents -= other.costValueCents;
+        retailValueCents -= other.retailValueCents;
+        batchCount -= other.batchCount;
+    }
+
+    boolean isEmpty() {
+        return batchCount == 0;
+    }
+
+    StockTotals copy() {
+        return new StockTotals(this);
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public long getCostValueCents() {
+        return costValueCents;
+    }
+
+    public long getRetailValueCents() {
+        return retailValueCents;
+    }
+
+    public double getCostValue() {
+        return costValueCents / 100.0;
+    }
+
+    public double getRetailValue() {
+        return retailValueCents / 100.0;
+    }
+
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "quantity: " + quantity + ", cost value: $" + Item.formatCents(costValueCents)
+                + ", retail value: $" + Item.formatCents(retailValueCents);
+    }
+}
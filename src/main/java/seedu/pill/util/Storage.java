@@ -4,27 +4,177 @@ import seedu.pill.exceptions.ExceptionMessages;
 import seedu.pill.exceptions.PillException;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.Scanner;
-import java.util.TreeSet;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Logger;
 
 /**
  * The Storage class handles the storage of ItemMap objects
  * in a file-based system, allowing for saving items and lists
  * of items to a specified text file.
+ *
+ * <p>In {@link Mode#JOURNALED} mode, saves only append the changed items to a journal, which is
+ * folded back into the snapshot file once it grows past {@link #COMPACTION_THRESHOLD} records.</p>
+ *
+ * <p>In {@link Mode#SHARDED} mode, the items are spread over bucket files by a hash of their name, and saves
+ * only rewrite the buckets holding names changed since the last save. A sharded storage without bucket files
+ * yet loads the snapshot file, so existing data is migrated by the first save.</p>
+ *
+ * <p>In {@link Mode#MAPPED} mode, the items are kept as fixed-width records in a memory-mapped
+ * {@link MappedSegmentStore}, and saves rewrite the records of changed names in place. Data that has not been
+ * saved in this mode yet is migrated from the snapshot file the same way.</p>
+ *
+ * <p>The snapshot is kept as CSV in {@code pill.txt} or, with {@link Format#BINARY}, as a {@link BinarySnapshot}
+ * in {@code pill.bin}. A binary storage without a binary snapshot yet loads the CSV file, so existing data
+ * is migrated by the first save, which then deletes the CSV file.</p>
+ *
+ * <p>Saves are handed to a {@link PersistenceScheduler}, so when they actually reach the disk
+ * depends on the {@link PersistenceScheduler.Durability} the storage was created with.</p>
  */
 public class Storage {
+    static final int COMPACTION_THRESHOLD = 1000;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final ThreadLocal<CsvRecordDecoder> DECODER = ThreadLocal.withInitial(CsvRecordDecoder::new);
     private static final String PATH = "./data/";
     private static final String FILE_NAME = "pill.txt";
-    private static final String SEPARATOR = ",";
+    private static final String BINARY_FILE_NAME = "pill.bin";
+    private static final String JOURNAL_FILE_NAME = "pill.journal";
+    private static final String TRANSACTION_LOG_DIRECTORY = "transactions";
+    private static final String SHARD_DIRECTORY = "shards";
+    private static final String SEGMENT_FILE_NAME = "pill.seg";
+    private static final String SEGMENT_NAMES_FILE_NAME = "pill.names";
+
+    private final String path;
+    private final Mode mode;
+    private final Format format;
+    private final BinarySnapshot binarySnapshot;
+    private final ParallelCsvLoader csvLoader;
+    private final CsvSnapshotWriter csvWriter;
+    private final Journal journal;
+    private final ShardedStore shardedStore;
+    private final MappedSegmentStore segmentStore;
+    private final PersistenceScheduler scheduler;
+    private ItemMap trackedItemMap;
+    private TransactionLog transactionLog;
+
+    /**
+     * Defines how changes to the inventory are written to disk.
+     * SNAPSHOT  - every save rewrites the whole snapshot file.
+     * JOURNALED - every save appends the changed items to a journal, which is periodically compacted.
+     * SHARDED   - every save rewrites only the bucket files holding changed items.
+     * MAPPED    - every save rewrites the records of changed items in place, in a memory-mapped file.
+     */
+    public enum Mode {
+        SNAPSHOT,
+        JOURNALED,
+        SHARDED,
+        MAPPED
+    }
+
+    /**
+     * Defines how the snapshot file is encoded.
+     * CSV    - one comma separated line per batch in {@code pill.txt}.
+     * BINARY - a {@link BinarySnapshot} in {@code pill.bin}, falling back to {@code pill.txt} when loading
+     *          data that has not been migrated yet. The CSV file is deleted once the data is migrated.
+     */
+    public enum Format {
+        CSV,
+        BINARY
+    }
 
-    private static String escapeCommas(String input) {
-        return input.replace(",", "\\,");
+    /**
+     * Creates a storage that rewrites the snapshot file under {@code ./data/} on every save.
+     */
+    public Storage() {
+        this(builder());
+    }
+
+    private Storage(Builder builder) {
+        this.path = builder.path;
+        this.mode = builder.mode;
+        this.format = builder.format;
+        this.binarySnapshot = new BinarySnapshot(new File(builder.path, BINARY_FILE_NAME));
+        this.csvLoader = new ParallelCsvLoader();
+        this.csvWriter = new CsvSnapshotWriter();
+        this.journal = new Journal(new File(builder.path, JOURNAL_FILE_NAME));
+        this.shardedStore = new ShardedStore(new File(builder.path, SHARD_DIRECTORY));
+        this.segmentStore = new MappedSegmentStore(new File(builder.path, SEGMENT_FILE_NAME),
+                new File(builder.path, SEGMENT_NAMES_FILE_NAME));
+        this.scheduler = new PersistenceScheduler(builder.durability, this::writeItemMap);
+    }
+
+    /**
+     * Returns a builder for a storage. Unless configured otherwise, the storage keeps its files under
+     * {@code ./data/}, rewrites the CSV snapshot on every save and writes every save to disk immediately.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Configures a {@link Storage}.
+     */
+    public static class Builder {
+        private String path = PATH;
+        private Mode mode = Mode.SNAPSHOT;
+        private PersistenceScheduler.Durability durability = PersistenceScheduler.Durability.SYNC;
+        private Format format = Format.CSV;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the directory holding the data files.
+         *
+         * @param path The directory.
+         * @return This builder.
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Sets the way changes are written to disk.
+         *
+         * @param mode The storage mode.
+         * @return This builder.
+         */
+        public Builder mode(Mode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Sets how soon saves are written to disk.
+         *
+         * @param durability The durability level.
+         * @return This builder.
+         */
+        public Builder durability(PersistenceScheduler.Durability durability) {
+            this.durability = durability;
+            return this;
+        }
+
+        /**
+         * Sets the encoding of the snapshot file.
+         *
+         * @param format The snapshot format.
+         * @return This builder.
+         */
+        public Builder format(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        public Storage build() {
+            return new Storage(this);
+        }
     }
 
     private static String unescapeCommas(String input) {
@@ -33,62 +183,237 @@ public class Storage {
 
     /**
      * Initializes the storage file and creates the necessary
-     * directories if they do not exist.
+     * directories if they do not exist. The CSV file is only created if the snapshot is kept as CSV.
      *
-     * @return The File object representing the storage file.
+     * @return The File object representing the CSV storage file.
      * @throws IOException if an I/O error occurs during file creation.
      */
-    private static File initializeFile() throws IOException {
-        File dir = new File(PATH);
+    private File initializeFile() throws IOException {
+        File dir = new File(path);
         if (!dir.exists()) {
             dir.mkdirs();
         }
         assert dir.isDirectory();
 
         File items = new File(dir, FILE_NAME);
-        if (!items.exists()) {
+        if (format == Format.CSV && !items.exists()) {
             items.createNewFile();
         }
-        assert items.isFile();
+        assert format != Format.CSV || items.isFile();
 
         return items;
     }
 
     /**
-     * Saves the provided ItemMap to the storage file, overwriting
-     * existing content.
+     * Formats an item as a single line of the snapshot file, without the line separator.
+     *
+     * @param item The item to format.
+     * @return The comma separated representation of the item.
+     */
+    private static String formatLine(Item item) {
+        return CsvSnapshotWriter.formatLine(item);
+    }
+
+    /**
+     * Saves the provided ItemMap to storage. Depending on the durability level, the write may be
+     * deferred and coalesced with later saves.
+     *
+     * <p>In {@link Mode#SNAPSHOT} mode the snapshot file is overwritten. In {@link Mode#JOURNALED} mode
+     * only the items changed since the last save are appended to the journal, unless the journal is due
+     * for compaction or the map was not loaded from or saved to this storage before. In {@link Mode#SHARDED}
+     * mode only the buckets holding changed items are rewritten, and in {@link Mode#MAPPED} mode only their
+     * records, under the same condition.</p>
      *
      * @param itemMap The {@link ItemMap} containing items to be saved.
      * @throws PillException if an error occurs during the saving process.
      */
     public void saveItemMap(ItemMap itemMap) throws PillException {
+        scheduler.requestSave(itemMap);
+    }
+
+    /**
+     * Saves an inventory shared by several terminals. Like {@link #saveItemMap}, the write may be deferred and
+     * coalesced with later saves, and when it happens the latest {@link InventorySnapshot} of the inventory is
+     * written in full, so in {@link Mode#JOURNALED} mode every write compacts the journal.
+     *
+     * @param inventory The inventory to save.
+     * @throws PillException if an error occurs during the saving process.
+     */
+    public void saveInventory(StripedInventory inventory) throws PillException {
+        scheduler.requestSave(inventory, inventory::toItemMap);
+    }
+
+    /**
+     * Starts a group of saves that are written to disk together when {@link #endBatch()} is called.
+     */
+    public void beginBatch() {
+        scheduler.beginBatch();
+    }
+
+    /**
+     * Ends a group of saves started with {@link #beginBatch()}.
+     *
+     * @throws PillException if an error occurs during the saving process.
+     */
+    public void endBatch() throws PillException {
+        scheduler.endBatch();
+    }
+
+    /**
+     * Runs the given action while no deferred save can be written in the background.
+     * Changes to the inventory should be made through this method when saves are deferred.
+     *
+     * @param action The action to run.
+     */
+    public void runExclusive(Runnable action) {
+        scheduler.runExclusive(action);
+    }
+
+    /**
+     * Opens the transaction log kept alongside the inventory. Appends to the log are forced to disk
+     * when the storage uses {@link PersistenceScheduler.Durability#SYNC}.
+     *
+     * @return The transaction log, which is closed together with this storage.
+     * @throws PillException if the existing log cannot be read.
+     */
+    public TransactionLog openTransactionLog() throws PillException {
+        if (transactionLog == null) {
+            boolean force = scheduler.getDurability() == PersistenceScheduler.Durability.SYNC;
+            transactionLog = new TransactionLog(new File(path, TRANSACTION_LOG_DIRECTORY), force);
+        }
+        return transactionLog;
+    }
+
+    /**
+     * Writes any deferred save to disk and stops background saving.
+     *
+     * @throws PillException if an error occurs during the saving process.
+     */
+    public void close() throws PillException {
+        if (transactionLog != null) {
+            transactionLog.close();
+        }
+        scheduler.close();
         try {
-            File file = initializeFile();
-            FileWriter fw = new FileWriter(file);
+            segmentStore.close();
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+    }
 
-            for (String itemName : itemMap.items.keySet()) {
-                TreeSet<Item> itemSet = itemMap.items.get(itemName);
-                for (Item item : itemSet) {
-                    fw.write(escapeCommas(item.getName()) + SEPARATOR + item.getQuantity());
+    private void writeItemMap(ItemMap itemMap, boolean force) throws PillException {
+        if (mode == Mode.SNAPSHOT) {
+            writeSnapshot(itemMap, force);
+            return;
+        }
+        if (mode == Mode.SHARDED) {
+            writeShards(itemMap, force);
+            return;
+        }
+        if (mode == Mode.MAPPED) {
+            writeSegment(itemMap, force);
+            return;
+        }
 
-                    fw.write(SEPARATOR + escapeCommas(item.getExpiryDate().map(LocalDate::toString).orElse("")));
-                    fw.write(SEPARATOR + escapeCommas(item.getCost() > 0 ?
-                            String.format("%.2f", item.getCost()) : ""));
-                    fw.write(SEPARATOR + escapeCommas((item.getPrice() > 0 ?
-                            String.format("%.2f", item.getPrice()) : "")));
+        if (itemMap != trackedItemMap || journal.getRecordCount() >= COMPACTION_THRESHOLD) {
+            compact(itemMap, force);
+            return;
+        }
 
-                    fw.write(System.lineSeparator());
-                }
+        List<String> records = new ArrayList<>();
+        for (String itemName : itemMap.drainDirtyNames()) {
+            records.add(Journal.REMOVE + itemName);
+            for (Item item : itemMap.get(itemName)) {
+                records.add(Journal.PUT + formatLine(item));
             }
+        }
+        try {
+            initializeFile();
+            journal.append(records, force);
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+    }
 
-            fw.close();
+    private void writeShards(ItemMap itemMap, boolean force) throws PillException {
+        try {
+            if (itemMap != trackedItemMap) {
+                itemMap.drainDirtyNames();
+                shardedStore.writeAll(itemMap, force);
+                trackedItemMap = itemMap;
+            } else {
+                shardedStore.writeDirty(itemMap, itemMap.drainDirtyNames(), force);
+            }
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+    }
+
+    private void writeSegment(ItemMap itemMap, boolean force) throws PillException {
+        try {
+            initializeFile();
+            if (itemMap != trackedItemMap) {
+                itemMap.drainDirtyNames();
+                segmentStore.writeAll(itemMap, force);
+                trackedItemMap = itemMap;
+            } else {
+                segmentStore.writeDirty(itemMap, itemMap.drainDirtyNames(), force);
+            }
         } catch (IOException e) {
             throw new PillException(ExceptionMessages.SAVE_ERROR);
         }
     }
 
     /**
-     * Appends a single item to the storage file.
+     * Folds the journal into the snapshot file: rewrites the snapshot from the given map and empties
+     * the journal. Changes saved afterwards are journaled relative to this map.
+     *
+     * @param itemMap The {@link ItemMap} holding the current state of the inventory.
+     * @throws PillException if an error occurs during the saving process.
+     */
+    public void compact(ItemMap itemMap) throws PillException {
+        scheduler.flush();
+        compact(itemMap, scheduler.getDurability() == PersistenceScheduler.Durability.SYNC);
+    }
+
+    private void compact(ItemMap itemMap, boolean force) throws PillException {
+        writeSnapshot(itemMap, force);
+        try {
+            journal.truncate();
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+        itemMap.drainDirtyNames();
+        trackedItemMap = itemMap;
+        LOGGER.info("Compacted journal into snapshot");
+    }
+
+    /**
+     * Replaces the snapshot file with the provided ItemMap. The CSV snapshot is written to a temporary
+     * file first and renamed over the old one, so an interrupted save never leaves a truncated snapshot.
+     *
+     * @param itemMap The {@link ItemMap} containing items to be saved.
+     * @param force   Whether to force the written data to the storage device before returning.
+     * @throws PillException if an error occurs during the saving process.
+     */
+    private void writeSnapshot(ItemMap itemMap, boolean force) throws PillException {
+        try {
+            File file = initializeFile();
+            if (format == Format.BINARY) {
+                binarySnapshot.write(itemMap, force);
+                // The CSV file was migrated into the binary snapshot, and would only hold stale data from now on
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            csvWriter.write(file, itemMap, force);
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+    }
+
+    /**
+     * Appends a single item to the storage file, to the journal in {@link Mode#JOURNALED} mode, to the
+     * bucket of its name in {@link Mode#SHARDED} mode, or to a free record in {@link Mode#MAPPED} mode.
      *
      * @param item The {@link Item} to be saved.
      * @throws PillException if an error occurs during the saving process.
@@ -96,44 +421,75 @@ public class Storage {
     public void saveItem(Item item) throws PillException {
         try {
             File file = initializeFile();
-            FileWriter fw = new FileWriter(file, true);
-            fw.write(escapeCommas(item.getName()) + SEPARATOR + item.getQuantity());
-
-            fw.write(SEPARATOR + escapeCommas(item.getExpiryDate().map(LocalDate::toString).orElse("")));
-            fw.write(SEPARATOR + escapeCommas(item.getCost() > 0 ?
-                    String.format("%.2f", item.getCost()) : ""));
-            fw.write(SEPARATOR + escapeCommas((item.getPrice() > 0 ?
-                    String.format("%.2f", item.getPrice()) : "")));
-
-            fw.write(System.lineSeparator());
-            fw.close();
+            if (mode == Mode.JOURNALED) {
+                journal.append(List.of(Journal.PUT + formatLine(item)), false);
+                return;
+            }
+            if (mode == Mode.SHARDED) {
+                shardedStore.append(item);
+                return;
+            }
+            if (mode == Mode.MAPPED) {
+                segmentStore.append(item);
+                return;
+            }
+            if (format == Format.BINARY) {
+                binarySnapshot.append(item);
+                return;
+            }
+            csvWriter.append(file, item);
         } catch (IOException e) {
             throw new PillException(ExceptionMessages.SAVE_ERROR);
         }
     }
 
     /**
-     * Loads saved CSV data into an ItemMap
+     * Loads saved data into an ItemMap, from the binary snapshot if the storage uses one and it exists,
+     * or from the CSV file otherwise. Large CSV files are parsed in parallel by a {@link ParallelCsvLoader}.
+     * In {@link Mode#JOURNALED} mode, the committed journal records are replayed on top of the snapshot.
+     * In {@link Mode#SHARDED} mode the bucket files are read instead, if they exist, and in {@link Mode#MAPPED}
+     * mode the memory-mapped records.
      *
      * @return The ItemMap containing saved items
+     * @throws PillException if the saved data cannot be read.
      */
-    public ItemMap loadData() {
+    public ItemMap loadData() throws PillException {
         ItemMap loadedItems = new ItemMap();
+        loadedItems.holdSnapshots();
         try {
             File file = initializeFile();
-            Scanner scanner = new Scanner(file);
-            while (scanner.hasNextLine()) {
-                try {
-                    String line = scanner.nextLine();
-                    Item item = loadLine(line);
-                    loadedItems.addItemSilent(item);
-                } catch (PillException e) {
-                    PillException.printException(e);
-                }
+            if (mode == Mode.SHARDED && shardedStore.exists()) {
+                shardedStore.read(loadedItems);
+                loadedItems.drainDirtyNames();
+                trackedItemMap = loadedItems;
+                return loadedItems;
+            }
+            if (mode == Mode.MAPPED && segmentStore.exists()) {
+                segmentStore.read(loadedItems);
+                loadedItems.drainDirtyNames();
+                trackedItemMap = loadedItems;
+                return loadedItems;
+            }
+
+            // Without its own files, a sharded or mapped storage loads the snapshot and rewrites them on the first save
+            boolean isMigrating = format == Format.BINARY && !binarySnapshot.exists();
+            if (!isMigrating && format == Format.BINARY) {
+                binarySnapshot.read(loadedItems);
+            } else if (file.exists()) {
+                csvLoader.load(file, loadedItems);
+            }
+
+            if (mode == Mode.JOURNALED) {
+                journal.replay(this, loadedItems);
+                loadedItems.drainDirtyNames();
+                // Data loaded from the CSV file is written as a binary snapshot by the first save
+                trackedItemMap = isMigrating ? null : loadedItems;
             }
-            scanner.close();
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            LOGGER.severe("Failed to load saved data: " + e.getMessage());
+            throw new PillException(ExceptionMessages.LOAD_ERROR);
+        } finally {
+            loadedItems.releaseSnapshots();
         }
         return loadedItems;
     }
@@ -145,54 +501,6 @@ public class Storage {
      * @throws PillException if format of saved data is incorrect
      */
     public Item loadLine(String line) throws PillException {
-        Item item;
-        List<String> data = new ArrayList<>();
-        StringBuilder currentField = new StringBuilder();
-
-        int unescapedCommaCount = 0;
-        boolean inEscape = false;
-
-        // Loop through each character in the line
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == '\\' && !inEscape) {
-                inEscape = true;
-            } else if (c == ',' && !inEscape) {
-                unescapedCommaCount++;
-                if (unescapedCommaCount > 4) {
-                    throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
-                }
-
-                data.add(currentField.toString());
-                currentField.setLength(0); // Clear current field
-            } else {
-                currentField.append(c);
-                inEscape = false;
-            }
-        }
-
-        // Add the last field
-        data.add(currentField.toString());
-
-        // Parse fields as before, handling potential exceptions
-        try {
-            String name = data.get(0); // Already unescaped
-            int quantity = Integer.parseInt(data.get(1));
-            LocalDate expiryDate = data.size() > 2 && !data.get(2).isEmpty() ? LocalDate.parse(data.get(2)) : null;
-            double cost = data.size() > 3 && !data.get(3).isEmpty() ? Double.parseDouble(data.get(3)) : 0;
-            double price = data.size() > 4 && !data.get(4).isEmpty() ? Double.parseDouble(data.get(4)) : 0;
-
-            item = new Item(name, quantity, expiryDate, cost, price);
-        } catch (NumberFormatException e) {
-            throw new PillException(ExceptionMessages.INVALID_QUANTITY_FORMAT);
-        } catch (DateTimeParseException e) {
-            throw new PillException(ExceptionMessages.PARSE_DATE_ERROR);
-        } catch (IndexOutOfBoundsException e) {
-            throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
-        }
-
-        return item;
+        return DECODER.get().decode(line);
     }
-
 }
@@ -8,6 +8,10 @@ import java.util.List;
  * which is particularly useful for command suggestions and error handling.
  */
 public class StringMatcher {
+    /** The largest number of edits for a string to be suggested as a match. */
+    public static final int MAX_SUGGESTION_DISTANCE = 2;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
     /**
      * Calculates the Levenshtein distance between two strings.
@@ -19,33 +23,92 @@ public class StringMatcher {
      * @return   - The minimum number of edits needed to transform s1 into s2
      */
     public static int levenshteinDistance(String s1, String s2) {
-        // Create a matrix with one extra row and column for empty string comparisons
-        // dp[i][j] will store the distance between the first i characters of s1 and the first j characters of s2
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        // The distance never exceeds the length of the longer string, so this bound keeps every cell
+        return levenshteinDistance(s1, s2, Math.max(s1.length(), s2.length()));
+    }
 
-        for (int i = 0; i <= s1.length(); i++) {
-            for (int j = 0; j <= s2.length(); j++) {
-                if (i == 0) {
-                    // If first string is empty, the only option is to insert all characters of second string
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    // If second string is empty, the only option is to delete all characters of first string
-                    dp[i][j] = i;
-                } else {
-                    // Calculate minimum cost for current position using three possible operations:
-                    dp[i][j] = min(
-                        // Substitution (or no change if characters are same)
-                        dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1),
-                        // Deletion from s1
-                        dp[i - 1][j] + 1,
-                        // Insertion into s1
-                        dp[i][j - 1] + 1);
-                }
+    /**
+     * Calculates the Levenshtein distance between two strings, giving up once it is known to exceed
+     * the given limit.
+     *
+     * <p>Only the two most recent rows of the edit matrix are kept, in buffers reused by each thread, so no
+     * memory is allocated once the buffers are large enough. A cell more than {@code maxDistance} columns
+     * away from the diagonal always holds a distance above the limit, so each row is only computed within
+     * that band, and the comparison stops as soon as a whole row is above the limit.</p>
+     *
+     * @param s1          - The first string to compare
+     * @param s2          - The second string to compare
+     * @param maxDistance - The largest distance the caller is interested in
+     * @return            - The distance between the strings if it is at most {@code maxDistance},
+     *                      or {@code maxDistance + 1} otherwise
+     */
+    public static int levenshteinDistance(String s1, String s2, int maxDistance) {
+        int m = s1.length();
+        int n = s2.length();
+        int overLimit = maxDistance + 1;
+        if (maxDistance < 0 || Math.abs(m - n) > maxDistance) {
+            return Math.max(overLimit, 0);
+        }
+
+        Scratch scratch = SCRATCH.get().ensureCapacity(n + 1);
+        int[] previous = scratch.previous;
+        int[] current = scratch.current;
+
+        // Row 0: turning an empty prefix of s1 into the first j characters of s2 takes j insertions
+        for (int j = 0; j <= Math.min(n, maxDistance); j++) {
+            previous[j] = j;
+        }
+        if (maxDistance < n) {
+            previous[maxDistance + 1] = overLimit;
+        }
+
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(n, i + maxDistance);
+            // The cell left of the band is either the empty prefix of s2 or outside the band
+            current[from - 1] = from == 1 ? i : overLimit;
+            int rowMin = current[from - 1];
+            char c1 = s1.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int distance = min(
+                    // Substitution (or no change if characters are same)
+                    previous[j - 1] + (c1 == s2.charAt(j - 1) ? 0 : 1),
+                    // Deletion from s1
+                    previous[j] + 1,
+                    // Insertion into s1
+                    current[j - 1] + 1);
+                current[j] = Math.min(distance, overLimit);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < n) {
+                // The next row reads one cell further right, which is outside this row's band
+                current[to + 1] = overLimit;
             }
+            if (rowMin > maxDistance) {
+                return overLimit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
         }
+        return previous[n];
+    }
 
-        // Return the final distance between the complete strings
-        return dp[s1.length()][s2.length()];
+    /**
+     * The two rows of the edit matrix, kept per thread and grown as longer strings are compared.
+     */
+    private static class Scratch {
+        private int[] previous = new int[32];
+        private int[] current = new int[32];
+
+        private Scratch ensureCapacity(int length) {
+            if (previous.length < length) {
+                int capacity = Math.max(length, previous.length * 2);
+                previous = new int[capacity];
+                current = new int[capacity];
+            }
+            return this;
+        }
     }
 
     /**
@@ -73,13 +136,18 @@ public class StringMatcher {
      */
     public static String findClosestMatch(String input, List<String> validStrings) {
         String closestMatch = null;
-        int minDistance = Integer.MAX_VALUE;
+        String lowerInput = input.toLowerCase();
+        // Only a distance below the best one so far can replace it
+        int limit = MAX_SUGGESTION_DISTANCE;
 
         for (String valid : validStrings) {
-            int distance = levenshteinDistance(input.toLowerCase(), valid.toLowerCase());
-            if (distance < minDistance && distance <= 2) {  // Allow up to 2 edits
-                minDistance = distance;
+            int distance = levenshteinDistance(lowerInput, valid.toLowerCase(), limit);
+            if (distance <= limit) {
                 closestMatch = valid;
+                limit = distance - 1;
+                if (limit < 0) {
+                    break;
+                }
             }
         }
 
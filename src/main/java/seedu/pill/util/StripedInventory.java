@@ -0,0 +1,240 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * The stock shared by several terminals dispensing at once through one {@link TransactionManager}. It is not a
+ * replacement for {@link ItemMap}: the commands work on an {@code ItemMap}, which hands out its batches for
+ * them to change in place, while this only offers the few operations a shared manager needs, and returns
+ * copies.
+ *
+ * <p>Names are spread over a fixed number of stripes by the hash of their {@link ItemKey}. Each stripe holds
+ * its names in an {@link ItemMap} guarded by its own lock, so writers to names in different stripes never wait
+ * for each other, and a writer only ever holds one lock.</p>
+ *
+ * <p>Reads take no lock at all. Every write publishes a new {@link InventorySnapshot}, made from the previous
+ * one by replacing the entry of the name it changed, and every query, whether about one name or the whole
+ * inventory, is answered from the latest snapshot. Readers therefore see one consistent state and never make
+ * writers wait. Items returned by queries are copies, which later writes do not change.</p>
+ */
+public class StripedInventory {
+    /** The number of stripes used by {@link #StripedInventory()}. */
+    public static final int DEFAULT_STRIPES = 16;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+
+    private final Stripe[] stripes;
+    private final Map<ItemKey, Long> nameSequences = new ConcurrentHashMap<>();
+    private final AtomicLong nextNameSequence = new AtomicLong();
+    private final AtomicReference<InventorySnapshot> published = new AtomicReference<>(InventorySnapshot.EMPTY);
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ItemMap items = new ItemMap(false);
+    }
+
+    public StripedInventory() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an empty inventory with the given number of stripes.
+     *
+     * @param stripeCount The number of stripes, which bounds the number of writers that can run at once.
+     */
+    public StripedInventory(int stripeCount) {
+        assert stripeCount > 0 : "Stripe count must be positive";
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        LOGGER.info("New StripedInventory created with " + stripeCount + " stripes");
+    }
+
+    /**
+     * Creates an inventory holding copies of the batches of the given map, with names in the same order.
+     *
+     * @param itemMap The map to copy.
+     * @return The new inventory.
+     */
+    public static StripedInventory of(ItemMap itemMap) {
+        StripedInventory concurrent = new StripedInventory();
+        for (Map.Entry<String, TreeSet<Item>> entry : itemMap) {
+            for (Item item : entry.getValue()) {
+                concurrent.addItem(item.copy());
+            }
+        }
+        return concurrent;
+    }
+
+    /**
+     * Adds a batch, or adds its quantity to the batch of the same name and expiry date. Does not print any
+     * output.
+     *
+     * @param item The batch to add.
+     */
+    public void addItem(Item item) {
+        ItemKey key = item.getKey();
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            stripe.items.addItemSilent(item);
+            TreeSet<Item> batches = stripe.items.get(key.name());
+            if (!batches.isEmpty()) {
+                long sequence = nameSequences.computeIfAbsent(key, newKey -> nextNameSequence.getAndIncrement());
+                publish(sequence, batches);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Uses a quantity of an item, earliest expiring batches first, as one atomic change. Does not print any
+     * output.
+     *
+     * @param itemName      The name of the item to use.
+     * @param quantityToUse The quantity to use.
+     * @return The quantity taken from each batch, earliest expiring first.
+     * @throws PillException if there is not enough stock of the item, in which case nothing is used.
+     */
+    public Allocation useItem(String itemName, int quantityToUse) throws PillException {
+        ItemKey key = ItemKey.lookup(itemName);
+        if (key == null) {
+            // A name without a key has no stock, and must not be interned just because it was asked for
+            if (quantityToUse > 0) {
+                throw new PillException(ExceptionMessages.STOCK_UNDERFLOW);
+            }
+            return new Allocation(itemName.toLowerCase(), List.of());
+        }
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Allocation allocation = stripe.items.useItemSilent(key.name(), quantityToUse);
+            TreeSet<Item> batches = stripe.items.get(key.name());
+            Long sequence = nameSequences.get(key);
+            if (sequence != null && !allocation.getLines().isEmpty()) {
+                publish(sequence, batches);
+            }
+            if (batches.isEmpty()) {
+                nameSequences.remove(key);
+            }
+            return allocation;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total quantity in stock of an item.
+     *
+     * @param itemName The name of the item, in any case.
+     * @return The quantity in stock, 0 if the item does not exist.
+     */
+    public int stockCount(String itemName) {
+        ItemKey key = ItemKey.lookup(itemName);
+        if (key == null) {
+            return 0;
+        }
+        return Math.toIntExact(getStockTotals(key).getQuantity());
+    }
+
+    /**
+     * Returns the quantity in stock and the cost and retail value of that stock for an item.
+     *
+     * @param itemName The name of the item, in any case.
+     * @return The totals of the item, all zero if the item does not exist.
+     */
+    public StockTotals getStockTotals(String itemName) {
+        ItemKey key = ItemKey.lookup(itemName);
+        return key == null ? StockTotals.EMPTY : getStockTotals(key);
+    }
+
+    /**
+     * Returns copies of the batches of an item, earliest expiring first.
+     *
+     * @param itemName The name of the item, in any case.
+     * @return The batches of the item, or an empty list if it does not exist.
+     */
+    public List<Item> getItemsByName(String itemName) {
+        ItemKey key = ItemKey.lookup(itemName);
+        Long sequence = key == null ? null : nameSequences.get(key);
+        return sequence == null ? List.of() : snapshot().getBatches(sequence);
+    }
+
+    /**
+     * Returns the quantity in stock and the cost and retail value of that stock for the whole inventory.
+     *
+     * @return The totals of the inventory.
+     */
+    public StockTotals getInventoryTotals() {
+        return snapshot().getInventoryTotals();
+    }
+
+    /**
+     * Returns copies of every batch, in an {@link ItemMap} with names in the order they were first added, for
+     * listing or saving the inventory.
+     *
+     * @return A map of the current batches.
+     */
+    public ItemMap toItemMap() {
+        return snapshot().toItemMap();
+    }
+
+    /**
+     * Returns copies of the batches expiring before the given date, in an {@link ItemMap} with names in the
+     * order they were first added.
+     *
+     * @param cutOffDate The date before which batches count as expiring.
+     * @return A map of the expiring batches.
+     */
+    public ItemMap getExpiringItems(LocalDate cutOffDate) {
+        return snapshot().getExpiringItems(cutOffDate);
+    }
+
+    /**
+     * Returns the snapshot published by the latest write, without taking any lock.
+     *
+     * @return The current snapshot of the inventory.
+     */
+    public InventorySnapshot snapshot() {
+        return published.get();
+    }
+
+    public boolean isEmpty() {
+        return nameSequences.isEmpty();
+    }
+
+    private StockTotals getStockTotals(ItemKey key) {
+        Long sequence = nameSequences.get(key);
+        return sequence == null ? StockTotals.EMPTY : snapshot().getTotals(sequence);
+    }
+
+    private Stripe stripeOf(ItemKey key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    /**
+     * Publishes a snapshot in which the name numbered {@code sequence} has the given batches. Called under the
+     * lock of the stripe of the name, so the snapshots of one name are published in the order of its
+     * writes. Writers to other stripes may publish at the same time, so the new snapshot is swapped in, and
+     * made again from the latest one if another writer got there first.
+     */
+    private void publish(long sequence, Collection<Item> batches) {
+        InventorySnapshot.Batches copies = new InventorySnapshot.Batches(batches);
+        published.updateAndGet(snapshot -> snapshot.with(sequence, copies).nextVersion());
+    }
+}
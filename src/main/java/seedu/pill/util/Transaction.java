@@ -1,6 +1,7 @@
 package seedu.pill.util;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -11,12 +12,14 @@ import java.util.UUID;
  */
 public class Transaction {
     private final UUID id;
+    private final ItemKey itemKey;
     private final String itemName;
     private final int quantity;
     private final TransactionType type;
     private final LocalDateTime timestamp;
     private final String notes;
     private final Order associatedOrder;
+    private final List<Allocation.Line> batchLines;
 
     /**
      * Defines the types of transactions possible in the system.
@@ -38,13 +41,64 @@ public class Transaction {
      * @param associatedOrder - The order associated with this transaction, if any (can be null)
      */
     public Transaction(String itemName, int quantity, TransactionType type, String notes, Order associatedOrder) {
-        this.id = UUID.randomUUID();
-        this.itemName = itemName;
+        this(itemName, quantity, type, notes, associatedOrder, List.of());
+    }
+
+    /**
+     * Creates a new Transaction that records the batches its items were taken from.
+     *
+     * @param itemName        - The name of the item involved in the transaction
+     * @param quantity        - The number of items involved in the transaction
+     * @param type            - The type of transaction (INCOMING or OUTGOING)
+     * @param notes           - Additional notes or comments about the transaction
+     * @param associatedOrder - The order associated with this transaction, if any (can be null)
+     * @param batchLines      - The quantity taken from each batch, earliest expiring first
+     */
+    Transaction(String itemName, int quantity, TransactionType type, String notes, Order associatedOrder,
+                List<Allocation.Line> batchLines) {
+        this(UUID.randomUUID(), itemName, quantity, type, LocalDateTime.now(), notes, associatedOrder, batchLines);
+    }
+
+    /**
+     * Restores a previously recorded Transaction that does not record the batches its items were taken from.
+     *
+     * @param id              - The unique identifier of the transaction
+     * @param itemName        - The name of the item involved in the transaction
+     * @param quantity        - The number of items involved in the transaction
+     * @param type            - The type of transaction (INCOMING or OUTGOING)
+     * @param timestamp       - The time the transaction was created
+     * @param notes           - Additional notes or comments about the transaction
+     * @param associatedOrder - The order associated with this transaction, if any (can be null)
+     */
+    Transaction(UUID id, String itemName, int quantity, TransactionType type, LocalDateTime timestamp,
+                String notes, Order associatedOrder) {
+        this(id, itemName, quantity, type, timestamp, notes, associatedOrder, List.of());
+    }
+
+    /**
+     * Restores a previously recorded Transaction with all of its details, such as one read back from a
+     * {@link TransactionLog}.
+     *
+     * @param id              - The unique identifier of the transaction
+     * @param itemName        - The name of the item involved in the transaction
+     * @param quantity        - The number of items involved in the transaction
+     * @param type            - The type of transaction (INCOMING or OUTGOING)
+     * @param timestamp       - The time the transaction was created
+     * @param notes           - Additional notes or comments about the transaction
+     * @param associatedOrder - The order associated with this transaction, if any (can be null)
+     * @param batchLines      - The quantity taken from each batch, earliest expiring first
+     */
+    Transaction(UUID id, String itemName, int quantity, TransactionType type, LocalDateTime timestamp,
+                String notes, Order associatedOrder, List<Allocation.Line> batchLines) {
+        this.id = id;
+        this.itemKey = ItemKey.of(itemName);
+        this.itemName = itemKey.share(itemName);
         this.quantity = quantity;
         this.type = type;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
         this.notes = notes;
         this.associatedOrder = associatedOrder;
+        this.batchLines = List.copyOf(batchLines);
     }
 
     /**
@@ -65,6 +119,15 @@ public class Transaction {
         return itemName;
     }
 
+    /**
+     * Gets the key of the item involved in this transaction, which is shared with every batch of the item.
+     *
+     * @return - The item key
+     */
+    public ItemKey getItemKey() {
+        return itemKey;
+    }
+
     /**
      * Gets the quantity of items involved in this transaction.
      *
@@ -110,6 +173,15 @@ public class Transaction {
         return associatedOrder;
     }
 
+    /**
+     * Gets the batches the items of this transaction were taken from, for outgoing transactions.
+     *
+     * @return - The quantity taken from each batch, earliest expiring first, or an empty list if not recorded
+     */
+    public List<Allocation.Line> getBatchLines() {
+        return batchLines;
+    }
+
     /**
      * Returns a string representation of this transaction, including timestamp,
      * type, quantity, item name, notes, and associated order ID (if any).
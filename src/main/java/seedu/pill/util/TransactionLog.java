@@ -0,0 +1,749 @@
+package seedu.pill.util;
+
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A durable, append-only store of transactions and orders, split into segment files.
+ *
+ * <p>Records are appended to the newest segment in the order they happen. Once a segment holds
+ * {@link #MAX_SEGMENT_RECORDS} records it is sealed and an index file is written next to it. The index keeps
+ * the segment's time span, a sparse timestamp index (one entry every {@link #SPARSE_INDEX_INTERVAL}
+ * transactions), the names of the items it mentions and the location of each order record. Only these
+ * summaries are kept in memory, so history queries read just the segments, and the parts of segments,
+ * that can contain matching records.</p>
+ *
+ * <p>An order is written again every time its status changes; the latest record wins.</p>
+ *
+ * <p>The log may be shared by several threads. Each append or query runs alone.</p>
+ */
+public class TransactionLog {
+    static final int MAX_SEGMENT_RECORDS = 10_000;
+    static final int SPARSE_INDEX_INTERVAL = 64;
+
+    private static final Logger LOGGER = PillLogger.getLogger();
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final char TRANSACTION = 'T';
+    private static final char ORDER = 'O';
+    private static final char ORDER_ITEM = 'I';
+    private static final char SEPARATOR = '\t';
+    private static final String NULL_FIELD = "\\N";
+
+    private final File directory;
+    private final boolean force;
+    private final List<Segment> segments;
+    private final Map<UUID, OrderLocation> orderIndex;
+    private FileOutputStream activeOut;
+
+    /**
+     * Opens the log stored in the given directory, reading the indexes of sealed segments and
+     * scanning the active segment. A record that was only partially written is cut off.
+     *
+     * @param directory The directory holding the segment files. It is created on the first append.
+     * @param force     Whether every append must be forced to the storage device before returning.
+     * @throws PillException if the existing segments cannot be read.
+     */
+    public TransactionLog(File directory, boolean force) throws PillException {
+        this.directory = directory;
+        this.force = force;
+        this.segments = new ArrayList<>();
+        this.orderIndex = new LinkedHashMap<>();
+
+        try {
+            open();
+        } catch (IOException e) {
+            LOGGER.severe("Failed to open transaction log: " + e.getMessage());
+            throw new PillException(ExceptionMessages.LOAD_ERROR);
+        }
+    }
+
+    /**
+     * Appends a transaction to the log.
+     *
+     * @param transaction The transaction to record.
+     * @throws PillException if the transaction cannot be written.
+     */
+    public synchronized void appendTransaction(Transaction transaction) throws PillException {
+        try {
+            Segment segment = activeSegment();
+            long offset = segment.length;
+            write(segment, encodeTransaction(transaction));
+            segment.addTransaction(transaction.getTimestamp(), transaction.getItemName(), offset);
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+    }
+
+    /**
+     * Appends the current state of an order to the log. Later records of the same order replace earlier ones.
+     *
+     * @param order The order to record.
+     * @throws PillException if the order cannot be written.
+     */
+    public synchronized void appendOrder(Order order) throws PillException {
+        try {
+            Segment segment = activeSegment();
+            long offset = segment.length;
+            write(segment, encodeOrder(order));
+            segment.orderOffsets.put(order.getId(), offset);
+            segment.recordCount++;
+            orderIndex.put(order.getId(), new OrderLocation(segment, offset));
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.SAVE_ERROR);
+        }
+    }
+
+    /**
+     * Reads every recorded transaction, oldest first.
+     *
+     * @return All transactions in the log.
+     * @throws PillException if the log cannot be read.
+     */
+    public synchronized List<Transaction> readAllTransactions() throws PillException {
+        List<Transaction> result = new ArrayList<>();
+        Map<UUID, Order> orders = new HashMap<>();
+        for (Segment segment : segments) {
+            readTransactions(segment, 0, null, null, null, orders, result);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the transactions that happened on or between the given dates, oldest first.
+     * Segments outside the range are skipped, and reading a segment starts from the nearest sparse index entry.
+     *
+     * @param start The first date of the range (inclusive).
+     * @param end   The last date of the range (inclusive).
+     * @return The transactions within the range.
+     * @throws PillException if the log cannot be read.
+     */
+    public synchronized List<Transaction> readTransactions(LocalDate start, LocalDate end) throws PillException {
+        List<Transaction> result = new ArrayList<>();
+        if (end.isBefore(start)) {
+            return result;
+        }
+        LocalDateTime from = start.atStartOfDay();
+        LocalDateTime until = end.plusDays(1).atStartOfDay();
+        Map<UUID, Order> orders = new HashMap<>();
+        for (Segment segment : segments) {
+            if (segment.overlaps(from, until)) {
+                readTransactions(segment, segment.seekOffset(from), from, until, null, orders, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the transactions involving the given item, oldest first.
+     * Only segments that mention the item are read.
+     *
+     * @param itemName The exact name of the item.
+     * @return The transactions involving the item.
+     * @throws PillException if the log cannot be read.
+     */
+    public synchronized List<Transaction> readItemTransactions(String itemName) throws PillException {
+        List<Transaction> result = new ArrayList<>();
+        Map<UUID, Order> orders = new HashMap<>();
+        for (Segment segment : segments) {
+            if (segment.itemNames.contains(itemName)) {
+                readTransactions(segment, 0, null, null, itemName, orders, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the latest state of every recorded order, in the order they were first recorded.
+     *
+     * @return All orders in the log.
+     * @throws PillException if the log cannot be read.
+     */
+    public synchronized List<Order> readOrders() throws PillException {
+        List<Order> result = new ArrayList<>();
+        for (UUID id : orderIndex.keySet()) {
+            result.add(readOrder(id));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids of every recorded order, in the order they were first recorded.
+     *
+     * @return A copy of the order ids.
+     */
+    public synchronized Set<UUID> getOrderIds() {
+        return new LinkedHashSet<>(orderIndex.keySet());
+    }
+
+    /**
+     * Reads the latest state of the order with the given id, using the order index.
+     *
+     * @param id The id of the order.
+     * @return The order, or null if no order with that id was recorded.
+     * @throws PillException if the log cannot be read.
+     */
+    public synchronized Order readOrder(UUID id) throws PillException {
+        OrderLocation location = orderIndex.get(id);
+        if (location == null) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>();
+        try {
+            forEachLine(location.segment.file, location.offset, (line, offset, isComplete) -> {
+                lines.add(line);
+                return lines.size() <= orderItemCount(lines.get(0));
+            });
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.LOAD_ERROR);
+        }
+        return decodeOrder(lines);
+    }
+
+    /**
+     * Closes the active segment. The log reopens it on the next append.
+     */
+    public synchronized void close() {
+        try {
+            if (activeOut != null) {
+                activeOut.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close transaction log: " + e.getMessage());
+        }
+        activeOut = null;
+    }
+
+    private void open() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX)
+                && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        TreeSet<Integer> numbers = new TreeSet<>();
+        for (File file : files) {
+            String number = file.getName().substring(SEGMENT_PREFIX.length(),
+                    file.getName().length() - SEGMENT_SUFFIX.length());
+            try {
+                numbers.add(Integer.parseInt(number));
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Ignoring unexpected file in transaction log: " + file.getName());
+            }
+        }
+
+        for (int number : numbers) {
+            Segment segment = new Segment(number, segmentFile(number));
+            boolean isActive = number == numbers.last();
+            if (isActive || !segment.loadIndex(indexFile(number))) {
+                scan(segment);
+                if (!isActive) {
+                    segment.writeIndex(indexFile(number));
+                }
+            }
+            segments.add(segment);
+            for (Map.Entry<UUID, Long> entry : segment.orderOffsets.entrySet()) {
+                orderIndex.put(entry.getKey(), new OrderLocation(segment, entry.getValue()));
+            }
+        }
+    }
+
+    private Segment activeSegment() throws IOException {
+        Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (active != null && active.recordCount >= MAX_SEGMENT_RECORDS) {
+            close();
+            active.writeIndex(indexFile(active.number));
+            LOGGER.info("Sealed transaction log segment " + active.number);
+            active = null;
+        }
+        if (active == null) {
+            directory.mkdirs();
+            int number = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).number + 1;
+            active = new Segment(number, segmentFile(number));
+            segments.add(active);
+        }
+        if (activeOut == null) {
+            activeOut = new FileOutputStream(active.file, true);
+        }
+        return active;
+    }
+
+    private void write(Segment segment, String record) throws IOException {
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        activeOut.write(bytes);
+        if (force) {
+            activeOut.getFD().sync();
+        }
+        segment.length += bytes.length;
+    }
+
+    private File segmentFile(int number) {
+        return new File(directory, String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private File indexFile(int number) {
+        return new File(directory, String.format("%s%06d%s", SEGMENT_PREFIX, number, INDEX_SUFFIX));
+    }
+
+    /**
+     * Rebuilds the summary of a segment from its records, and cuts off a trailing record that was only
+     * partially written.
+     */
+    private void scan(Segment segment) throws IOException {
+        long[] validLength = {0};
+        int[] pendingItems = {0};
+        long[] orderOffset = {-1};
+        UUID[] orderId = {null};
+        forEachLine(segment.file, 0, (line, offset, isComplete) -> {
+            if (!isComplete) {
+                return false;
+            }
+            if (pendingItems[0] > 0) {
+                pendingItems[0]--;
+                if (pendingItems[0] == 0) {
+                    segment.orderOffsets.put(orderId[0], orderOffset[0]);
+                    segment.recordCount++;
+                    validLength[0] = offset + line.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+                return true;
+            }
+            char type = line.isEmpty() ? ' ' : line.charAt(0);
+            if (type == TRANSACTION) {
+                List<String> fields = splitFields(line);
+                segment.addTransaction(LocalDateTime.parse(fields.get(2)), fields.get(6), offset);
+            } else if (type == ORDER) {
+                List<String> fields = splitFields(line);
+                int itemCount = Integer.parseInt(fields.get(7));
+                if (itemCount > 0) {
+                    // The order only counts once all of its item lines have been written
+                    pendingItems[0] = itemCount;
+                    orderOffset[0] = offset;
+                    orderId[0] = UUID.fromString(fields.get(1));
+                    return true;
+                }
+                segment.orderOffsets.put(UUID.fromString(fields.get(1)), offset);
+                segment.recordCount++;
+            } else {
+                LOGGER.warning("Unexpected record in transaction log: " + line);
+            }
+            validLength[0] = offset + line.getBytes(StandardCharsets.UTF_8).length + 1;
+            return true;
+        });
+
+        segment.length = validLength[0];
+        if (segment.file.length() > validLength[0]) {
+            LOGGER.warning("Discarding partially written record in " + segment.file.getName());
+            try (RandomAccessFile file = new RandomAccessFile(segment.file, "rw")) {
+                file.setLength(validLength[0]);
+            }
+        }
+    }
+
+    private void readTransactions(Segment segment, long startOffset, LocalDateTime from, LocalDateTime until,
+                                  String itemName, Map<UUID, Order> orders, List<Transaction> result)
+            throws PillException {
+        List<List<String>> matches = new ArrayList<>();
+        try {
+            forEachLine(segment.file, startOffset, (line, offset, isComplete) -> {
+                if (offset >= segment.length || line.isEmpty() || line.charAt(0) != TRANSACTION) {
+                    return offset < segment.length;
+                }
+                List<String> fields = splitFields(line);
+                if (from != null) {
+                    LocalDateTime timestamp = LocalDateTime.parse(fields.get(2));
+                    if (!timestamp.isBefore(until)) {
+                        return false;
+                    }
+                    if (timestamp.isBefore(from)) {
+                        return true;
+                    }
+                }
+                if (itemName == null || itemName.equals(fields.get(6))) {
+                    matches.add(fields);
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            throw new PillException(ExceptionMessages.LOAD_ERROR);
+        }
+
+        for (List<String> fields : matches) {
+            Order order = null;
+            if (fields.get(5) != null) {
+                UUID orderId = UUID.fromString(fields.get(5));
+                order = orders.containsKey(orderId) ? orders.get(orderId) : readOrder(orderId);
+                orders.put(orderId, order);
+            }
+            result.add(new Transaction(UUID.fromString(fields.get(1)), fields.get(6), Integer.parseInt(fields.get(4)),
+                    Transaction.TransactionType.valueOf(fields.get(3)), LocalDateTime.parse(fields.get(2)),
+                    fields.get(7), order, fields.size() > 8 ? decodeBatchLines(fields.get(8)) : List.of()));
+        }
+    }
+
+    private static String encodeTransaction(Transaction transaction) {
+        StringBuilder sb = new StringBuilder().append(TRANSACTION);
+        appendField(sb, transaction.getId().toString());
+        appendField(sb, transaction.getTimestamp().toString());
+        appendField(sb, transaction.getType().name());
+        appendField(sb, String.valueOf(transaction.getQuantity()));
+        Order order = transaction.getAssociatedOrder();
+        appendField(sb, order == null ? null : order.getId().toString());
+        appendField(sb, transaction.getItemName());
+        appendField(sb, transaction.getNotes());
+        if (!transaction.getBatchLines().isEmpty()) {
+            appendField(sb, encodeBatchLines(transaction.getBatchLines()));
+        }
+        return sb.append('\n').toString();
+    }
+
+    /**
+     * Encodes the batches of a transaction as {@code EXPIRY:QUANTITY:QUANTITY_LEFT} entries separated by commas,
+     * with {@code -} as the expiry of a batch that does not expire.
+     */
+    private static String encodeBatchLines(List<Allocation.Line> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (Allocation.Line line : lines) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(line.hasExpiryDate() ? line.getExpiryDate().get().toString() : "-")
+                    .append(':').append(line.getQuantity())
+                    .append(':').append(line.getQuantityLeft());
+        }
+        return sb.toString();
+    }
+
+    private static List<Allocation.Line> decodeBatchLines(String field) {
+        List<Allocation.Line> lines = new ArrayList<>();
+        for (String entry : field.split(",")) {
+            String[] parts = entry.split(":");
+            long expiryEpochDay = parts[0].equals("-") ? Item.NO_EXPIRY : LocalDate.parse(parts[0]).toEpochDay();
+            lines.add(new Allocation.Line(expiryEpochDay, Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+        }
+        return lines;
+    }
+
+    private static String encodeOrder(Order order) {
+        List<Item> items = order.getItems().getAllItems();
+        StringBuilder sb = new StringBuilder().append(ORDER);
+        appendField(sb, order.getId().toString());
+        appendField(sb, order.getType().name());
+        appendField(sb, order.getStatus().name());
+        appendField(sb, order.getCreationTime().toString());
+        appendField(sb, order.getFulfillmentTime() == null ? null : order.getFulfillmentTime().toString());
+        appendField(sb, order.getNotes());
+        appendField(sb, String.valueOf(items.size()));
+        sb.append('\n');
+        for (Item item : items) {
+            sb.append(ORDER_ITEM);
+            appendField(sb, item.getName());
+            appendField(sb, String.valueOf(item.getQuantity()));
+            appendField(sb, item.getExpiryDate().map(LocalDate::toString).orElse(null));
+            appendField(sb, String.valueOf(item.getCost()));
+            appendField(sb, String.valueOf(item.getPrice()));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Order decodeOrder(List<String> lines) {
+        List<String> fields = splitFields(lines.get(0));
+        ItemMap items = new ItemMap();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> itemFields = splitFields(line);
+            LocalDate expiryDate = itemFields.get(3) == null ? null : LocalDate.parse(itemFields.get(3));
+            items.addItemSilent(new Item(itemFields.get(1), Integer.parseInt(itemFields.get(2)), expiryDate,
+                    Double.parseDouble(itemFields.get(4)), Double.parseDouble(itemFields.get(5))));
+        }
+        LocalDateTime fulfillmentTime = fields.get(5) == null ? null : LocalDateTime.parse(fields.get(5));
+        return new Order(UUID.fromString(fields.get(1)), Order.OrderType.valueOf(fields.get(2)),
+                LocalDateTime.parse(fields.get(4)), fulfillmentTime, Order.OrderStatus.valueOf(fields.get(3)),
+                items, fields.get(6));
+    }
+
+    private static int orderItemCount(String orderLine) {
+        return Integer.parseInt(splitFields(orderLine).get(7));
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        sb.append(SEPARATOR);
+        if (value == null) {
+            sb.append(NULL_FIELD);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            default:
+                sb.append(c);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Splits a record into its fields, undoing the escaping done by {@link #appendField}.
+     * The record type is returned as the first field.
+     */
+    private static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isNull = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == SEPARATOR) {
+                fields.add(isNull ? null : field.toString());
+                field.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                if (next == 'N' && field.length() == 0) {
+                    isNull = true;
+                } else {
+                    field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(isNull ? null : field.toString());
+        return fields;
+    }
+
+    /**
+     * Visits the lines of a file starting at the given byte offset.
+     */
+    @FunctionalInterface
+    private interface LineVisitor {
+        /**
+         * Visits one line.
+         *
+         * @param line       The line, without its line separator.
+         * @param offset     The byte offset of the start of the line.
+         * @param isComplete Whether the line was terminated by a line separator.
+         * @return Whether to continue with the next line.
+         */
+        boolean visit(String line, long offset, boolean isComplete) throws IOException;
+    }
+
+    private static void forEachLine(File file, long startOffset, LineVisitor visitor) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(startOffset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(raf.getChannel()));
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            long lineStart = startOffset;
+            long position = startOffset;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    buffer.write(b);
+                    continue;
+                }
+                if (!visitor.visit(buffer.toString(StandardCharsets.UTF_8), lineStart, true)) {
+                    return;
+                }
+                buffer.reset();
+                lineStart = position;
+            }
+            if (buffer.size() > 0) {
+                visitor.visit(buffer.toString(StandardCharsets.UTF_8), lineStart, false);
+            }
+        }
+    }
+
+    /**
+     * The location of the latest record of an order.
+     */
+    private static class OrderLocation {
+        private final Segment segment;
+        private final long offset;
+
+        private OrderLocation(Segment segment, long offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * The in-memory summary of one segment file.
+     */
+    private static class Segment {
+        private final int number;
+        private final File file;
+        private final List<LocalDateTime> sparseTimestamps = new ArrayList<>();
+        private final List<Long> sparseOffsets = new ArrayList<>();
+        private final Set<String> itemNames = new HashSet<>();
+        private final Map<UUID, Long> orderOffsets = new LinkedHashMap<>();
+        private LocalDateTime firstTimestamp;
+        private LocalDateTime lastTimestamp;
+        private int transactionCount;
+        private int recordCount;
+        private long length;
+
+        private Segment(int number, File file) {
+            this.number = number;
+            this.file = file;
+        }
+
+        private void addTransaction(LocalDateTime timestamp, String itemName, long offset) {
+            if (transactionCount % SPARSE_INDEX_INTERVAL == 0) {
+                sparseTimestamps.add(timestamp);
+                sparseOffsets.add(offset);
+            }
+            if (firstTimestamp == null) {
+                firstTimestamp = timestamp;
+            }
+            lastTimestamp = timestamp;
+            itemNames.add(itemName);
+            transactionCount++;
+            recordCount++;
+        }
+
+        private boolean overlaps(LocalDateTime from, LocalDateTime until) {
+            return firstTimestamp != null && firstTimestamp.isBefore(until) && !lastTimestamp.isBefore(from);
+        }
+
+        /**
+         * Returns the offset of the last sparse entry strictly before the given time, from which
+         * reading must start so that no transaction at or after that time is missed.
+         */
+        private long seekOffset(LocalDateTime from) {
+            int low = 0;
+            int high = sparseTimestamps.size() - 1;
+            long offset = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (sparseTimestamps.get(mid).isBefore(from)) {
+                    offset = sparseOffsets.get(mid);
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return offset;
+        }
+
+        private boolean loadIndex(File indexFile) {
+            if (!indexFile.exists()) {
+                return false;
+            }
+            try {
+                for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                    List<String> fields = splitFields(line);
+                    switch (line.charAt(0)) {
+                    case 'C':
+                        recordCount = Integer.parseInt(fields.get(1));
+                        transactionCount = Integer.parseInt(fields.get(2));
+                        length = Long.parseLong(fields.get(3));
+                        break;
+                    case 'F':
+                        firstTimestamp = LocalDateTime.parse(fields.get(1));
+                        lastTimestamp = LocalDateTime.parse(fields.get(2));
+                        break;
+                    case 'S':
+                        sparseTimestamps.add(LocalDateTime.parse(fields.get(1)));
+                        sparseOffsets.add(Long.parseLong(fields.get(2)));
+                        break;
+                    case 'N':
+                        itemNames.add(fields.get(1));
+                        break;
+                    case 'O':
+                        orderOffsets.put(UUID.fromString(fields.get(1)), Long.parseLong(fields.get(2)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown index record");
+                    }
+                }
+                return length == file.length();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warning("Rebuilding index of " + file.getName() + ": " + e.getMessage());
+                sparseTimestamps.clear();
+                sparseOffsets.clear();
+                itemNames.clear();
+                orderOffsets.clear();
+                firstTimestamp = null;
+                lastTimestamp = null;
+                transactionCount = 0;
+                recordCount = 0;
+                length = 0;
+                return false;
+            }
+        }
+
+        private void writeIndex(File indexFile) throws IOException {
+            StringBuilder sb = new StringBuilder("C");
+            appendField(sb, String.valueOf(recordCount));
+            appendField(sb, String.valueOf(transactionCount));
+            appendField(sb, String.valueOf(length));
+            sb.append('\n');
+            if (firstTimestamp != null) {
+                sb.append('F');
+                appendField(sb, firstTimestamp.toString());
+                appendField(sb, lastTimestamp.toString());
+                sb.append('\n');
+            }
+            for (int i = 0; i < sparseTimestamps.size(); i++) {
+                sb.append('S');
+                appendField(sb, sparseTimestamps.get(i).toString());
+                appendField(sb, String.valueOf(sparseOffsets.get(i)));
+                sb.append('\n');
+            }
+            for (String itemName : itemNames) {
+                sb.append('N');
+                appendField(sb, itemName);
+                sb.append('\n');
+            }
+            for (Map.Entry<UUID, Long> entry : orderOffsets.entrySet()) {
+                sb.append('O');
+                appendField(sb, entry.getKey().toString());
+                appendField(sb, String.valueOf(entry.getValue()));
+                sb.append('\n');
+            }
+
+            File temp = new File(indexFile.getPath() + ".tmp");
+            Files.writeString(temp.toPath(), sb.toString(), StandardCharsets.UTF_8);
+            Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
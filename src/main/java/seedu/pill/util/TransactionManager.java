@@ -4,10 +4,17 @@ import seedu.pill.exceptions.ExceptionMessages;
 import seedu.pill.exceptions.PillException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.UUID;
 import java.util.stream.IntStream;
 
 /**
@@ -17,23 +24,87 @@ import java.util.stream.IntStream;
  * <p>
  * The TransactionManager maintains a complete audit trail of all inventory changes and ensures data consistency between
  * transactions and the actual inventory state.
+ * <p>
+ * When created with a {@link TransactionLog}, transactions and orders are recorded in the log instead of in memory,
+ * so the history survives restarts and history queries only read the parts of the log they need. The log keeps its
+ * own indexes of each segment's time span, timestamps and item names, and those answer the history queries of a
+ * manager with a log; the in-memory indexes below are then left empty.
+ * <p>
+ * Transactions kept in memory, without a log, are indexed by their timestamps, in a list sorted by time that
+ * history queries search by binary search, so a query for a date range only visits the transactions within it.
+ * They are also grouped by {@link ItemKey}, so the history of an item only visits the transactions of that item.
+ * <p>
+ * Orders can be found by their id, or by any prefix of it that no other order shares, through an index of the ids
+ * sorted as text, with or without a log. An order is only added to it once it has been recorded. Orders kept in
+ * memory are also looked up by id in a hash map.
+ * <p>
+ * When created over a {@link StripedInventory}, one manager can be shared by several terminals dispensing at once.
+ * A stock change only locks the stripe of its item, and the records of the manager are updated under its monitor,
+ * which is never held while stock is changed or the inventory is saved.
  */
 public class TransactionManager {
     private final List<Transaction> transactions;
+    private final List<Transaction> transactionsByTime;
+    private final Map<ItemKey, List<Transaction>> itemTransactions;
     private final List<Order> orders;
+    private final Map<UUID, Order> ordersById;
+    private final TreeMap<String, UUID> orderIdsByText;
+    private final Set<UUID> ordersBeingFulfilled;
     private final ItemMap itemMap;
+    private final StripedInventory inventory;
     private final Storage storage;
+    private final TransactionLog log;
 
     /**
      * Constructs a new TransactionManager with a reference to the system's inventory.
+     * Transactions and orders are only kept in memory.
      *
      * @param itemMap - The inventory system's ItemMap instance to track and modify stock levels
      */
     public TransactionManager(ItemMap itemMap, Storage storage) {
+        this(itemMap, storage, null);
+    }
+
+    /**
+     * Constructs a new TransactionManager that records transactions and orders in the given log.
+     *
+     * @param itemMap - The inventory system's ItemMap instance to track and modify stock levels
+     * @param storage - The storage the inventory is saved to
+     * @param log     - The log to record transactions and orders in, or null to keep them in memory
+     */
+    public TransactionManager(ItemMap itemMap, Storage storage, TransactionLog log) {
+        this(itemMap, null, storage, log);
+    }
+
+    /**
+     * Constructs a new TransactionManager over an inventory shared by several terminals, which may all use this
+     * manager at once. Stock is added and used without printing any output.
+     *
+     * @param inventory - The shared inventory to track and modify stock levels
+     * @param storage   - The storage the inventory is saved to
+     * @param log       - The log to record transactions and orders in, or null to keep them in memory
+     */
+    public TransactionManager(StripedInventory inventory, Storage storage, TransactionLog log) {
+        this(null, inventory, storage, log);
+    }
+
+    private TransactionManager(ItemMap itemMap, StripedInventory inventory, Storage storage, TransactionLog log) {
         this.transactions = new ArrayList<>();
+        this.transactionsByTime = new ArrayList<>();
+        this.itemTransactions = new IdentityHashMap<>();
         this.orders = new ArrayList<>();
+        this.ordersById = new HashMap<>();
+        this.orderIdsByText = new TreeMap<>();
+        this.ordersBeingFulfilled = new HashSet<>();
         this.itemMap = itemMap;
+        this.inventory = inventory;
         this.storage = storage;
+        this.log = log;
+        if (log != null) {
+            for (UUID id : log.getOrderIds()) {
+                orderIdsByText.put(id.toString(), id);
+            }
+        }
     }
 
     /**
@@ -54,19 +125,61 @@ public class TransactionManager {
     public Transaction createTransaction(String itemName, int quantity, LocalDate expiryDate,
                                          Transaction.TransactionType type,
                                          String notes, Order associatedOrder) throws PillException {
+        Transaction transaction = applyTransaction(itemName, quantity, expiryDate, type, notes, associatedOrder);
+        saveInventory();
+        recordTransaction(transaction);
+        return transaction;
+    }
 
-        Transaction transaction = new Transaction(itemName, quantity, type, notes, associatedOrder);
-
+    /**
+     * Changes the stock for a new transaction, without saving the inventory or recording the transaction.
+     */
+    private Transaction applyTransaction(String itemName, int quantity, LocalDate expiryDate,
+                                         Transaction.TransactionType type,
+                                         String notes, Order associatedOrder) throws PillException {
         if (type == Transaction.TransactionType.INCOMING) {
+            Transaction transaction = new Transaction(itemName, quantity, type, notes, associatedOrder);
             Item item = new Item(itemName, quantity, expiryDate);
-            itemMap.addItem(item);
+            if (inventory != null) {
+                inventory.addItem(item);
+            } else {
+                itemMap.addItem(item);
+            }
+            return transaction;
+        }
+        Allocation allocation = inventory != null
+                ? inventory.useItem(itemName, quantity)
+                : itemMap.useItem(itemName, quantity);
+        return new Transaction(itemName, quantity, type, notes, associatedOrder, allocation.getLines());
+    }
+
+    private void saveInventory() throws PillException {
+        if (inventory != null) {
+            storage.saveInventory(inventory);
         } else {
-            itemMap.useItem(itemName, quantity);
+            storage.saveItemMap(itemMap);
         }
-        storage.saveItemMap(itemMap);
+    }
 
+    /**
+     * Records a transaction whose change has already been applied to the inventory, in the log or in memory.
+     *
+     * @param transaction - The transaction to record
+     * @throws PillException - If the transaction cannot be written to the log
+     */
+    synchronized void recordTransaction(Transaction transaction) throws PillException {
+        if (log != null) {
+            log.appendTransaction(transaction);
+            return;
+        }
         transactions.add(transaction);
-        return transaction;
+        itemTransactions.computeIfAbsent(transaction.getItemKey(), key -> new ArrayList<>()).add(transaction);
+        // Timestamps only go backwards if the clock is set back, so this nearly always appends
+        int position = transactionsByTime.size();
+        if (position > 0 && transaction.getTimestamp().isBefore(transactionsByTime.get(position - 1).getTimestamp())) {
+            position = firstIndexAfter(transaction.getTimestamp());
+        }
+        transactionsByTime.add(position, transaction);
     }
 
     /**
@@ -78,9 +191,21 @@ public class TransactionManager {
      * @param notes        - Any additional notes or comments about the order.
      * @return             - The created Order object.
      */
-    public Order createOrder(Order.OrderType type, ItemMap itemsToOrder, String notes) {
+    public synchronized Order createOrder(Order.OrderType type, ItemMap itemsToOrder, String notes) {
         Order order = new Order(type, itemsToOrder, notes);
-        orders.add(order);
+        if (log != null) {
+            try {
+                log.appendOrder(order);
+                orderIdsByText.put(order.getId().toString(), order.getId());
+            } catch (PillException e) {
+                // The order was never recorded, so it must not be found later either
+                PillException.printException(e);
+            }
+        } else {
+            orders.add(order);
+            ordersById.put(order.getId(), order);
+            orderIdsByText.put(order.getId().toString(), order.getId());
+        }
         System.out.println("Order placed! Listing order details");
         order.listItems();
         return order;
@@ -96,27 +221,62 @@ public class TransactionManager {
      *                       dispense order
      */
     public void fulfillOrder(Order order) throws PillException {
-        if (order.getStatus() != Order.OrderStatus.PENDING) {
+        if (!startFulfilling(order)) {
             throw new PillException(ExceptionMessages.ORDER_NOT_PENDING);
         }
+        try {
+            Order recorded = log != null ? log.readOrder(order.getId()) : null;
+            if (order.getStatus() != Order.OrderStatus.PENDING
+                    || (recorded != null && recorded.getStatus() != Order.OrderStatus.PENDING)) {
+                throw new PillException(ExceptionMessages.ORDER_NOT_PENDING);
+            }
+
+            Transaction.TransactionType transactionType = order.getType() == Order.OrderType.PURCHASE
+                    ? Transaction.TransactionType.INCOMING
+                    : Transaction.TransactionType.OUTGOING;
 
-        Transaction.TransactionType transactionType = order.getType() == Order.OrderType.PURCHASE
-                ? Transaction.TransactionType.INCOMING
-                : Transaction.TransactionType.OUTGOING;
+            if (inventory != null) {
+                // Other terminals keep saving while the order is filled, and the inventory is saved once at the end
+                try {
+                    fulfillLines(order, transactionType);
+                } finally {
+                    storage.saveInventory(inventory);
+                }
+            } else {
+                // Save the inventory once for the whole order rather than once per line
+                storage.beginBatch();
+                try {
+                    fulfillLines(order, transactionType);
+                } finally {
+                    storage.endBatch();
+                }
+            }
+            order.fulfill();
+            if (log != null) {
+                log.appendOrder(order);
+            }
+        } finally {
+            finishFulfilling(order);
+        }
+    }
 
+    /**
+     * Creates and records a transaction for each item in an order.
+     */
+    private void fulfillLines(Order order, Transaction.TransactionType transactionType) throws PillException {
         for (Map.Entry<String, TreeSet<Item>> entry : order.getItems().items.entrySet()) {
             TreeSet<Item> itemSet = entry.getValue();
             try {
                 itemSet.forEach(item -> {
                     try {
-                        createTransaction(
+                        recordTransaction(applyTransaction(
                                 item.getName(),
                                 item.getQuantity(),
                                 item.getExpiryDate().orElse(null),
                                 transactionType,
                                 "Order fulfillment",
                                 order
-                        );
+                        ));
                     } catch (PillException e) {
                         throw new RuntimeException("Error creating transaction", e);
                     }
@@ -125,7 +285,19 @@ public class TransactionManager {
                 throw new PillException(ExceptionMessages.TRANSACTION_ERROR);
             }
         }
-        order.fulfill();
+    }
+
+    /**
+     * Marks an order as being fulfilled, so that two terminals cannot fulfill it at the same time.
+     *
+     * @return False if the order is already being fulfilled.
+     */
+    private synchronized boolean startFulfilling(Order order) {
+        return ordersBeingFulfilled.add(order.getId());
+    }
+
+    private synchronized void finishFulfilling(Order order) {
+        ordersBeingFulfilled.remove(order.getId());
     }
 
     /**
@@ -133,7 +305,15 @@ public class TransactionManager {
      *
      * @return - A new ArrayList containing all transactions
      */
-    public List<Transaction> getTransactions() {
+    public synchronized List<Transaction> getTransactions() {
+        if (log != null) {
+            try {
+                return log.readAllTransactions();
+            } catch (PillException e) {
+                PillException.printException(e);
+                return new ArrayList<>();
+            }
+        }
         return new ArrayList<>(transactions);
     }
 
@@ -142,22 +322,70 @@ public class TransactionManager {
      *
      * @return - A new ArrayList containing all orders
      */
-    public List<Order> getOrders() {
+    public synchronized List<Order> getOrders() {
+        if (log != null) {
+            try {
+                return log.readOrders();
+            } catch (PillException e) {
+                PillException.printException(e);
+                return new ArrayList<>();
+            }
+        }
         return new ArrayList<>(orders);
     }
 
     /**
-     * Retrieves all transactions related to a specific item.
+     * Retrieves all transactions related to a specific item. Transactions kept in memory are read from the index of
+     * transactions by item, so only the transactions of the item are visited.
      *
      * @param itemName - The name of the item to find transactions for
      * @return - A list of all transactions involving the specified item
      */
-    public List<Transaction> getItemTransactions(String itemName) {
-        return transactions.stream()
+    public synchronized List<Transaction> getItemTransactions(String itemName) {
+        if (log != null) {
+            try {
+                return log.readItemTransactions(itemName);
+            } catch (PillException e) {
+                PillException.printException(e);
+                return new ArrayList<>();
+            }
+        }
+        ItemKey key = ItemKey.lookup(itemName);
+        List<Transaction> keyTransactions = key == null ? null : itemTransactions.get(key);
+        if (keyTransactions == null) {
+            return List.of();
+        }
+        return keyTransactions.stream()
                 .filter(t -> t.getItemName().equals(itemName))
                 .toList();
     }
 
+    /**
+     * Finds an order by its id, or by the start of its id if no other order's id starts the same way.
+     *
+     * @param idOrPrefix - The id of the order, or a prefix of it, in any case
+     * @return - The latest state of the order
+     * @throws PillException - If no order's id starts with the prefix, if more than one does, or if the order
+     *                       cannot be read from the log
+     */
+    public synchronized Order findOrder(String idOrPrefix) throws PillException {
+        String prefix = idOrPrefix.toLowerCase();
+        Map.Entry<String, UUID> match = prefix.isEmpty() ? null : orderIdsByText.ceilingEntry(prefix);
+        if (match == null || !match.getKey().startsWith(prefix)) {
+            throw new PillException(ExceptionMessages.INVALID_ORDER);
+        }
+        // Ids sharing the prefix are next to each other in text order, so only the next id needs checking
+        Map.Entry<String, UUID> next = orderIdsByText.higherEntry(match.getKey());
+        if (next != null && next.getKey().startsWith(prefix)) {
+            throw new PillException(ExceptionMessages.AMBIGUOUS_ORDER);
+        }
+        Order order = log != null ? log.readOrder(match.getValue()) : ordersById.get(match.getValue());
+        if (order == null) {
+            throw new PillException(ExceptionMessages.INVALID_ORDER);
+        }
+        return order;
+    }
+
     /**
      * Lists all transactions by printing each transaction with a numbered format.
      *
@@ -197,17 +425,62 @@ public class TransactionManager {
     }
 
     /**
-     * Retrieves all transactions that occurred within a specified time period.
+     * Retrieves all transactions that occurred within a specified time period, oldest first. Transactions kept in
+     * memory are found by binary search in the timestamp index, in O(log n + k) time for k transactions in range.
      *
      * @param start - The start date of the period (inclusive)
      * @param end   - The end date of the period (inclusive)
      * @return - A list of transactions that occurred within the specified period
      */
-    public List<Transaction> getTransactionHistory(LocalDate start, LocalDate end) {
-        return transactions.stream()
-                .filter(t -> !t.getTimestamp().toLocalDate().isBefore(start) && !t.getTimestamp().toLocalDate()
-                        .isAfter(end))
-                .toList();
+    public synchronized List<Transaction> getTransactionHistory(LocalDate start, LocalDate end) {
+        if (log != null) {
+            try {
+                return log.readTransactions(start, end);
+            } catch (PillException e) {
+                PillException.printException(e);
+                return new ArrayList<>();
+            }
+        }
+        if (end.isBefore(start)) {
+            return new ArrayList<>();
+        }
+        int from = firstIndexAtOrAfter(start.atStartOfDay());
+        int until = firstIndexAtOrAfter(end.plusDays(1).atStartOfDay());
+        return new ArrayList<>(transactionsByTime.subList(from, until));
+    }
+
+    /**
+     * Returns the position in {@link #transactionsByTime} of the first transaction at or after the given time.
+     */
+    private int firstIndexAtOrAfter(LocalDateTime time) {
+        int low = 0;
+        int high = transactionsByTime.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactionsByTime.get(mid).getTimestamp().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position in {@link #transactionsByTime} of the first transaction strictly after the given time.
+     */
+    private int firstIndexAfter(LocalDateTime time) {
+        int low = 0;
+        int high = transactionsByTime.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactionsByTime.get(mid).getTimestamp().isAfter(time)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
     }
 
     /**
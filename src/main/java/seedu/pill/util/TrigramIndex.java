@@ -0,0 +1,102 @@
+package seedu.pill.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index from every run of three consecutive characters of a name to the names containing it,
+ * used to find the names containing a substring without checking every name.
+ *
+ * <p>A name contains a query only if it contains every trigram of the query, so intersecting the posting
+ * sets of those trigrams gives a small set of candidates, which are then checked with
+ * {@link String#contains}. Queries shorter than three characters have no trigrams and cannot be answered
+ * by the index.</p>
+ */
+public class TrigramIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, Set<String>> postings = new HashMap<>();
+
+    /**
+     * Adds a name to the index.
+     *
+     * @param name The name, normalised the same way as the queries that should find it.
+     */
+    public void add(String name) {
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            postings.computeIfAbsent(gram(name, i), gram -> new HashSet<>()).add(name);
+        }
+    }
+
+    /**
+     * Removes a name from the index.
+     *
+     * @param name The name, as it was added.
+     */
+    public void remove(String name) {
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            long gram = gram(name, i);
+            Set<String> names = postings.get(gram);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the index can answer the given query.
+     *
+     * @param query The substring to look for.
+     * @return {@code true} if the query is at least three characters long.
+     */
+    public boolean canSearch(String query) {
+        return query.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Returns the indexed names containing the given query, in no particular order.
+     *
+     * @param query The substring to look for, at least three characters long.
+     * @return The names containing the query.
+     */
+    public List<String> search(String query) {
+        assert canSearch(query) : "Query is too short for the trigram index";
+
+        List<Set<String>> postingSets = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            Set<String> names = postings.get(gram(query, i));
+            if (names == null) {
+                return new ArrayList<>();
+            }
+            postingSets.add(names);
+        }
+
+        Set<String> smallest = Collections.min(postingSets, (a, b) -> Integer.compare(a.size(), b.size()));
+        List<String> matches = new ArrayList<>();
+        for (String name : smallest) {
+            if (isInAll(name, postingSets) && name.contains(query)) {
+                matches.add(name);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean isInAll(String name, Collection<Set<String>> postingSets) {
+        for (Set<String> names : postingSets) {
+            if (!names.contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long gram(CharSequence text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+}
@@ -1,25 +1,63 @@
 package seedu.pill.util;
 
 import java.util.Scanner;
+import java.util.function.UnaryOperator;
 
 public final class Ui {
+    private static final String COMPLETION_KEY = "\t";
+
     private final Scanner sc = new Scanner(System.in);
     private final ItemMap items;
+    private UnaryOperator<String> completer;
 
     public Ui(ItemMap items) {
         this.items = items;
+        this.completer = items::completeName;
+    }
+
+    /**
+     * Sets how partly typed item names are completed, for example to complete names from the inventory
+     * loaded after this reader was created.
+     *
+     * @param completer Returns the completion of a partly typed name, or null if nothing matches it.
+     */
+    public void setCompleter(UnaryOperator<String> completer) {
+        this.completer = completer;
     }
 
     /**
      * Scans for user input.
+     * A line ending with a tab is not submitted. Instead, the item name after the command word is completed
+     * and echoed, and the next line the user types continues it.
      * @return The user input in string representation.
      */
     public String getInput() {
         Printer.printSpace();
-        return this.sc.nextLine();
+        String line = this.sc.nextLine();
+        while (line.endsWith(COMPLETION_KEY)) {
+            line = completeLine(line.stripTrailing());
+            System.out.print(line);
+            line = line + this.sc.nextLine();
+        }
+        return line;
     }
 
     public String getRawInput() {
         return this.sc.nextLine();
     }
+
+    /**
+     * Completes the item name typed after the command word of a line, as far as the matching names agree.
+     *
+     * @param line The line typed so far.
+     * @return The line with its item name completed, or the line itself if there is nothing to complete.
+     */
+    String completeLine(String line) {
+        int argumentStart = line.indexOf(' ') + 1;
+        if (argumentStart == 0 || argumentStart == line.length()) {
+            return line;
+        }
+        String completion = completer.apply(line.substring(argumentStart));
+        return completion == null ? line : line.substring(0, argumentStart) + completion;
+    }
 }
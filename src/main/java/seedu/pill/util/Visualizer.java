@@ -1,6 +1,7 @@
 package seedu.pill.util;
 
 import java.awt.Frame;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import org.knowm.xchart.CategoryChart;
@@ -31,6 +32,16 @@ public class Visualizer {
         this.items = items;
     }
 
+    /**
+     * Returns the name of an item, followed by its expiry date if it has one.
+     */
+    private static String labelOf(Item item) {
+        if (!item.hasExpiryDate()) {
+            return item.getName();
+        }
+        return item.getName() + " (Expires: " + LocalDate.ofEpochDay(item.getExpiryEpochDay()) + ")";
+    }
+
     /**
      * Processes item data for prices, preparing the item names with expiry dates (if applicable)
      * and collecting price values for items that have a price greater than 0.
@@ -40,12 +51,8 @@ public class Visualizer {
         itemPrices = new ArrayList<>();
 
         for (Item item : items) {
-            if (item.getPrice() > 0) {
-                String itemNameWithDate = item.getName();
-                if (item.getExpiryDate() != null && item.getExpiryDate().isPresent()) {
-                    itemNameWithDate += " (Expires: " + item.getExpiryDate().get().toString() + ")";
-                }
-                itemNamesWithDates.add(itemNameWithDate);
+            if (item.getPriceCents() > 0) {
+                itemNamesWithDates.add(labelOf(item));
                 itemPrices.add(item.getPrice());
             }
         }
@@ -60,12 +67,8 @@ public class Visualizer {
         itemCosts = new ArrayList<>();
 
         for (Item item : items) {
-            if (item.getCost() > 0) {
-                String itemNameWithDate = item.getName();
-                if (item.getExpiryDate() != null && item.getExpiryDate().isPresent()) {
-                    itemNameWithDate += " (Expires: " + item.getExpiryDate().get().toString() + ")";
-                }
-                itemNamesWithDates.add(itemNameWithDate);
+            if (item.getCostCents() > 0) {
+                itemNamesWithDates.add(labelOf(item));
                 itemCosts.add(item.getCost());
             }
         }
@@ -80,11 +83,7 @@ public class Visualizer {
         itemStocks = new ArrayList<>();
 
         for (Item item : items) {
-            String itemNameWithDate = item.getName();
-            if (item.getExpiryDate() != null && item.getExpiryDate().isPresent()) {
-                itemNameWithDate += " (Expires: " + item.getExpiryDate().get().toString() + ")";
-            }
-            itemNamesWithDates.add(itemNameWithDate);
+            itemNamesWithDates.add(labelOf(item));
             itemStocks.add(item.getQuantity());
         }
     }
@@ -99,12 +98,8 @@ public class Visualizer {
         itemCosts = new ArrayList<>();
 
         for (Item item : items) {
-            if (item.getCost() > 0 && item.getPrice() > 0) {
-                String itemNameWithDate = item.getName();
-                if (item.getExpiryDate() != null && item.getExpiryDate().isPresent()) {
-                    itemNameWithDate += " (Expires: " + item.getExpiryDate().get().toString() + ")";
-                }
-                itemNamesWithDates.add(itemNameWithDate);
+            if (item.getCostCents() > 0 && item.getPriceCents() > 0) {
+                itemNamesWithDates.add(labelOf(item));
                 itemPrices.add(item.getPrice());
                 itemCosts.add(item.getCost());
             }
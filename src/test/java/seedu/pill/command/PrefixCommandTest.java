@@ -0,0 +1,75 @@
+package seedu.pill.command;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+import seedu.pill.util.Item;
+import seedu.pill.util.ItemMap;
+import seedu.pill.util.Storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for PrefixCommand
+ */
+public class PrefixCommandTest {
+    private ItemMap itemMap;
+    private Storage storage;
+    private ByteArrayOutputStream outputStream;
+    private final PrintStream standardOut = System.out;
+
+    @BeforeEach
+    public void setUp() {
+        itemMap = new ItemMap();
+        storage = new Storage();
+        outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(standardOut);
+    }
+
+    @Test
+    public void execute_matchingNames_listsMostStockedFirst() throws PillException {
+        itemMap.addItemSilent(new Item("panadol", 5));
+        itemMap.addItemSilent(new Item("Panadol Extra", 20));
+        itemMap.addItemSilent(new Item("aspirin", 50));
+
+        new PrefixCommand("PANA").execute(itemMap, storage);
+
+        String expected = "Items starting with pana:" + System.lineSeparator()
+                + "1. panadol extra: 20 in stock" + System.lineSeparator()
+                + "2. panadol: 5 in stock";
+        assertEquals(expected, outputStream.toString().trim());
+    }
+
+    @Test
+    public void execute_manyMatchingNames_listsAtMostLimit() throws PillException {
+        for (int i = 0; i < 20; i++) {
+            itemMap.addItemSilent(new Item("item" + i, i + 1));
+        }
+
+        new PrefixCommand("item").execute(itemMap, storage);
+
+        String[] lines = outputStream.toString().trim().split(System.lineSeparator());
+        assertEquals(PrefixCommand.MAX_RESULTS + 1, lines.length);
+        assertEquals("1. item19: 20 in stock", lines[1]);
+    }
+
+    @Test
+    public void execute_noMatchingNames_throwsException() {
+        itemMap.addItemSilent(new Item("panadol", 5));
+
+        PillException exception = assertThrows(PillException.class, () ->
+                new PrefixCommand("aspirin").execute(itemMap, storage));
+
+        assertEquals("Item not found...", exception.getMessage());
+    }
+}
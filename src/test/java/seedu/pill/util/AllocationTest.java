@@ -0,0 +1,148 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllocationTest {
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-allocation").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        deleteRecursively(dir);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static long day(int offset) {
+        return START.plusDays(offset).toEpochDay();
+    }
+
+    @Test
+    public void useItem_acrossBatches_takesEarliestExpiringFirst() throws PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 4));
+        items.addItemSilent(new Item("panadol", 3, START.plusDays(10)));
+        items.addItemSilent(new Item("panadol", 5, START));
+
+        Allocation allocation = items.useItem("Panadol", 9);
+        assertEquals("panadol", allocation.getItemName());
+        assertEquals(9, allocation.getQuantity());
+        assertEquals(List.of(new Allocation.Line(day(0), 5, 0), new Allocation.Line(day(10), 3, 0),
+                new Allocation.Line(Item.NO_EXPIRY, 1, 3)), allocation.getLines());
+
+        assertEquals(3, items.stockCount("panadol"));
+        assertEquals(1, items.get("panadol").size());
+        assertEquals(3, items.get("panadol").first().getQuantity());
+    }
+
+    @Test
+    public void useItem_wholeStock_removesName() throws PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("aspirin", 2, START));
+        items.addItemSilent(new Item("aspirin", 2, START.plusDays(1)));
+
+        Allocation allocation = items.useItem("aspirin", 4);
+        assertTrue(allocation.getLines().stream().allMatch(Allocation.Line::isUsedUp));
+        assertTrue(items.isEmpty());
+        assertEquals(0, items.getInventoryTotals().getQuantity());
+    }
+
+    @Test
+    public void useItem_moreThanInStock_leavesInventoryUnchanged() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("bandage", 2, START));
+        items.addItemSilent(new Item("bandage", 2));
+
+        assertThrows(PillException.class, () -> items.useItem("bandage", 5));
+        assertThrows(PillException.class, () -> items.useItem("gauze", 1));
+        assertEquals(4, items.stockCount("bandage"));
+        assertEquals(2, items.get("bandage").size());
+    }
+
+    @Test
+    public void useItem_randomUses_matchesBatchByBatchReference() throws PillException {
+        Random random = new Random(21);
+        ItemMap items = new ItemMap();
+        List<int[]> reference = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int quantity = 1 + random.nextInt(20);
+            items.addItemSilent(new Item("syrup", quantity, START.plusDays(i)));
+            reference.add(new int[] {i, quantity});
+        }
+
+        while (!reference.isEmpty()) {
+            int total = reference.stream().mapToInt(batch -> batch[1]).sum();
+            int toUse = 1 + random.nextInt(Math.min(total, 50));
+            List<Allocation.Line> expected = new ArrayList<>();
+            int remaining = toUse;
+            while (remaining > 0) {
+                int[] batch = reference.get(0);
+                int taken = Math.min(batch[1], remaining);
+                batch[1] -= taken;
+                remaining -= taken;
+                expected.add(new Allocation.Line(day(batch[0]), taken, batch[1]));
+                if (batch[1] == 0) {
+                    reference.remove(0);
+                }
+            }
+            assertEquals(expected, items.useItem("syrup", toUse).getLines());
+            assertEquals(total - toUse, items.stockCount("syrup"));
+            assertEquals(reference.size(), items.get("syrup").size());
+        }
+    }
+
+    @Test
+    public void createTransaction_outgoing_recordsBatchLinesInLog() throws PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("ibuprofen", 6, START));
+        items.addItemSilent(new Item("ibuprofen", 10));
+        Storage storage = Storage.builder().path(new File(dir, "data").getPath()).mode(Storage.Mode.SNAPSHOT).build();
+        File logDir = new File(dir, "log");
+        TransactionLog log = new TransactionLog(logDir, false);
+        TransactionManager manager = new TransactionManager(items, storage, log);
+
+        Transaction incoming = manager.createTransaction("ibuprofen", 3, null,
+                Transaction.TransactionType.INCOMING, "Restock", null);
+        Transaction outgoing = manager.createTransaction("ibuprofen", 8, null,
+                Transaction.TransactionType.OUTGOING, "Dispense", null);
+        List<Allocation.Line> expected = List.of(new Allocation.Line(day(0), 6, 0),
+                new Allocation.Line(Item.NO_EXPIRY, 2, 11));
+        assertEquals(List.of(), incoming.getBatchLines());
+        assertEquals(expected, outgoing.getBatchLines());
+        log.close();
+
+        List<Transaction> reread = new TransactionLog(logDir, false).readAllTransactions();
+        assertEquals(2, reread.size());
+        assertEquals(List.of(), reread.get(0).getBatchLines());
+        assertEquals(expected, reread.get(1).getBatchLines());
+    }
+}
@@ -0,0 +1,62 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchIndexTest {
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    @Test
+    public void getItemByNameAndExpiry_manyBatches_findsEachBatch() {
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 500; i++) {
+            items.addItemSilent(new Item("Panadol", i + 1, START.plusDays(i)));
+        }
+        items.addItemSilent(new Item("panadol", 7));
+
+        for (int i = 0; i < 500; i++) {
+            Item batch = items.getItemByNameAndExpiry("panadol", Optional.of(START.plusDays(i)));
+            assertEquals(i + 1, batch.getQuantity());
+        }
+        assertEquals(7, items.getItemByNameAndExpiry("panadol", Optional.empty()).getQuantity());
+        assertNull(items.getItemByNameAndExpiry("panadol", Optional.of(START.minusDays(1))));
+        assertNull(items.getItemByNameAndExpiry("Panadol", Optional.empty()));
+        assertNull(items.getItemByNameAndExpiry("aspirin", Optional.empty()));
+    }
+
+    @Test
+    public void addAndEdit_existingBatch_updatesThatBatch() {
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 100; i++) {
+            items.addItemSilent(new Item("panadol", 1, START.plusDays(i)));
+        }
+        items.addItemSilent(new Item("panadol", 4, START.plusDays(42)));
+        assertEquals(5, items.getItemByNameAndExpiry("panadol", Optional.of(START.plusDays(42))).getQuantity());
+        assertEquals(100, items.get("panadol").size());
+
+        items.editItem(new Item("PANADOL", 9, START.plusDays(99)));
+        assertEquals(9, items.getItemByNameAndExpiry("panadol", Optional.of(START.plusDays(99))).getQuantity());
+        assertEquals(100 + 4 + 8, items.stockCount("panadol"));
+    }
+
+    @Test
+    public void deleteAndReplace_removedBatches_areNoLongerFound() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 1, START));
+        items.addItemSilent(new Item("panadol", 2, START.plusDays(1)));
+        items.deleteItem("panadol", Optional.of(START));
+        assertNull(items.getItemByNameAndExpiry("panadol", Optional.of(START)));
+
+        Item replacement = new Item("panadol", 3);
+        items.replaceItemsSilent("panadol", List.of(replacement));
+        assertNull(items.getItemByNameAndExpiry("panadol", Optional.of(START.plusDays(1))));
+        assertTrue(items.getItemByNameAndExpiry("panadol", Optional.empty()) == replacement);
+    }
+}
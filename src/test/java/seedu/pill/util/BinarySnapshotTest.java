@@ -0,0 +1,163 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinarySnapshotTest {
+    private File dir;
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-binary").toFile();
+        System.setOut(new PrintStream(outputStream));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static ItemMap sampleItems() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10, LocalDate.of(2030, 1, 1), 1.5, 2.25));
+        items.addItemSilent(new Item("panadol", 3, LocalDate.of(2029, 6, 30)));
+        items.addItemSilent(new Item("bandage, large", 7));
+        items.addItemSilent(new Item("vitamin c \u7ef4\u751f\u7d20", 2, LocalDate.of(1969, 12, 31), 0, 9.99));
+        return items;
+    }
+
+    @Test
+    public void read_afterWrite_returnsSameItems() throws IOException {
+        BinarySnapshot snapshot = new BinarySnapshot(new File(dir, "pill.bin"));
+        ItemMap items = sampleItems();
+        snapshot.write(items, false);
+
+        ItemMap loaded = new ItemMap();
+        snapshot.read(loaded);
+        assertEquals(items, loaded);
+        assertEquals("", outputStream.toString());
+    }
+
+    @Test
+    public void write_failsBeforeReplacing_keepsPreviousSnapshot() throws IOException {
+        File file = new File(dir, "pill.bin");
+        BinarySnapshot snapshot = new BinarySnapshot(file);
+        ItemMap items = sampleItems();
+        snapshot.write(items, false);
+        assertFalse(new File(dir, "pill.bin.tmp").exists());
+
+        // A directory where the temporary file should go makes the write fail before the rename
+        assertTrue(new File(dir, "pill.bin.tmp").mkdir());
+        ItemMap changed = new ItemMap();
+        changed.addItemSilent(new Item("aspirin", 1));
+        assertThrows(IOException.class, () -> snapshot.write(changed, false));
+
+        ItemMap loaded = new ItemMap();
+        snapshot.read(loaded);
+        assertEquals(items, loaded);
+    }
+
+    @Test
+    public void read_afterAppend_includesAppendedBatches() throws IOException {
+        BinarySnapshot snapshot = new BinarySnapshot(new File(dir, "pill.bin"));
+        snapshot.append(new Item("panadol", 1));
+        snapshot.append(new Item("aspirin", 2, LocalDate.of(2030, 1, 1)));
+        snapshot.append(new Item("panadol", 4));
+
+        ItemMap loaded = new ItemMap();
+        snapshot.read(loaded);
+        assertEquals(5, loaded.stockCount("panadol"));
+        assertEquals(2, loaded.stockCount("aspirin"));
+    }
+
+    @Test
+    public void append_toExistingSnapshot_continuesNameDictionary() throws IOException {
+        File file = new File(dir, "pill.bin");
+        new BinarySnapshot(file).write(sampleItems(), false);
+
+        BinarySnapshot reopened = new BinarySnapshot(file);
+        reopened.append(new Item("aspirin", 2));
+        reopened.append(new Item("panadol", 4));
+        ItemMap loaded = new ItemMap();
+        reopened.read(loaded);
+        reopened.append(new Item("gauze", 6));
+
+        ItemMap expected = sampleItems();
+        expected.addItemSilent(new Item("aspirin", 2));
+        expected.addItemSilent(new Item("panadol", 4));
+        expected.addItemSilent(new Item("gauze", 6));
+        ItemMap reloaded = new ItemMap();
+        new BinarySnapshot(file).read(reloaded);
+        assertEquals(expected, reloaded);
+    }
+
+    @Test
+    public void write_expiryBeyondIntRange_throwsInsteadOfTruncating() {
+        BinarySnapshot snapshot = new BinarySnapshot(new File(dir, "pill.bin"));
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 1, LocalDate.MAX));
+
+        assertThrows(ArithmeticException.class, () -> snapshot.write(items, false));
+        assertFalse(snapshot.exists());
+    }
+
+    @Test
+    public void read_corruptBlock_reportsLoadError() throws IOException {
+        File file = new File(dir, "pill.bin");
+        BinarySnapshot snapshot = new BinarySnapshot(file);
+        snapshot.write(sampleItems(), false);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 10);
+            raf.write(0x7f);
+        }
+
+        snapshot.read(new ItemMap());
+        assertTrue(outputStream.toString().contains("Error loading saved data"));
+    }
+
+    @Test
+    public void loadData_legacyCsv_migratesToBinary() throws IOException, PillException {
+        try (FileWriter writer = new FileWriter(new File(dir, "pill.txt"))) {
+            writer.write("panadol,10,2030-01-01,1.50,2.25" + System.lineSeparator());
+            writer.write("bandage\\, large,7,,," + System.lineSeparator());
+        }
+        Storage storage = Storage.builder().path(dir.getPath()).mode(Storage.Mode.JOURNALED)
+                .durability(PersistenceScheduler.Durability.SYNC).format(Storage.Format.BINARY).build();
+        ItemMap items = storage.loadData();
+        assertFalse(new File(dir, "pill.bin").exists());
+
+        storage.saveItemMap(items);
+        assertTrue(new File(dir, "pill.bin").exists());
+        assertFalse(new File(dir, "pill.txt").exists());
+
+        ItemMap reloaded = Storage.builder().path(dir.getPath()).mode(Storage.Mode.JOURNALED)
+                .durability(PersistenceScheduler.Durability.SYNC).format(Storage.Format.BINARY).build().loadData();
+        assertEquals(items, reloaded);
+        assertEquals(7, reloaded.stockCount("bandage, large"));
+    }
+}
@@ -0,0 +1,103 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BkTreeTest {
+    private static final String[] SYLLABLES = {"pa", "na", "dol", "as", "pi", "rin", "ibu", "pro", "fen", "vi",
+        "ta", "min", "zol", "ox", "cil", "lin", "met", "for", "mox", "al", "ex", "tra", "syr", "up"};
+
+    private static String randomName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        if (random.nextBoolean()) {
+            sb.append(' ').append(random.nextInt(1000));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void findClosest_sameListAsStringMatcher_returnsSameMatch() {
+        List<String> validStrings = List.of("help", "Help", "add", "delete", "edit", "list", "exit", "ADD",
+                "user-input", "visualize-price", "visualize-cost");
+        BkTree tree = BkTree.of(validStrings);
+        String[] queries = {"help", "HELP", "halp", "helpp", "ad", "hepp", "xxxxxxxx", "", "userinput",
+            "user input", "visualise-cost", "dlete", "eit", "e"};
+        for (String query : queries) {
+            assertEquals(StringMatcher.findClosestMatch(query, validStrings),
+                    tree.findClosest(query, StringMatcher.MAX_SUGGESTION_DISTANCE), query);
+        }
+    }
+
+    @Test
+    public void findClosest_largeVocabulary_matchesLinearScanAndVisitsFewNodes() {
+        Random random = new Random(9);
+        List<String> words = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        while (words.size() < 5_000) {
+            String word = randomName(random);
+            if (seen.add(word)) {
+                words.add(word);
+            }
+        }
+        BkTree tree = BkTree.of(words);
+
+        int visited = 0;
+        for (int i = 0; i < 100; i++) {
+            StringBuilder query = new StringBuilder(words.get(random.nextInt(words.size())));
+            query.setCharAt(random.nextInt(query.length()), '#');
+            assertEquals(StringMatcher.findClosestMatch(query.toString(), words),
+                    tree.findClosest(query.toString(), StringMatcher.MAX_SUGGESTION_DISTANCE));
+            visited += tree.getLastVisitCount();
+        }
+        assertTrue(visited / 100 < words.size() / 10, "Visited " + visited / 100 + " nodes per query");
+    }
+
+    @Test
+    public void remove_manyStrings_keepsRemainingOnes() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            words.add("item" + i);
+        }
+        BkTree tree = BkTree.of(words);
+        for (int i = 0; i < 90; i++) {
+            tree.remove("ITEM" + i);
+        }
+        assertEquals(10, tree.size());
+        assertEquals("item95", tree.findClosest("item95", 0));
+        assertNull(tree.findClosest("item5", 0));
+        assertEquals(List.of("item90", "item91", "item92"), tree.findWithin("item9", 1).subList(0, 3));
+
+        tree.add("item5");
+        assertEquals("item5", tree.findClosest("item5", 2));
+        assertEquals(List.of("item90", "item91", "item92", "item93", "item94", "item95", "item96", "item97",
+                "item98", "item99", "item5"), tree.findWithin("item9", 1));
+    }
+
+    @Test
+    public void findClosestName_mistypedName_suggestsItem() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("Panadol", 1));
+        items.addItemSilent(new Item("aspirin", 1));
+        assertEquals("panadol", items.findClosestName("panadool"));
+        assertNull(items.findClosestName("bandage"));
+
+        items.addItemSilent(new Item("bandages", 1));
+        items.deleteItem("panadol", Optional.empty());
+        assertEquals("bandages", items.findClosestName("bandage"));
+        assertNull(items.findClosestName("panadool"));
+    }
+}
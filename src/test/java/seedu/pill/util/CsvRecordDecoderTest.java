@@ -0,0 +1,163 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvRecordDecoderTest {
+    private static final String[] NAMES = {"panadol", "bandage\\, large", "back\\\\slash", "", "x\\", "vitamin c"};
+    private static final String[] QUANTITIES = {"10", "1", "-5", "+5", "0", "2147483647", "2147483648", "abc", "",
+        " 1", "1.5", "\\7"};
+    private static final String[] DATES = {"", "2030-01-31", "2030-02-30", "2030-13-01", "+12345-01-01",
+        "20300131", "2030-1-1", "1969-12-31"};
+    private static final String[] AMOUNTS = {"", "1.50", ".1", "1.5e3", "abc", "-2.5", "0.30000000000000000",
+        "123456789.123456789", "1.2.3", "$5", "9.995", "1,"};
+
+    private final CsvRecordDecoder decoder = new CsvRecordDecoder();
+
+    /**
+     * The String-based parsing that {@code Storage.loadLine} used before {@link CsvRecordDecoder}, kept as
+     * the reference the decoder must agree with.
+     */
+    private static Item legacyLoadLine(String line) throws PillException {
+        List<String> data = new ArrayList<>();
+        StringBuilder currentField = new StringBuilder();
+        int unescapedCommaCount = 0;
+        boolean inEscape = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && !inEscape) {
+                inEscape = true;
+            } else if (c == ',' && !inEscape) {
+                unescapedCommaCount++;
+                if (unescapedCommaCount > 4) {
+                    throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
+                }
+                data.add(currentField.toString());
+                currentField.setLength(0);
+            } else {
+                currentField.append(c);
+                inEscape = false;
+            }
+        }
+        data.add(currentField.toString());
+
+        try {
+            String name = data.get(0);
+            int quantity = Integer.parseInt(data.get(1));
+            LocalDate expiryDate = data.size() > 2 && !data.get(2).isEmpty() ? LocalDate.parse(data.get(2)) : null;
+            double cost = data.size() > 3 && !data.get(3).isEmpty() ? Double.parseDouble(data.get(3)) : 0;
+            double price = data.size() > 4 && !data.get(4).isEmpty() ? Double.parseDouble(data.get(4)) : 0;
+            return new Item(name, quantity, expiryDate, cost, price);
+        } catch (NumberFormatException e) {
+            throw new PillException(ExceptionMessages.INVALID_QUANTITY_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new PillException(ExceptionMessages.PARSE_DATE_ERROR);
+        } catch (IndexOutOfBoundsException e) {
+            throw new PillException(ExceptionMessages.INVALID_LINE_FORMAT);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        Item parse(String line) throws PillException;
+    }
+
+    /**
+     * Returns the item parsed from the line, with its amounts in cents, or the message of the error it fails with.
+     */
+    private static String outcome(LineParser parser, String line) {
+        try {
+            Item item = parser.parse(line);
+            return item + " [" + item.getCostCents() + ", " + item.getPriceCents() + "]";
+        } catch (PillException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    private void assertDecodeError(ExceptionMessages expected, String line) {
+        PillException e = assertThrows(PillException.class, () -> decoder.decode(line));
+        assertEquals(expected.getMessage(), e.getMessage());
+    }
+
+    @Test
+    public void decode_allFields_returnsItem() throws PillException {
+        assertEquals(new Item("panadol", 10, LocalDate.of(2030, 1, 31), 1.5, 2.25),
+                decoder.decode("panadol,10,2030-01-31,1.50,2.25"));
+        assertEquals(new Item("panadol", 10), decoder.decode("panadol,10"));
+        assertEquals(new Item("panadol", 10), decoder.decode("panadol,10,,,"));
+        assertEquals(new Item("panadol", 10, null, 0, 3), decoder.decode("panadol,10,,,3"));
+    }
+
+    @Test
+    public void decode_escapedCharacters_unescapesName() throws PillException {
+        assertEquals(new Item("bandage, large", 7), decoder.decode("bandage\\, large,7,,,"));
+        assertEquals(new Item("back\\slash", 1), decoder.decode("back\\\\slash,1"));
+        assertEquals(new Item("panadol", 1), decoder.decode("panadol,\\1,\\"));
+    }
+
+    @Test
+    public void decode_unusualNumbers_matchesJdkParsers() throws PillException {
+        assertEquals(new Item("a", -5), decoder.decode("a,-5"));
+        assertEquals(new Item("a", 5), decoder.decode("a,+5"));
+        assertEquals(new Item("a", Integer.MAX_VALUE), decoder.decode("a,2147483647"));
+        assertEquals(new Item("a", 1, null, 1.5e3, 0.1), decoder.decode("a,1,,1.5e3,.1"));
+        assertEquals(new Item("a", 1, null, 0.3, 123456789.123456789),
+                decoder.decode("a,1,,0.30000000000000000,123456789.123456789"));
+        assertEquals(new Item("a", 1, LocalDate.of(12345, 1, 1)), decoder.decode("a,1,+12345-01-01"));
+    }
+
+    @Test
+    public void decode_window_decodesOnlyThatLine() throws PillException {
+        CharBuffer chars = CharBuffer.wrap("x,1\npanadol,4,2030-02-28\ny,2");
+        assertEquals(new Item("panadol", 4, LocalDate.of(2030, 2, 28)), decoder.decode(chars, 4, 24));
+    }
+
+    @Test
+    public void decode_invalidLines_throwsSameErrorsAsBefore() {
+        assertDecodeError(ExceptionMessages.INVALID_LINE_FORMAT, "panadol");
+        assertDecodeError(ExceptionMessages.INVALID_LINE_FORMAT, "");
+        assertDecodeError(ExceptionMessages.INVALID_LINE_FORMAT, "a,1,,,,");
+        assertDecodeError(ExceptionMessages.INVALID_QUANTITY_FORMAT, "a,");
+        assertDecodeError(ExceptionMessages.INVALID_QUANTITY_FORMAT, "a,2147483648");
+        assertDecodeError(ExceptionMessages.INVALID_QUANTITY_FORMAT, "a, 1");
+        assertDecodeError(ExceptionMessages.INVALID_QUANTITY_FORMAT, "a,x,2030-13-01");
+        assertDecodeError(ExceptionMessages.PARSE_DATE_ERROR, "a,1,2030-13-01");
+        assertDecodeError(ExceptionMessages.PARSE_DATE_ERROR, "a,1,2030-02-30");
+        assertDecodeError(ExceptionMessages.PARSE_DATE_ERROR, "a,1,2030/01/01,x");
+        assertDecodeError(ExceptionMessages.INVALID_QUANTITY_FORMAT, "a,1,,1.2.3");
+        assertDecodeError(ExceptionMessages.INVALID_QUANTITY_FORMAT, "a,1,,,$5");
+    }
+
+    @Test
+    public void decode_randomLines_matchesStringBasedParsing() {
+        Random random = new Random(6);
+        String[][] pools = {NAMES, QUANTITIES, DATES, AMOUNTS, AMOUNTS, AMOUNTS};
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder line = new StringBuilder();
+            int fields = 1 + random.nextInt(pools.length);
+            for (int field = 0; field < fields; field++) {
+                if (field > 0) {
+                    line.append(',');
+                }
+                String[] pool = pools[field];
+                line.append(pool[random.nextInt(pool.length)]);
+            }
+            String text = line.toString();
+            assertEquals(outcome(CsvRecordDecoderTest::legacyLoadLine, text), outcome(decoder::decode, text), text);
+            CharBuffer window = CharBuffer.wrap("x,1\n" + text + "\ny,2");
+            assertEquals(outcome(CsvRecordDecoderTest::legacyLoadLine, text),
+                    outcome(unused -> decoder.decode(window, 4, 4 + text.length()), text), text);
+        }
+    }
+}
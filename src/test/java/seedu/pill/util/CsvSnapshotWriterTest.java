@@ -0,0 +1,84 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CsvSnapshotWriterTest {
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-writer").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void write_items_producesSameLinesAsFormatLine() throws IOException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10, LocalDate.of(2030, 1, 31), 1.005, 2.5));
+        items.addItemSilent(new Item("bandage, large", 7));
+        items.addItemSilent(new Item("vitamin c \u7ef4\u751f\u7d20 \ud83d\udc8a", 2,
+                LocalDate.of(12345, 1, 1), 0, 9.99));
+        File target = new File(dir, "pill.txt");
+        Files.writeString(target.toPath(), "old snapshot");
+
+        new CsvSnapshotWriter().write(target, items, true);
+
+        String expected = "panadol,10,2030-01-31,1.01,2.50" + System.lineSeparator()
+                + "bandage\\, large,7,,," + System.lineSeparator()
+                + "vitamin c \u7ef4\u751f\u7d20 \ud83d\udc8a,2,+12345-01-01,,9.99" + System.lineSeparator();
+        assertEquals(expected, Files.readString(target.toPath(), StandardCharsets.UTF_8));
+        assertFalse(new File(dir, "pill.txt.tmp").exists());
+        for (Item item : items.getAllItems()) {
+            assertTrue(expected.contains(CsvSnapshotWriter.formatLine(item) + System.lineSeparator()));
+        }
+    }
+
+    @Test
+    public void write_moreThanOneBuffer_writesEveryLine() throws IOException {
+        ItemMap items = new ItemMap();
+        int count = CsvSnapshotWriter.BUFFER_BYTES / 10;
+        for (int i = 0; i < count; i++) {
+            items.addItemSilent(new Item("item" + i, i + 1, null, i / 7.0, 0));
+        }
+        File target = new File(dir, "pill.txt");
+        new CsvSnapshotWriter().write(target, items, false);
+
+        ItemMap loaded = new ItemMap();
+        new ParallelCsvLoader().load(target, loaded);
+        assertEquals(count, loaded.items.size());
+        assertEquals(Item.toCents((count - 1) / 7.0), loaded.get("item" + (count - 1)).first().getCostCents());
+    }
+
+    @Test
+    public void append_existingFile_addsLine() throws IOException {
+        File target = new File(dir, "pill.txt");
+        CsvSnapshotWriter writer = new CsvSnapshotWriter();
+        writer.append(target, new Item("panadol", 1));
+        writer.append(target, new Item("aspirin", 2, null, 0.5, 0));
+
+        assertEquals("panadol,1,,," + System.lineSeparator() + "aspirin,2,,0.50," + System.lineSeparator(),
+                Files.readString(target.toPath()));
+    }
+}
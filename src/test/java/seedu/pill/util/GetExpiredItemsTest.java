@@ -1,8 +1,15 @@
 package seedu.pill.util;
 
 import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -71,4 +78,65 @@ public class GetExpiredItemsTest {
         ItemMap expiredItems = items.getExpiringItems(LocalDate.now());
         assertEquals(expectedItems, expiredItems);
     }
+
+    /**
+     * Computes the expected result by checking every batch, as the method did before the expiry index.
+     */
+    private static ItemMap scanExpiring(ItemMap items, LocalDate cutOffDate) {
+        ItemMap expiringItems = new ItemMap();
+        for (Map.Entry<String, TreeSet<Item>> entry : items) {
+            for (Item item : entry.getValue()) {
+                if (item.getExpiryDate().filter(expiry -> expiry.isBefore(cutOffDate)).isPresent()) {
+                    expiringItems.addItemSilent(item);
+                }
+            }
+        }
+        return expiringItems;
+    }
+
+    @Test
+    public void getExpiring_namesAddedOutOfDateOrder_keepsMapOrder() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("c", 1, LocalDate.of(2030, 3, 1)));
+        items.addItemSilent(new Item("a", 1, LocalDate.of(2030, 2, 1)));
+        items.addItemSilent(new Item("b", 1, LocalDate.of(2030, 1, 1)));
+        items.addItemSilent(new Item("c", 2, LocalDate.of(2030, 1, 15)));
+
+        ItemMap expiring = items.getExpiringItems(LocalDate.of(2030, 12, 31));
+        assertEquals(List.of("c", "a", "b"), new ArrayList<>(expiring.items.keySet()));
+        assertEquals(scanExpiring(items, LocalDate.of(2030, 2, 1)), items.getExpiringItems(LocalDate.of(2030, 2, 1)));
+    }
+
+    @Test
+    public void getExpiring_afterRandomChanges_matchesFullScan() throws PillException {
+        Random random = new Random(7);
+        ItemMap items = new ItemMap();
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            String name = "item" + random.nextInt(30);
+            LocalDate expiry = random.nextInt(5) == 0 ? null : start.plusDays(random.nextInt(60));
+            switch (random.nextInt(5)) {
+            case 0:
+                items.deleteItem(name, Optional.ofNullable(expiry));
+                break;
+            case 1:
+                if (items.stockCount(name) > 0) {
+                    items.useItem(name, 1 + random.nextInt(items.stockCount(name)));
+                }
+                break;
+            case 2:
+                items.replaceItemsSilent(name, random.nextBoolean() ? List.of()
+                        : List.of(new Item(name, 1 + random.nextInt(9), expiry)));
+                break;
+            default:
+                items.addItemSilent(new Item(name, 1 + random.nextInt(9), expiry));
+            }
+
+            LocalDate cutOffDate = start.plusDays(random.nextInt(70));
+            ItemMap expected = scanExpiring(items, cutOffDate);
+            ItemMap actual = items.getExpiringItems(cutOffDate);
+            assertEquals(expected, actual);
+            assertEquals(new ArrayList<>(expected.items.keySet()), new ArrayList<>(actual.items.keySet()));
+        }
+    }
 }
@@ -0,0 +1,177 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InventorySnapshotTest {
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    private static String capture(Runnable report) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        try {
+            report.run();
+        } finally {
+            System.setOut(original);
+        }
+        return output.toString();
+    }
+
+    private static void assertMatches(ItemMap items, InventorySnapshot snapshot) {
+        assertEquals(items, snapshot.toItemMap());
+        assertEquals(new ArrayList<>(items.items.keySet()), new ArrayList<>(snapshot.toItemMap().items.keySet()));
+        assertEquals(items.getItemsAsArrayList().toString(), snapshot.getItemsAsArrayList().toString());
+        assertEquals(items.getInventoryTotals().toString(), snapshot.getInventoryTotals().toString());
+        assertEquals(items.size(), snapshot.size());
+        LocalDate cutOff = START.plusDays(15);
+        assertEquals(items.getExpiringItems(cutOff), snapshot.getExpiringItems(cutOff));
+        assertEquals(new ArrayList<>(items.getExpiringItems(cutOff).items.keySet()),
+                new ArrayList<>(snapshot.getExpiringItems(cutOff).items.keySet()));
+    }
+
+    @Test
+    public void snapshot_laterChanges_doNotAffectIt() throws PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("Gauze", 10, START));
+        items.addItemSilent(new Item("Aspirin", 5));
+        InventorySnapshot before = items.snapshot();
+
+        items.useItemSilent("gauze", 4);
+        items.setItemPrice(items.getItemByNameAndExpiry("aspirin", Optional.empty()), 2.5);
+        items.addItemSilent(new Item("Bandage", 3, START.plusDays(2)));
+        InventorySnapshot after = items.snapshot();
+
+        assertEquals(List.of("gauze", "aspirin"), new ArrayList<>(before.toItemMap().items.keySet()));
+        assertEquals(10, before.toItemMap().stockCount("gauze"));
+        assertEquals(0, before.getInventoryTotals().getRetailValueCents());
+        assertTrue(after.getVersion() > before.getVersion());
+        assertMatches(items, after);
+
+        before.getItemsAsArrayList().get(0).setQuantity(99);
+        assertEquals(10, before.toItemMap().stockCount("gauze"));
+    }
+
+    @Test
+    public void snapshot_noChanges_returnsSameSnapshot() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("Gauze", 10, START));
+        InventorySnapshot snapshot = items.snapshot();
+        assertSame(snapshot, items.snapshot());
+        items.addItemSilent(new Item("gauze", 1, START));
+        assertEquals(snapshot.getVersion() + 1, items.snapshot().getVersion());
+    }
+
+    @Test
+    public void snapshot_randomChanges_matchesItemMap() throws PillException {
+        Random random = new Random(23);
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 2_000; i++) {
+            String name = "snapshot-item-" + random.nextInt(30);
+            int operation = random.nextInt(6);
+            if (operation < 3 || items.stockCount(name) == 0) {
+                items.addItemSilent(new Item(name, 1 + random.nextInt(9), START.plusDays(random.nextInt(30)),
+                        random.nextInt(300) / 100.0, random.nextInt(500) / 100.0));
+            } else if (operation == 3) {
+                items.useItemSilent(name, 1 + random.nextInt(items.stockCount(name)));
+            } else if (operation == 4) {
+                Item first = items.get(name).first();
+                items.setItemCost(first, random.nextInt(300) / 100.0);
+            } else {
+                items.replaceItemsSilent(name, random.nextBoolean() ? List.of()
+                        : List.of(new Item(name, 1 + random.nextInt(5), START.plusDays(random.nextInt(30)))));
+            }
+            if (random.nextInt(10) == 0) {
+                assertMatches(items, items.snapshot());
+            }
+        }
+        assertMatches(items, items.snapshot());
+    }
+
+    @Test
+    public void snapshot_readWhileWriting_seesOnlyWholeChanges() throws InterruptedException {
+        ItemMap items = new ItemMap();
+        items.replaceItemsSilent("gauze",
+                List.of(new Item("gauze", 1, START), new Item("gauze", 1, START.plusDays(1))));
+        int writes = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread writer = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 2; i <= writes; i++) {
+                    items.replaceItemsSilent("gauze",
+                            List.of(new Item("gauze", i, START), new Item("gauze", i, START.plusDays(1))));
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    long lastVersion = -1;
+                    int lastQuantity = 0;
+                    while (writer.isAlive()) {
+                        InventorySnapshot snapshot = items.snapshot();
+                        List<Item> batches = snapshot.getItemsAsArrayList();
+                        // Both batches are replaced by one change, so no snapshot holds one without the other
+                        assertEquals(2, batches.size());
+                        assertEquals(batches.get(0).getQuantity(), batches.get(1).getQuantity());
+                        assertEquals(2L * batches.get(0).getQuantity(), snapshot.getInventoryTotals().getQuantity());
+                        assertTrue(snapshot.getVersion() >= lastVersion);
+                        assertTrue(batches.get(0).getQuantity() >= lastQuantity);
+                        lastVersion = snapshot.getVersion();
+                        lastQuantity = batches.get(0).getQuantity();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        start.countDown();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Readers failed: " + failures);
+        assertMatches(items, items.snapshot());
+    }
+
+    @Test
+    public void listItems_sameInventory_printsSameAsBefore() {
+        ItemMap items = new ItemMap();
+        assertEquals("The inventory is empty." + System.lineSeparator(), capture(items::listItems));
+        items.addItemSilent(new Item("Gauze", 10, START));
+        items.addItemSilent(new Item("Aspirin", 5));
+        items.addItemSilent(new Item("gauze", 2, START.minusDays(1)));
+
+        String expected = "Listing all items:" + System.lineSeparator()
+                + "1. gauze: 2 in stock, expiring: 2024-12-31" + System.lineSeparator()
+                + "2. Gauze: 10 in stock, expiring: 2025-01-01" + System.lineSeparator()
+                + "3. Aspirin: 5 in stock" + System.lineSeparator();
+        assertEquals(expected, capture(() -> items.snapshot().listItems()));
+        assertEquals("Listing all items expiring before 2025-01-01" + System.lineSeparator()
+                + "1. gauze: 2 in stock, expiring: 2024-12-31" + System.lineSeparator() + System.lineSeparator(),
+                capture(() -> items.snapshot().listExpiringItems(START)));
+    }
+}
@@ -0,0 +1,104 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemKeyTest {
+    @Test
+    public void of_anyCase_returnsSameKey() {
+        ItemKey key = ItemKey.of("Ibuprofen Syrup");
+        assertSame(key, ItemKey.of("ibuprofen syrup"));
+        assertSame(key, ItemKey.of("IBUPROFEN SYRUP"));
+        assertSame(key, ItemKey.of(new String("Ibuprofen Syrup")));
+        assertEquals("ibuprofen syrup", key.name());
+        assertEquals("ibuprofen syrup".hashCode(), key.hashCode());
+    }
+
+    @Test
+    public void of_differentNames_distinctIds() {
+        ItemKey first = ItemKey.of("item-key-test-a");
+        ItemKey second = ItemKey.of("item-key-test-b");
+        assertNotSame(first, second);
+        assertNotEquals(first, second);
+        assertNotEquals(first.id(), second.id());
+        assertEquals(first.id(), ItemKey.of("ITEM-KEY-TEST-A").id());
+    }
+
+    @Test
+    public void lookup_unknownName_doesNotCreateKey() {
+        assertNull(ItemKey.lookup("item-key-test-never-added"));
+        assertNull(ItemKey.lookup("item-key-test-never-added"));
+        ItemKey key = ItemKey.of("Item-Key-Test-Added");
+        assertSame(key, ItemKey.lookup("item-key-test-added"));
+        assertSame(key, ItemKey.lookup("ITEM-KEY-TEST-ADDED"));
+    }
+
+    @Test
+    public void of_keyNoLongerUsed_isDropped() throws InterruptedException {
+        int before = ItemKey.tableSize();
+        for (int i = 0; i < 1_000; i++) {
+            new Item("Item-Key-Test-Typo-" + i, 0);
+        }
+        for (int attempt = 0; attempt < 50 && ItemKey.tableSize() > before + 100; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue(ItemKey.tableSize() <= before + 100);
+
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("item-key-test-kept", 1));
+        System.gc();
+        assertSame(items.get("item-key-test-kept").first().getKey(), ItemKey.lookup("ITEM-KEY-TEST-KEPT"));
+    }
+
+    @Test
+    public void query_unknownName_doesNotCreateKey() throws PillException {
+        ItemMap items = new ItemMap();
+        items.deleteItem("Item-Key-Test-Query", Optional.empty());
+        items.findItem("item-key-test-query");
+        assertEquals(0, items.stockCount("item-key-test-query"));
+        new StripedInventory().useItem("Item-Key-Test-Query", 0);
+        assertNull(ItemKey.lookup("item-key-test-query"));
+    }
+
+    @Test
+    public void itemsAndTransactions_sameName_shareOneString() {
+        Item first = new Item(new String("amoxicillin"), 1);
+        Item second = new Item(new String("amoxicillin"), 2, LocalDate.of(2030, 1, 1));
+        Transaction transaction = new Transaction(new String("amoxicillin"), 3,
+                Transaction.TransactionType.INCOMING, "", null);
+        assertSame(first.getName(), second.getName());
+        assertSame(first.getName(), transaction.getItemName());
+        assertSame(first.getKey(), transaction.getItemKey());
+
+        Item mixedCase = new Item("Amoxicillin", 4);
+        assertEquals("Amoxicillin", mixedCase.getName());
+        assertSame(first.getKey(), mixedCase.getKey());
+    }
+
+    @Test
+    public void itemMap_mixedCaseBatches_keyedByOneName() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("Cetirizine", 5));
+        items.addItemSilent(new Item("CETIRIZINE", 2, LocalDate.of(2031, 2, 3)));
+        items.addItemSilent(new Item("cetirizine", 1));
+        assertEquals(8, items.stockCount("cetirizine"));
+        assertEquals(8, items.getStockTotals("Cetirizine").getQuantity());
+        assertEquals(2, items.get("cetirizine").size());
+        assertEquals(2, items.getItemByNameAndExpiry("cetirizine", Optional.of(LocalDate.of(2031, 2, 3)))
+                .getQuantity());
+
+        items.deleteItem("CETIRIZINE", Optional.empty());
+        assertEquals(2, items.stockCount("cetirizine"));
+    }
+}
@@ -0,0 +1,114 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemTest {
+    @Test
+    public void constructor_dateAndAmounts_storedAsEpochDayAndCents() {
+        LocalDate expiry = LocalDate.of(2025, 3, 14);
+        Item item = new Item("panadol", 5, expiry, 1.005, 2.5);
+        assertTrue(item.hasExpiryDate());
+        assertEquals(expiry.toEpochDay(), item.getExpiryEpochDay());
+        assertEquals(Optional.of(expiry), item.getExpiryDate());
+        assertEquals(101, item.getCostCents());
+        assertEquals(250, item.getPriceCents());
+        assertEquals(1.01, item.getCost());
+        assertEquals(2.5, item.getPrice());
+    }
+
+    @Test
+    public void constructor_noExpiryOrAmounts_usesSentinels() {
+        Item item = new Item("bandage", 3);
+        assertFalse(item.hasExpiryDate());
+        assertEquals(Item.NO_EXPIRY, item.getExpiryEpochDay());
+        assertEquals(Optional.empty(), item.getExpiryDate());
+        assertEquals(0, item.getCostCents());
+        assertEquals(0, new Item("bandage", 3, null, -2, Double.NaN).getPriceCents());
+    }
+
+    @Test
+    public void ofCents_sameBatch_equalsItemBuiltFromDoubles() {
+        LocalDate expiry = LocalDate.of(2024, 12, 1);
+        Item fromDoubles = new Item("aspirin", 7, expiry, 0.1, 0.3);
+        Item fromCents = Item.ofCents("aspirin", 7, expiry.toEpochDay(), 10, 30);
+        assertEquals(fromDoubles, fromCents);
+        assertEquals(fromDoubles.toString(), fromCents.toString());
+        assertEquals("aspirin: 7 in stock, expiring: 2024-12-01, cost: $0.10, price: $0.30", fromCents.toString());
+    }
+
+    @Test
+    public void compareTo_mixedExpiries_sortsDatesFirstThenNoExpiry() {
+        Item none = new Item("a", 1);
+        Item early = new Item("a", 1, LocalDate.of(2020, 1, 1));
+        Item late = new Item("a", 1, LocalDate.of(2030, 1, 1));
+        List<Item> items = new ArrayList<>(List.of(none, late, early));
+        Collections.sort(items);
+        assertEquals(List.of(early, late, none), items);
+        assertEquals(0, none.compareTo(new Item("b", 2)));
+    }
+
+    private static void assertRoundsLikeStringFormat(double amount) {
+        long expected = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        assertEquals(expected, Item.toCents(amount), "Rounding " + amount);
+        if (expected < Long.MAX_VALUE / 100) {
+            assertEquals(String.format(Locale.ROOT, "%.2f", amount), Item.formatCents(expected));
+        }
+    }
+
+    @Test
+    public void toCents_roundingTies_roundsHalfUpLikeStringFormat() {
+        double[] amounts = {0.005, 0.015, 0.125, 1.005, 1.115, 2.675, 8.345, 10.005, 0.285, 1e-9, 0.994999, 0.995,
+            99.995, 123456.785, 999999999.995, 1e9, 1e15 + 0.5, Double.MIN_VALUE, 12.3, 7, 2.5, 0.333};
+        for (double amount : amounts) {
+            assertRoundsLikeStringFormat(amount);
+        }
+        assertEquals(101, Item.toCents(1.005));
+        assertEquals(0, Item.toCents(0));
+        assertEquals(0, Item.toCents(-4));
+        assertEquals(0, Item.toCents(Double.NaN));
+    }
+
+    @Test
+    public void toCents_randomAmounts_roundsHalfUpLikeStringFormat() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            assertRoundsLikeStringFormat(random.nextInt(1_000_000) / 1000.0);
+            assertRoundsLikeStringFormat(random.nextDouble() * 10_000);
+            assertRoundsLikeStringFormat(Math.scalb(random.nextDouble(), random.nextInt(60) - 20));
+        }
+    }
+
+    @Test
+    public void formatCents_variousAmounts_twoDecimals() {
+        assertEquals("0.00", Item.formatCents(0));
+        assertEquals("0.05", Item.formatCents(5));
+        assertEquals("12.30", Item.formatCents(1230));
+        assertEquals("-0.05", Item.formatCents(-5));
+        assertEquals("-12.34", Item.formatCents(-1234));
+    }
+
+    @Test
+    public void restockCost_manyUnits_exactInCents() {
+        Item item = new Item("syrup", 1, null, 0.1, 0);
+        long totalCents = 0;
+        for (int i = 0; i < 1_000; i++) {
+            totalCents += item.getCostCents() * 3;
+        }
+        assertEquals(30_000, totalCents);
+        assertEquals("300.00", Item.formatCents(totalCents));
+    }
+}
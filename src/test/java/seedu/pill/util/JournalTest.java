@@ -0,0 +1,128 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JournalTest {
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-journal").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private Storage newStorage() {
+        return Storage.builder().path(dir.getPath()).mode(Storage.Mode.JOURNALED).build();
+    }
+
+    @Test
+    public void saveItemMap_changesAfterLoad_appendsToJournalOnly() throws PillException {
+        Storage storage = newStorage();
+        ItemMap items = storage.loadData();
+        items.addItemSilent(new Item("panadol", 10, LocalDate.of(2030, 1, 1)));
+        storage.saveItemMap(items);
+
+        File snapshot = new File(dir, "pill.txt");
+        File journal = new File(dir, "pill.journal");
+        assertEquals(0, snapshot.length());
+        assertTrue(journal.length() > 0);
+    }
+
+    @Test
+    public void loadData_snapshotAndJournal_replaysChanges() throws PillException {
+        Storage storage = newStorage();
+        ItemMap items = storage.loadData();
+        items.addItemSilent(new Item("panadol", 10, LocalDate.of(2030, 1, 1)));
+        items.addItemSilent(new Item("aspirin", 5));
+        storage.saveItemMap(items);
+
+        items.deleteItem("aspirin", Optional.empty());
+        items.setItemCost(items.get("panadol").first(), 2.5);
+        storage.saveItemMap(items);
+        items.addItemSilent(new Item("bandage, large", 3));
+        storage.saveItemMap(items);
+
+        ItemMap reloaded = newStorage().loadData();
+        assertEquals(items, reloaded);
+    }
+
+    @Test
+    public void loadData_uncommittedTail_isDiscarded() throws PillException, IOException {
+        Storage storage = newStorage();
+        ItemMap items = storage.loadData();
+        items.addItemSilent(new Item("panadol", 10));
+        storage.saveItemMap(items);
+
+        try (FileWriter writer = new FileWriter(new File(dir, "pill.journal"), true)) {
+            writer.write("Rpanadol\nPpanadol,1,,,");
+        }
+
+        ItemMap reloaded = newStorage().loadData();
+        assertEquals(10, reloaded.stockCount("panadol"));
+    }
+
+    @Test
+    public void saveItemMap_afterUncommittedTail_doesNotCommitTail() throws PillException, IOException {
+        Storage storage = newStorage();
+        ItemMap items = storage.loadData();
+        items.addItemSilent(new Item("panadol", 10));
+        storage.saveItemMap(items);
+
+        File journal = new File(dir, "pill.journal");
+        long committedLength = journal.length();
+        try (FileWriter writer = new FileWriter(journal, true)) {
+            writer.write("Rpanadol\nPpanadol,1,,,");
+        }
+
+        Storage reopened = newStorage();
+        ItemMap reloaded = reopened.loadData();
+        assertEquals(10, reloaded.stockCount("panadol"));
+        assertEquals(committedLength, journal.length());
+
+        reloaded.addItemSilent(new Item("aspirin", 5));
+        reopened.saveItemMap(reloaded);
+
+        ItemMap reloadedAgain = newStorage().loadData();
+        assertEquals(10, reloadedAgain.stockCount("panadol"));
+        assertEquals(5, reloadedAgain.stockCount("aspirin"));
+    }
+
+    @Test
+    public void saveItemMap_journalPastThreshold_compactsIntoSnapshot() throws PillException {
+        Storage storage = newStorage();
+        ItemMap items = storage.loadData();
+        items.addItemSilent(new Item("panadol", 1));
+        storage.saveItemMap(items);
+        for (int i = 0; i < Storage.COMPACTION_THRESHOLD; i++) {
+            items.setItemQuantity(items.get("panadol").first(), i + 1);
+            storage.saveItemMap(items);
+        }
+
+        assertTrue(new File(dir, "pill.txt").length() > 0);
+        ItemMap reloaded = newStorage().loadData();
+        assertEquals(items, reloaded);
+    }
+}
@@ -4,7 +4,12 @@ import org.junit.jupiter.api.Test;
 import seedu.pill.exceptions.ExceptionMessages;
 import seedu.pill.exceptions.PillException;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class LoadDataTest {
@@ -40,4 +45,22 @@ public class LoadDataTest {
             assertEquals(ExceptionMessages.INVALID_QUANTITY_FORMAT.getMessage(), e.getMessage());
         }
     }
+
+    @Test
+    public void loadDataUnreadableSnapshotThrowsLoadError() throws IOException {
+        File dir = Files.createTempDirectory("pill-load").toFile();
+        File snapshot = new File(dir, "pill.bin");
+        assertTrue(snapshot.mkdir());
+        Storage storage = Storage.builder().path(dir.getPath()).format(Storage.Format.BINARY).build();
+        try {
+            storage.loadData();
+            fail();
+        } catch (PillException e) {
+            assertEquals(ExceptionMessages.LOAD_ERROR.getMessage(), e.getMessage());
+        } finally {
+            snapshot.delete();
+            new File(dir, "pill.txt").delete();
+            dir.delete();
+        }
+    }
 }
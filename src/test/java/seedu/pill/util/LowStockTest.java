@@ -0,0 +1,107 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LowStockTest {
+    private static List<Item> scanLowStock(ItemMap items, int threshold, boolean isInclusive) {
+        List<Item> lowStock = new ArrayList<>();
+        for (Item item : items.getAllItems()) {
+            if (item.getQuantity() < threshold || (isInclusive && item.getQuantity() == threshold)) {
+                lowStock.add(item);
+            }
+        }
+        return lowStock;
+    }
+
+    private static void assertSameBatches(List<Item> expected, List<Item> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(expected.get(i) == actual.get(i), "Batch " + i + " differs");
+        }
+    }
+
+    @Test
+    public void getLowStockBatches_mixedQuantities_listsInMapOrder() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 5, LocalDate.of(2030, 2, 1)));
+        items.addItemSilent(new Item("aspirin", 50));
+        items.addItemSilent(new Item("panadol", 2, LocalDate.of(2030, 1, 1)));
+        items.addItemSilent(new Item("bandage", 10));
+
+        assertSameBatches(scanLowStock(items, 10, true), items.getLowStockBatches(10, true));
+        assertSameBatches(scanLowStock(items, 10, false), items.getLowStockBatches(10, false));
+        assertEquals(3, items.getLowStockBatches(10, true).size());
+        assertEquals(LocalDate.of(2030, 1, 1), items.getLowStockBatches(10, true).get(0).getExpiryDate().get());
+    }
+
+    @Test
+    public void getLowStockBatches_afterRandomChanges_matchesFullScan() throws PillException {
+        Random random = new Random(3);
+        ItemMap items = new ItemMap();
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            String name = "item" + random.nextInt(20);
+            LocalDate expiry = random.nextInt(4) == 0 ? null : start.plusDays(random.nextInt(10));
+            Item held = items.getItemByNameAndExpiry(name, Optional.ofNullable(expiry));
+            switch (random.nextInt(6)) {
+            case 0:
+                items.deleteItem(name, Optional.ofNullable(expiry));
+                break;
+            case 1:
+                if (items.stockCount(name) > 0) {
+                    items.useItem(name, 1 + random.nextInt(items.stockCount(name)));
+                }
+                break;
+            case 2:
+                items.replaceItemsSilent(name, List.of(new Item(name, 1 + random.nextInt(30), expiry)));
+                break;
+            case 3:
+                if (held != null) {
+                    items.setItemQuantity(held, 1 + random.nextInt(30));
+                }
+                break;
+            default:
+                items.addItemSilent(new Item(name, 1 + random.nextInt(9), expiry));
+            }
+
+            int threshold = random.nextInt(40);
+            assertSameBatches(scanLowStock(items, threshold, true), items.getLowStockBatches(threshold, true));
+            assertSameBatches(scanLowStock(items, threshold, false), items.getLowStockBatches(threshold, false));
+        }
+    }
+
+    @Test
+    public void getNamesToReorder_stockChanges_tracksReorderPoints() throws PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("aspirin", 20));
+        items.addItemSilent(new Item("panadol", 5, LocalDate.of(2030, 1, 1)));
+        items.addItemSilent(new Item("panadol", 5, LocalDate.of(2030, 2, 1)));
+        items.setReorderPoint("Panadol", 10);
+        items.setReorderPoint("aspirin", 10);
+        items.setReorderPoint("bandage", 0);
+
+        assertEquals(List.of("panadol", "bandage"), items.getNamesToReorder());
+        assertEquals(10, items.getReorderPoint("PANADOL").getAsInt());
+
+        items.addItemSilent(new Item("panadol", 1));
+        items.useItem("aspirin", 10);
+        assertEquals(List.of("aspirin", "bandage"), items.getNamesToReorder());
+
+        items.addItemSilent(new Item("bandage", 1));
+        items.removeReorderPoint("aspirin");
+        assertEquals(List.of(), items.getNamesToReorder());
+        assertTrue(items.getReorderPoint("aspirin").isEmpty());
+        assertThrows(PillException.class, () -> items.setReorderPoint("panadol", -1));
+    }
+}
@@ -0,0 +1,201 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedSegmentStoreTest {
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-segment").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private MappedSegmentStore newStore() {
+        return new MappedSegmentStore(new File(dir, "pill.seg"), new File(dir, "pill.names"));
+    }
+
+    private ItemMap reload() throws IOException {
+        MappedSegmentStore store = newStore();
+        ItemMap loaded = new ItemMap();
+        store.read(loaded);
+        store.close();
+        return loaded;
+    }
+
+    private static List<String> names(ItemMap itemMap) {
+        return new ArrayList<>(itemMap.items.keySet());
+    }
+
+    @Test
+    public void writeAll_thenRead_keepsItemsAndOrder() throws IOException {
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 2000; i++) {
+            items.addItemSilent(new Item("item" + (1999 - i) / 3, i + 1, LocalDate.of(2030, 1, 1).plusDays(i),
+                    i / 100.0, 0.05));
+        }
+        items.addItemSilent(new Item("Bandage, Large", 3));
+        items.addItemSilent(new Item("Caf\u00e9 syrup", 4));
+
+        MappedSegmentStore store = newStore();
+        assertFalse(store.exists());
+        store.writeAll(items, true);
+        store.close();
+        assertTrue(store.exists());
+
+        ItemMap loaded = reload();
+        assertEquals(items, loaded);
+        assertEquals(names(items), names(loaded));
+    }
+
+    @Test
+    public void writeAll_crashBeforeRecords_keepsOldRecordsNamed() throws IOException {
+        ItemMap before = new ItemMap();
+        before.addItemSilent(new Item("panadol", 10));
+        before.addItemSilent(new Item("aspirin", 5));
+        MappedSegmentStore store = newStore();
+        store.writeAll(before, false);
+        store.close();
+        File segment = new File(dir, "pill.seg");
+        byte[] oldRecords = Files.readAllBytes(segment.toPath());
+        List<String> oldNames = Files.readAllLines(new File(dir, "pill.names").toPath());
+
+        ItemMap after = new ItemMap();
+        after.addItemSilent(new Item("bandage", 2));
+        after.addItemSilent(new Item("aspirin", 7));
+        after.addItemSilent(new Item("panadol", 1));
+        store.writeAll(after, false);
+        store.close();
+        List<String> newNames = Files.readAllLines(new File(dir, "pill.names").toPath());
+        assertEquals(oldNames, newNames.subList(0, oldNames.size()));
+        assertEquals(names(after), names(reload()));
+
+        // The names file is written before the records, so put back the records as they were before the save
+        Files.write(segment.toPath(), oldRecords);
+        ItemMap loaded = reload();
+        assertEquals(before, loaded);
+        assertEquals(names(before), names(loaded));
+    }
+
+    @Test
+    public void writeDirty_oneBatchChanged_rewritesOnlyItsRecord() throws IOException {
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 100; i++) {
+            items.addItemSilent(new Item("item" + i, i + 1));
+        }
+        MappedSegmentStore store = newStore();
+        store.writeAll(items, false);
+        items.drainDirtyNames();
+        byte[] before = Files.readAllBytes(new File(dir, "pill.seg").toPath());
+
+        items.addItemSilent(new Item("item42", 5));
+        store.writeDirty(items, items.drainDirtyNames(), false);
+        byte[] after = Files.readAllBytes(new File(dir, "pill.seg").toPath());
+        store.close();
+
+        assertEquals(before.length, after.length);
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                first = first < 0 ? i : first;
+                last = i;
+            }
+        }
+        assertTrue(first >= 0 && last - first < MappedSegmentStore.RECORD_LENGTH);
+        assertEquals(items, reload());
+    }
+
+    @Test
+    public void writeDirty_deleteAndReAdd_reusesSlotAndMovesNameToEnd() throws IOException, PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10));
+        items.addItemSilent(new Item("aspirin", 5));
+        items.addItemSilent(new Item("bandage", 2));
+        MappedSegmentStore store = newStore();
+        store.writeAll(items, false);
+        items.drainDirtyNames();
+        long length = new File(dir, "pill.seg").length();
+
+        items.deleteItem("panadol", Optional.empty());
+        store.writeDirty(items, items.drainDirtyNames(), false);
+        assertEquals(List.of("aspirin", "bandage"), names(reload()));
+
+        items.addItemSilent(new Item("Panadol", 1, LocalDate.of(2030, 1, 1)));
+        store.writeDirty(items, items.drainDirtyNames(), false);
+        store.close();
+        ItemMap loaded = reload();
+        assertEquals(List.of("aspirin", "bandage", "panadol"), names(loaded));
+        assertEquals(items, loaded);
+        assertEquals(length, new File(dir, "pill.seg").length());
+    }
+
+    @Test
+    public void writeDirty_randomChanges_matchesItemMap() throws IOException, PillException {
+        Random random = new Random(18);
+        ItemMap items = new ItemMap();
+        MappedSegmentStore store = newStore();
+        store.writeAll(items, false);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                String name = "item" + random.nextInt(300);
+                LocalDate expiry = random.nextBoolean() ? null : LocalDate.of(2030, 1, 1).plusDays(random.nextInt(5));
+                if (random.nextInt(3) == 0) {
+                    items.deleteItem(name, Optional.ofNullable(expiry));
+                } else {
+                    items.addItemSilent(new Item(name, 1 + random.nextInt(9), expiry));
+                }
+            }
+            store.writeDirty(items, items.drainDirtyNames(), false);
+        }
+        store.close();
+        assertEquals(items, reload());
+    }
+
+    @Test
+    public void storage_mappedMode_migratesSnapshotAndSavesIncrementally() throws IOException, PillException {
+        Files.writeString(new File(dir, "pill.txt").toPath(),
+                "panadol,10,2030-01-01,," + System.lineSeparator() + "aspirin,5,,," + System.lineSeparator());
+
+        Storage storage = Storage.builder().path(dir.getPath()).mode(Storage.Mode.MAPPED).build();
+        ItemMap items = storage.loadData();
+        assertEquals(List.of("panadol", "aspirin"), names(items));
+        items.addItemSilent(new Item("bandage", 2));
+        storage.saveItemMap(items);
+        items.addItemSilent(new Item("aspirin", 1, LocalDate.of(2031, 1, 1)));
+        storage.saveItemMap(items);
+        storage.close();
+
+        Storage reopened = Storage.builder().path(dir.getPath()).mode(Storage.Mode.MAPPED).build();
+        ItemMap loaded = reopened.loadData();
+        reopened.close();
+        assertEquals(items, loaded);
+        assertEquals(List.of("panadol", "aspirin", "bandage"), names(loaded));
+    }
+}
@@ -0,0 +1,114 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelCsvLoaderTest {
+    private File dir;
+    private ForkJoinPool pool;
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-csv").toFile();
+        pool = new ForkJoinPool(4);
+        System.setOut(new PrintStream(outputStream));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+        pool.shutdownNow();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private File writeFile(String content) throws IOException {
+        File file = new File(dir, "pill.txt");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    @Test
+    public void load_manySmallChunks_mergesInFileOrder() throws IOException, PillException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("item").append(i % 37).append(',').append(i + 1).append(',')
+                    .append(LocalDate.of(2030, 1, 1).plusDays(i % 5)).append(",1.50,")
+                    .append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        File file = writeFile(content.toString());
+
+        ItemMap expected = new ItemMap();
+        Storage storage = Storage.builder().path(dir.getPath()).mode(Storage.Mode.SNAPSHOT).build();
+        for (String line : Files.readAllLines(file.toPath())) {
+            expected.addItemSilent(storage.loadLine(line));
+        }
+
+        ItemMap loaded = new ItemMap();
+        new ParallelCsvLoader(pool, 64).load(file, loaded);
+        assertEquals(expected, loaded);
+        assertEquals(List.copyOf(expected.items.keySet()), List.copyOf(loaded.items.keySet()));
+    }
+
+    @Test
+    public void load_invalidLines_reportsErrorsInFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            if (i == 20) {
+                content.append("broken,notanumber\n");
+            } else if (i == 120) {
+                content.append("broken,1,2030-13-45\n");
+            } else if (i == 180) {
+                content.append('\n');
+            } else {
+                content.append("panadol,1\n");
+            }
+        }
+        File file = writeFile(content.toString());
+
+        ItemMap loaded = new ItemMap();
+        new ParallelCsvLoader(pool, 32).load(file, loaded);
+
+        assertEquals(197, loaded.stockCount("panadol"));
+        String output = outputStream.toString();
+        int quantityError = output.indexOf("Quantity provided is not a number");
+        int dateError = output.indexOf("Date provided is in the wrong format");
+        int lineError = output.indexOf("File corrupted");
+        assertTrue(quantityError >= 0 && quantityError < dateError && dateError < lineError);
+    }
+
+    @Test
+    public void load_emptyFileAndMissingTrailingSeparator_loadsAllLines() throws IOException {
+        ItemMap loaded = new ItemMap();
+        new ParallelCsvLoader(pool, 16).load(writeFile(""), loaded);
+        assertTrue(loaded.isEmpty());
+
+        new ParallelCsvLoader(pool, 16).load(writeFile("aspirin,2\npanadol,3"), loaded);
+        assertEquals(2, loaded.stockCount("aspirin"));
+        assertEquals(3, loaded.stockCount("panadol"));
+    }
+}
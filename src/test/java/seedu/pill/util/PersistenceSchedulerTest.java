@@ -0,0 +1,130 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistenceSchedulerTest {
+    private final List<Boolean> flushes = new ArrayList<>();
+
+    private PersistenceScheduler newScheduler(PersistenceScheduler.Durability durability,
+                                              int maxPendingSaves, long maxDelayMillis) {
+        return new PersistenceScheduler(durability, (itemMap, force) -> {
+            synchronized (flushes) {
+                flushes.add(force);
+            }
+        }, maxPendingSaves, maxDelayMillis);
+    }
+
+    private int flushCount() {
+        synchronized (flushes) {
+            return flushes.size();
+        }
+    }
+
+    @Test
+    public void requestSave_sync_flushesEveryRequestWithForce() throws PillException {
+        PersistenceScheduler scheduler = newScheduler(PersistenceScheduler.Durability.SYNC, 10, 1000);
+        ItemMap itemMap = new ItemMap();
+        scheduler.requestSave(itemMap);
+        scheduler.requestSave(itemMap);
+
+        assertEquals(List.of(true, true), flushes);
+        assertEquals(0, scheduler.getPendingSaves());
+    }
+
+    @Test
+    public void endBatch_sync_flushesOncePerBatch() throws PillException {
+        PersistenceScheduler scheduler = newScheduler(PersistenceScheduler.Durability.SYNC, 10, 1000);
+        ItemMap itemMap = new ItemMap();
+        scheduler.beginBatch();
+        for (int i = 0; i < 5; i++) {
+            scheduler.requestSave(itemMap);
+        }
+        assertEquals(0, flushCount());
+        scheduler.endBatch();
+
+        assertEquals(1, flushCount());
+    }
+
+    @Test
+    public void requestSave_batched_flushesOnSizeTrigger() throws PillException {
+        PersistenceScheduler scheduler = newScheduler(PersistenceScheduler.Durability.BATCHED, 3, 60_000);
+        ItemMap itemMap = new ItemMap();
+        scheduler.requestSave(itemMap);
+        scheduler.requestSave(itemMap);
+        assertEquals(0, flushCount());
+        scheduler.requestSave(itemMap);
+
+        assertEquals(List.of(false), flushes);
+        scheduler.close();
+    }
+
+    @Test
+    public void requestSave_batched_flushesOnTimeTrigger() throws PillException, InterruptedException {
+        PersistenceScheduler scheduler = newScheduler(PersistenceScheduler.Durability.BATCHED, 100, 10);
+        scheduler.requestSave(new ItemMap());
+        for (int i = 0; i < 200 && flushCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, flushCount());
+        assertEquals(0, scheduler.getPendingSaves());
+        scheduler.close();
+    }
+
+    @Test
+    public void requestSave_afterFailedBackgroundFlush_throwsAndKeepsRetrying()
+            throws PillException, InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean isDiskFull = new AtomicBoolean(true);
+        PersistenceScheduler scheduler = new PersistenceScheduler(PersistenceScheduler.Durability.BATCHED,
+                (itemMap, force) -> {
+                    attempts.incrementAndGet();
+                    if (isDiskFull.get()) {
+                        throw new PillException(ExceptionMessages.SAVE_ERROR);
+                    }
+                }, 100, 5);
+        ItemMap itemMap = new ItemMap();
+        scheduler.requestSave(itemMap);
+        for (int i = 0; i < 200 && attempts.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(PillException.class, () -> scheduler.requestSave(itemMap));
+        assertEquals(2, scheduler.getPendingSaves());
+
+        // Retries back off, so a few hundred milliseconds only see a handful of attempts
+        Thread.sleep(300);
+        assertTrue(attempts.get() < 10, "Retried " + attempts.get() + " times");
+
+        isDiskFull.set(false);
+        scheduler.close();
+        assertEquals(0, scheduler.getPendingSaves());
+    }
+
+    @Test
+    public void close_onExit_flushesOnlyOnClose() throws PillException {
+        PersistenceScheduler scheduler = newScheduler(PersistenceScheduler.Durability.ON_EXIT, 1, 0);
+        ItemMap itemMap = new ItemMap();
+        for (int i = 0; i < 5; i++) {
+            scheduler.requestSave(itemMap);
+        }
+        assertEquals(0, flushCount());
+        assertEquals(5, scheduler.getPendingSaves());
+
+        scheduler.close();
+        assertEquals(1, flushCount());
+        scheduler.close();
+        assertEquals(1, flushCount());
+    }
+}
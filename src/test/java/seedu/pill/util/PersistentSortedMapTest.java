@@ -0,0 +1,77 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentSortedMapTest {
+    private static void assertSameContents(TreeMap<Long, String> expected, PersistentSortedMap<String> actual) {
+        assertEquals(expected.size(), actual.size());
+        List<String> values = new ArrayList<>();
+        actual.forEach(values::add);
+        assertEquals(new ArrayList<>(expected.values()), values);
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void putAndRemove_randomKeys_matchesTreeMap() {
+        Random random = new Random(23);
+        TreeMap<Long, String> expected = new TreeMap<>();
+        PersistentSortedMap<String> actual = PersistentSortedMap.empty();
+        for (int i = 0; i < 5_000; i++) {
+            long key = random.nextInt(400);
+            if (random.nextInt(3) > 0) {
+                expected.put(key, "value-" + i);
+                actual = actual.put(key, "value-" + i);
+            } else {
+                expected.remove(key);
+                actual = actual.remove(key);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertSameContents(expected, actual);
+        int height = actual.height();
+        assertTrue(height <= 1.45 * (Math.log(actual.size() + 2) / Math.log(2)), () -> "Tree too tall: " + height);
+    }
+
+    @Test
+    public void put_olderVersions_keepTheirContents() {
+        List<PersistentSortedMap<String>> versions = new ArrayList<>();
+        List<TreeMap<Long, String>> expected = new ArrayList<>();
+        PersistentSortedMap<String> map = PersistentSortedMap.empty();
+        TreeMap<Long, String> reference = new TreeMap<>();
+        for (long key = 0; key < 200; key++) {
+            map = key % 7 == 3 ? map.remove(key - 2) : map.put(key, "v" + key);
+            if (key % 7 == 3) {
+                reference.remove(key - 2);
+            } else {
+                reference.put(key, "v" + key);
+            }
+            versions.add(map);
+            expected.add(new TreeMap<>(reference));
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertSameContents(expected.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    public void remove_missingKey_returnsSameMap() {
+        PersistentSortedMap<String> map = PersistentSortedMap.<String>empty().put(5, "five");
+        assertSame(map, map.remove(6));
+        assertNull(map.get(6));
+        assertTrue(map.remove(5).isEmpty());
+        assertEquals("five", map.get(5));
+    }
+}
@@ -0,0 +1,122 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RadixTrieTest {
+    private static final String[] PARTS = {"pan", "a", "dol", "ad", "as", "pirin", "p", "ex", "tra", ""};
+
+    @Test
+    public void withPrefix_weightedNames_returnsHeaviestFirst() {
+        RadixTrie trie = new RadixTrie();
+        trie.put("panadol", 5);
+        trie.put("panadol extra", 20);
+        trie.put("pantoprazole", 5);
+        trie.put("aspirin", 100);
+
+        assertEquals(List.of("panadol extra", "panadol", "pantoprazole"), trie.withPrefix("pan", 10));
+        assertEquals(List.of("panadol extra"), trie.withPrefix("pana", 1));
+        assertEquals(List.of("aspirin", "panadol extra"), trie.withPrefix("", 2));
+        assertEquals(List.of(), trie.withPrefix("panx", 10));
+
+        trie.setWeight("panadol", 50);
+        assertEquals(List.of("panadol", "panadol extra", "pantoprazole"), trie.withPrefix("pa", 10));
+    }
+
+    @Test
+    public void complete_partlyTypedNames_extendsWhileNamesAgree() {
+        RadixTrie trie = new RadixTrie();
+        trie.put("panadol", 1);
+        trie.put("panadol extra", 1);
+        trie.put("pantoprazole", 1);
+
+        assertEquals("pan", trie.complete("p"));
+        assertEquals("panadol", trie.complete("pana"));
+        assertEquals("pantoprazole", trie.complete("pant"));
+        assertNull(trie.complete("x"));
+
+        trie.remove("panadol");
+        assertEquals("panadol extra", trie.complete("pana"));
+        assertFalse(trie.contains("panadol"));
+        assertTrue(trie.contains("panadol extra"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    public void withPrefix_randomChanges_matchesSortedScan() {
+        Random random = new Random(16);
+        RadixTrie trie = new RadixTrie();
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String key = PARTS[random.nextInt(PARTS.length)] + PARTS[random.nextInt(PARTS.length)]
+                    + PARTS[random.nextInt(PARTS.length)];
+            if (random.nextInt(3) == 0) {
+                trie.remove(key);
+                weights.remove(key);
+            } else {
+                long weight = random.nextInt(20);
+                trie.put(key, weight);
+                weights.put(key, weight);
+            }
+
+            String prefix = key.substring(0, random.nextInt(key.length() + 1));
+            List<String> expected = new ArrayList<>();
+            for (String name : weights.keySet()) {
+                if (name.startsWith(prefix)) {
+                    expected.add(name);
+                }
+            }
+            expected.sort(Comparator.comparingLong((String name) -> -weights.get(name))
+                    .thenComparing(Comparator.naturalOrder()));
+            int limit = 1 + random.nextInt(5);
+            assertEquals(expected.subList(0, Math.min(limit, expected.size())), trie.withPrefix(prefix, limit));
+            assertEquals(weights.size(), trie.size());
+        }
+    }
+
+    @Test
+    public void getNamesWithPrefix_stockChanges_ordersByStock() throws PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("Panadol", 5));
+        items.addItemSilent(new Item("Panadol Extra", 10));
+        items.addItemSilent(new Item("Aspirin", 1));
+        assertEquals(List.of("panadol extra", "panadol"), items.getNamesWithPrefix("PAN", 10));
+
+        items.addItemSilent(new Item("panadol", 10, LocalDate.of(2030, 1, 1)));
+        assertEquals(List.of("panadol", "panadol extra"), items.getNamesWithPrefix("pan", 10));
+
+        items.useItem("panadol", 14);
+        assertEquals(List.of("panadol extra", "panadol"), items.getNamesWithPrefix("pan", 10));
+
+        items.deleteItem("panadol extra", Optional.empty());
+        assertEquals(List.of("panadol"), items.getNamesWithPrefix("pan", 10));
+        assertEquals("panadol", items.completeName("Pa"));
+    }
+
+    @Test
+    public void completeLine_partlyTypedItemName_completesArgument() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol extra", 1));
+        items.addItemSilent(new Item("pantoprazole", 1));
+        Ui ui = new Ui(items);
+
+        assertEquals("use panadol extra", ui.completeLine("use panad"));
+        assertEquals("find pan", ui.completeLine("find pa"));
+        assertEquals("use aspirin", ui.completeLine("use aspirin"));
+        assertEquals("list", ui.completeLine("list"));
+    }
+}
@@ -0,0 +1,156 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardedStoreTest {
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-shards").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        deleteRecursively(dir);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static List<String> names(ItemMap itemMap) {
+        return new ArrayList<>(itemMap.items.keySet());
+    }
+
+    private Map<File, String> readBuckets(File shardDir) throws IOException {
+        Map<File, String> contents = new HashMap<>();
+        for (File file : shardDir.listFiles()) {
+            contents.put(file, Files.readString(file.toPath()));
+        }
+        return contents;
+    }
+
+    @Test
+    public void writeAll_thenRead_keepsItemsAndOrder() throws IOException {
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 200; i++) {
+            items.addItemSilent(new Item("item" + (199 - i), i + 1, LocalDate.of(2030, 1, 1).plusDays(i), i, 0));
+        }
+        items.addItemSilent(new Item("bandage, large", 3));
+        items.addItemSilent(new Item("item5", 4));
+
+        new ShardedStore(new File(dir, "shards"), 8).writeAll(items, false);
+        ItemMap loaded = new ItemMap();
+        new ShardedStore(new File(dir, "shards"), 8).read(loaded);
+
+        assertEquals(items, loaded);
+        assertEquals(names(items), names(loaded));
+    }
+
+    @Test
+    public void writeDirty_oneName_rewritesOnlyItsBucket() throws IOException {
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 100; i++) {
+            items.addItemSilent(new Item("item" + i, i + 1));
+        }
+        File shardDir = new File(dir, "shards");
+        ShardedStore store = new ShardedStore(shardDir);
+        store.writeAll(items, false);
+        items.drainDirtyNames();
+        Map<File, String> before = readBuckets(shardDir);
+
+        items.addItemSilent(new Item("item42", 5));
+        store.writeDirty(items, items.drainDirtyNames(), false);
+
+        Map<File, String> after = readBuckets(shardDir);
+        File changed = store.bucketFile(store.bucketOf("item42"));
+        assertEquals(before.keySet(), after.keySet());
+        for (File file : before.keySet()) {
+            assertEquals(file.equals(changed), !before.get(file).equals(after.get(file)), file.getName());
+        }
+    }
+
+    @Test
+    public void writeDirty_deleteAndReAdd_movesNameToEnd() throws IOException, PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10));
+        items.addItemSilent(new Item("aspirin", 5));
+        items.addItemSilent(new Item("bandage", 2));
+        File shardDir = new File(dir, "shards");
+        ShardedStore store = new ShardedStore(shardDir, 1);
+        store.writeAll(items, false);
+        items.drainDirtyNames();
+
+        items.deleteItem("panadol", Optional.empty());
+        store.writeDirty(items, items.drainDirtyNames(), false);
+        ItemMap loaded = new ItemMap();
+        new ShardedStore(shardDir, 1).read(loaded);
+        assertEquals(List.of("aspirin", "bandage"), names(loaded));
+
+        items.addItemSilent(new Item("panadol", 1));
+        store.writeDirty(items, items.drainDirtyNames(), false);
+        loaded = new ItemMap();
+        new ShardedStore(shardDir, 1).read(loaded);
+        assertEquals(List.of("aspirin", "bandage", "panadol"), names(loaded));
+        assertEquals(items, loaded);
+    }
+
+    @Test
+    public void writeDirty_lastNameInBucketRemoved_deletesBucket() throws IOException, PillException {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10));
+        File shardDir = new File(dir, "shards");
+        ShardedStore store = new ShardedStore(shardDir);
+        store.writeAll(items, false);
+        File bucket = store.bucketFile(store.bucketOf("panadol"));
+        assertTrue(bucket.isFile());
+
+        items.drainDirtyNames();
+        items.deleteItem("panadol", Optional.empty());
+        store.writeDirty(items, items.drainDirtyNames(), false);
+        assertFalse(bucket.exists());
+    }
+
+    @Test
+    public void storage_shardedMode_migratesSnapshotAndSavesIncrementally() throws IOException, PillException {
+        Files.writeString(new File(dir, "pill.txt").toPath(),
+                "panadol,10,2030-01-01,," + System.lineSeparator() + "aspirin,5,,," + System.lineSeparator());
+
+        Storage storage = Storage.builder().path(dir.getPath()).mode(Storage.Mode.SHARDED).build();
+        ItemMap items = storage.loadData();
+        assertEquals(List.of("panadol", "aspirin"), names(items));
+        items.addItemSilent(new Item("bandage", 2));
+        storage.saveItemMap(items);
+        items.addItemSilent(new Item("aspirin", 1, LocalDate.of(2031, 1, 1)));
+        storage.saveItemMap(items);
+        storage.close();
+
+        ItemMap loaded = Storage.builder().path(dir.getPath()).mode(Storage.Mode.SHARDED).build().loadData();
+        assertEquals(items, loaded);
+        assertEquals(List.of("panadol", "aspirin", "bandage"), names(loaded));
+    }
+}
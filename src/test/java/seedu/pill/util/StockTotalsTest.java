@@ -0,0 +1,108 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StockTotalsTest {
+    private static void assertTotalsMatchBatches(ItemMap items) {
+        long inventoryQuantity = 0;
+        long inventoryCost = 0;
+        long inventoryRetail = 0;
+        for (Map.Entry<String, TreeSet<Item>> entry : items) {
+            long quantity = 0;
+            long cost = 0;
+            long retail = 0;
+            for (Item item : entry.getValue()) {
+                quantity += item.getQuantity();
+                cost += item.getQuantity() * Item.toCents(item.getCost());
+                retail += item.getQuantity() * Item.toCents(item.getPrice());
+            }
+            StockTotals totals = items.getStockTotals(entry.getKey());
+            assertEquals(quantity, items.stockCount(entry.getKey()));
+            assertEquals(quantity, totals.getQuantity());
+            assertEquals(cost, totals.getCostValueCents());
+            assertEquals(retail, totals.getRetailValueCents());
+            assertEquals(entry.getValue().size(), totals.getBatchCount());
+            inventoryQuantity += quantity;
+            inventoryCost += cost;
+            inventoryRetail += retail;
+        }
+        StockTotals inventory = items.getInventoryTotals();
+        assertEquals(inventoryQuantity, inventory.getQuantity());
+        assertEquals(inventoryCost, inventory.getCostValueCents());
+        assertEquals(inventoryRetail, inventory.getRetailValueCents());
+    }
+
+    @Test
+    public void getStockTotals_batchesWithCostAndPrice_sumsValues() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("Panadol", 10, LocalDate.of(2030, 1, 1), 1.005, 2.5));
+        items.addItemSilent(new Item("panadol", 4, null, 0.1, 0));
+        items.addItemSilent(new Item("aspirin", 3));
+
+        StockTotals panadol = items.getStockTotals("PANADOL");
+        assertEquals(14, panadol.getQuantity());
+        assertEquals(10 * 101 + 4 * 10, panadol.getCostValueCents());
+        assertEquals(2500, panadol.getRetailValueCents());
+        assertEquals(17, items.getInventoryTotals().getQuantity());
+        assertEquals(0, items.getStockTotals("bandage").getQuantity());
+    }
+
+    @Test
+    public void getStockTotals_copy_doesNotChangeWithMap() {
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10));
+        StockTotals before = items.getStockTotals("panadol");
+        items.addItemSilent(new Item("panadol", 5));
+        assertEquals(10, before.getQuantity());
+        assertEquals(15, items.getStockTotals("panadol").getQuantity());
+    }
+
+    @Test
+    public void stockTotals_afterRandomChanges_matchBatches() throws PillException {
+        Random random = new Random(11);
+        ItemMap items = new ItemMap();
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            String name = "item" + random.nextInt(20);
+            LocalDate expiry = random.nextInt(4) == 0 ? null : start.plusDays(random.nextInt(10));
+            double amount = random.nextInt(2000) / 100.0;
+            Item held = items.getItemByNameAndExpiry(name, Optional.ofNullable(expiry));
+            switch (random.nextInt(8)) {
+            case 0:
+                items.deleteItem(name, Optional.ofNullable(expiry));
+                break;
+            case 1:
+                if (items.stockCount(name) > 0) {
+                    items.useItem(name, 1 + random.nextInt(items.stockCount(name)));
+                }
+                break;
+            case 2:
+                items.replaceItemsSilent(name, List.of(new Item(name, 1 + random.nextInt(9), expiry, amount, 0)));
+                break;
+            case 3:
+                items.editItem(new Item(name, 1 + random.nextInt(9), expiry));
+                break;
+            case 4:
+                if (held != null) {
+                    items.setItemQuantity(held, 1 + random.nextInt(50));
+                    items.setItemCost(held, amount);
+                    items.setItemPrice(held, amount * 2);
+                }
+                break;
+            default:
+                items.addItemSilent(new Item(name, 1 + random.nextInt(9), expiry, amount, amount * 1.5));
+            }
+            assertTotalsMatchBatches(items);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class StringMatcherTest {
 
@@ -112,4 +113,52 @@ public class StringMatcherTest {
         // Test with special characters
         assertEquals(1, StringMatcher.levenshteinDistance("user-input", "user_input"));
     }
+
+    @Test
+    public void levenshteinDistance_boundedBelowDistance_returnsOneOverLimit() {
+        assertEquals(2, StringMatcher.levenshteinDistance("kitten", "sitting", 1));
+        assertEquals(3, StringMatcher.levenshteinDistance("kitten", "sitting", 3));
+        assertEquals(3, StringMatcher.levenshteinDistance("a", "abcdef", 2));
+        assertEquals(1, StringMatcher.levenshteinDistance("abc", "xyz", 0));
+        assertEquals(0, StringMatcher.levenshteinDistance("", "", 0));
+    }
+
+    @Test
+    public void levenshteinDistance_randomStrings_matchesFullMatrix() {
+        Random random = new Random(15);
+        for (int i = 0; i < 2000; i++) {
+            String s1 = randomString(random);
+            String s2 = randomString(random);
+            int expected = fullMatrixDistance(s1, s2);
+            assertEquals(expected, StringMatcher.levenshteinDistance(s1, s2), s1 + " / " + s2);
+            for (int limit = 0; limit <= 4; limit++) {
+                assertEquals(Math.min(expected, limit + 1), StringMatcher.levenshteinDistance(s1, s2, limit),
+                        s1 + " / " + s2 + " within " + limit);
+            }
+        }
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private static int fullMatrixDistance(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            for (int j = 0; j <= s2.length(); j++) {
+                if (i == 0 || j == 0) {
+                    dp[i][j] = i + j;
+                } else {
+                    int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                    dp[i][j] = Math.min(dp[i - 1][j - 1] + cost, Math.min(dp[i - 1][j], dp[i][j - 1]) + 1);
+                }
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
 }
@@ -0,0 +1,190 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StripedInventoryTest {
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final int NAMES = 24;
+    private static final int BATCHES_PER_NAME = 8;
+    private static final int BATCH_QUANTITY = 500;
+
+    private static String nameOf(int index) {
+        return "stress-item-" + index;
+    }
+
+    private static long totalQuantity(ItemMap items) {
+        long total = 0;
+        for (Map.Entry<String, TreeSet<Item>> entry : items) {
+            for (Item item : entry.getValue()) {
+                total += item.getQuantity();
+            }
+        }
+        return total;
+    }
+
+    @Test
+    public void singleThread_sameOperations_matchesItemMap() throws PillException {
+        ItemMap expected = new ItemMap();
+        StripedInventory actual = new StripedInventory(4);
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            String name = nameOf(random.nextInt(10));
+            if (random.nextInt(3) > 0 || expected.stockCount(name) == 0) {
+                Item item = new Item(name, 1 + random.nextInt(9), START.plusDays(random.nextInt(30)), 1.5, 2);
+                expected.addItemSilent(item.copy());
+                actual.addItem(item);
+            } else {
+                int quantity = 1 + random.nextInt(expected.stockCount(name));
+                assertEquals(expected.useItemSilent(name, quantity).getLines(),
+                        actual.useItem(name, quantity).getLines());
+            }
+            assertEquals(expected.stockCount(name), actual.stockCount(name));
+        }
+
+        assertEquals(expected, actual.toItemMap());
+        assertEquals(new ArrayList<>(expected.items.keySet()), new ArrayList<>(actual.toItemMap().items.keySet()));
+        LocalDate cutOff = START.plusDays(10);
+        assertEquals(new ArrayList<>(expected.getExpiringItems(cutOff).items.keySet()),
+                new ArrayList<>(actual.getExpiringItems(cutOff).items.keySet()));
+        assertEquals(expected.getExpiringItems(cutOff), actual.getExpiringItems(cutOff));
+        assertEquals(expected.getInventoryTotals().toString(), actual.getInventoryTotals().toString());
+        assertThrows(PillException.class, () -> actual.useItem(nameOf(0), actual.stockCount(nameOf(0)) + 1));
+    }
+
+    @Test
+    public void returnedItems_laterWrites_doNotChangeThem() throws PillException {
+        StripedInventory items = new StripedInventory();
+        items.addItem(new Item("Gauze", 10, START));
+        List<Item> before = items.getItemsByName("gauze");
+        items.useItem("GAUZE", 4);
+        assertEquals(10, before.get(0).getQuantity());
+        assertEquals(6, items.getItemsByName("Gauze").get(0).getQuantity());
+        items.useItem("gauze", 6);
+        assertTrue(items.isEmpty());
+        assertEquals(List.of(), items.getItemsByName("gauze"));
+    }
+
+    @Test
+    public void stress_concurrentDispensersAndReaders_keepStockConsistent() throws Exception {
+        StripedInventory items = new StripedInventory(8);
+        for (int name = 0; name < NAMES; name++) {
+            for (int batch = 0; batch < BATCHES_PER_NAME; batch++) {
+                items.addItem(new Item(nameOf(name), BATCH_QUANTITY, START.plusDays(batch)));
+            }
+        }
+        long initialTotal = (long) NAMES * BATCHES_PER_NAME * BATCH_QUANTITY;
+
+        int dispensers = 6;
+        int restockers = 2;
+        int readers = 2;
+        AtomicLongArray used = new AtomicLongArray(NAMES);
+        AtomicLongArray added = new AtomicLongArray(NAMES);
+        AtomicBoolean isDone = new AtomicBoolean();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < dispensers; t++) {
+            long seed = t;
+            writers.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        int name = random.nextInt(NAMES);
+                        int quantity = 1 + random.nextInt(40);
+                        try {
+                            Allocation allocation = items.useItem(nameOf(name), quantity);
+                            assertEquals(quantity, allocation.getQuantity());
+                            used.addAndGet(name, quantity);
+                        } catch (PillException e) {
+                            // Out of stock for now, which is expected under contention
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (int t = 0; t < restockers; t++) {
+            long seed = 100 + t;
+            writers.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        int name = random.nextInt(NAMES);
+                        int quantity = 1 + random.nextInt(30);
+                        items.addItem(new Item(nameOf(name), quantity, START.plusDays(random.nextInt(20))));
+                        added.addAndGet(name, quantity);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (int t = 0; t < readers; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (!isDone.get()) {
+                        ItemMap snapshot = items.toItemMap();
+                        StockTotals totals = items.getInventoryTotals();
+                        long listed = totalQuantity(snapshot);
+                        assertTrue(listed >= 0 && totals.getQuantity() >= 0);
+                        for (Map.Entry<String, TreeSet<Item>> entry : snapshot) {
+                            for (Item item : entry.getValue()) {
+                                assertTrue(item.getQuantity() > 0, "Listed an empty batch: " + item);
+                            }
+                        }
+                        items.getExpiringItems(START.plusDays(3));
+                        items.stockCount(nameOf(0));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.addAll(writers);
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        isDone.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures.peek());
+        long expectedTotal = initialTotal;
+        for (int name = 0; name < NAMES; name++) {
+            long expected = BATCHES_PER_NAME * BATCH_QUANTITY + added.get(name) - used.get(name);
+            assertEquals(expected, items.stockCount(nameOf(name)), nameOf(name));
+            assertEquals(expected, items.getStockTotals(nameOf(name)).getQuantity());
+            expectedTotal += added.get(name) - used.get(name);
+        }
+        ItemMap finalMap = items.toItemMap();
+        assertEquals(expectedTotal, totalQuantity(finalMap));
+        assertEquals(expectedTotal, items.getInventoryTotals().getQuantity());
+    }
+}
@@ -0,0 +1,257 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.ExceptionMessages;
+import seedu.pill.exceptions.PillException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private final PrintStream originalOut = System.out;
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        dir = Files.createTempDirectory("pill-transaction-index").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+        deleteRecursively(dir);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static Transaction transactionAt(LocalDateTime timestamp) {
+        return transactionOf("index-item", timestamp);
+    }
+
+    private static Transaction transactionOf(String itemName, LocalDateTime timestamp) {
+        return new Transaction(UUID.randomUUID(), itemName, 1, Transaction.TransactionType.INCOMING, timestamp,
+                "", null);
+    }
+
+    /**
+     * Returns the shortest prefix of the id of the given order that no other order's id starts with.
+     */
+    private static String shortestUniquePrefix(Order order, List<Order> orders) {
+        String id = order.getId().toString();
+        for (int length = 1; length < id.length(); length++) {
+            String prefix = id.substring(0, length);
+            long matches = orders.stream().filter(other -> other.getId().toString().startsWith(prefix)).count();
+            if (matches == 1) {
+                return prefix;
+            }
+        }
+        return id;
+    }
+
+    private static void assertFindsOrders(TransactionManager manager, List<Order> orders) throws PillException {
+        for (Order order : orders) {
+            String id = order.getId().toString();
+            String prefix = shortestUniquePrefix(order, orders);
+            assertEquals(order.getId(), manager.findOrder(id).getId());
+            assertEquals(order.getId(), manager.findOrder(prefix.toUpperCase()).getId());
+            if (prefix.length() > 1) {
+                String shared = prefix.substring(0, prefix.length() - 1);
+                PillException e = assertThrows(PillException.class, () -> manager.findOrder(shared));
+                assertEquals(ExceptionMessages.AMBIGUOUS_ORDER.getMessage(), e.getMessage());
+            }
+        }
+    }
+
+    private static List<UUID> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    private static List<Transaction> filter(List<Transaction> transactions, LocalDate start, LocalDate end) {
+        List<Transaction> result = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            LocalDate date = transaction.getTimestamp().toLocalDate();
+            if (!date.isBefore(start) && !date.isAfter(end)) {
+                result.add(transaction);
+            }
+        }
+        result.sort(Comparator.comparing(Transaction::getTimestamp));
+        return result;
+    }
+
+    @Test
+    public void getTransactionHistory_randomRanges_matchesFullScan() throws PillException {
+        TransactionManager manager = new TransactionManager(new ItemMap(), new Storage());
+        Random random = new Random(24);
+        List<Transaction> recorded = new ArrayList<>();
+        LocalDateTime time = START;
+        for (int i = 0; i < 3_000; i++) {
+            time = time.plusMinutes(random.nextInt(600));
+            Transaction transaction = transactionAt(time);
+            manager.recordTransaction(transaction);
+            recorded.add(transaction);
+        }
+        assertEquals(recorded, manager.getTransactions());
+
+        LocalDate first = START.toLocalDate().minusDays(2);
+        for (int i = 0; i < 300; i++) {
+            LocalDate start = first.plusDays(random.nextInt(900));
+            LocalDate end = start.plusDays(random.nextInt(40) - 5);
+            assertEquals(filter(recorded, start, end), manager.getTransactionHistory(start, end));
+        }
+        LocalDate day = START.toLocalDate().plusDays(100);
+        assertEquals(filter(recorded, day, day), manager.getTransactionHistory(day, day));
+    }
+
+    @Test
+    public void getTransactionHistory_clockSetBack_keepsTimeOrder() throws PillException {
+        TransactionManager manager = new TransactionManager(new ItemMap(), new Storage());
+        Transaction late = transactionAt(START.plusDays(2));
+        Transaction early = transactionAt(START);
+        Transaction sameTime = transactionAt(START.plusDays(2));
+        Transaction middle = transactionAt(START.plusDays(1));
+        for (Transaction transaction : List.of(late, early, sameTime, middle)) {
+            manager.recordTransaction(transaction);
+        }
+
+        assertEquals(List.of(late, early, sameTime, middle), manager.getTransactions());
+        LocalDate day = START.toLocalDate();
+        assertEquals(List.of(early, middle, late, sameTime), manager.getTransactionHistory(day, day.plusDays(2)));
+        assertEquals(List.of(middle), manager.getTransactionHistory(day.plusDays(1), day.plusDays(1)));
+        assertEquals(List.of(), manager.getTransactionHistory(day.plusDays(1), day));
+    }
+
+    @Test
+    public void getItemTransactions_manyItems_matchesFullScan() throws PillException {
+        TransactionManager manager = new TransactionManager(new ItemMap(), new Storage());
+        String[] names = {"Index-Panadol", "index-panadol", "index-aspirin", "index-gauze"};
+        Random random = new Random(25);
+        List<Transaction> recorded = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Transaction transaction = transactionOf(names[random.nextInt(names.length)], START.plusMinutes(i));
+            manager.recordTransaction(transaction);
+            recorded.add(transaction);
+        }
+        for (String name : names) {
+            assertEquals(recorded.stream().filter(t -> t.getItemName().equals(name)).toList(),
+                    manager.getItemTransactions(name));
+        }
+        assertEquals(List.of(), manager.getItemTransactions("INDEX-ASPIRIN"));
+        assertEquals(List.of(), manager.getItemTransactions("index-never-recorded"));
+    }
+
+    @Test
+    public void historyQueries_logBacked_matchFullScan() throws PillException {
+        Storage storage = Storage.builder().path(new File(dir, "data").getPath()).mode(Storage.Mode.SNAPSHOT).build();
+        TransactionManager manager = new TransactionManager(new ItemMap(), storage,
+                new TransactionLog(new File(dir, "log"), false));
+        String[] names = {"index-panadol", "index-aspirin", "index-gauze"};
+        Random random = new Random(26);
+        List<Transaction> recorded = new ArrayList<>();
+        LocalDateTime time = START;
+        // Enough transactions to seal a segment, so queries go through the sealed segment's index too
+        for (int i = 0; i < TransactionLog.MAX_SEGMENT_RECORDS + 500; i++) {
+            time = time.plusMinutes(random.nextInt(60));
+            Transaction transaction = transactionOf(names[random.nextInt(names.length)], time);
+            manager.recordTransaction(transaction);
+            recorded.add(transaction);
+        }
+
+        assertEquals(recorded.size(), manager.getTransactions().size());
+        LocalDate first = START.toLocalDate().minusDays(2);
+        for (int i = 0; i < 50; i++) {
+            LocalDate start = first.plusDays(random.nextInt(220));
+            LocalDate end = start.plusDays(random.nextInt(10));
+            assertEquals(ids(filter(recorded, start, end)), ids(manager.getTransactionHistory(start, end)));
+        }
+        for (String name : names) {
+            assertEquals(ids(recorded.stream().filter(t -> t.getItemName().equals(name)).toList()),
+                    ids(manager.getItemTransactions(name)));
+        }
+    }
+
+    @Test
+    public void createOrder_logAppendFails_orderNotIndexed() throws IOException, PillException {
+        File logDir = new File(dir, "log");
+        assertTrue(logDir.createNewFile());
+        Storage storage = Storage.builder().path(new File(dir, "data").getPath()).mode(Storage.Mode.SNAPSHOT).build();
+        TransactionManager manager = new TransactionManager(new ItemMap(), storage,
+                new TransactionLog(logDir, false));
+        Order lost = manager.createOrder(Order.OrderType.PURCHASE, new ItemMap(), "never recorded");
+
+        // Once the log can be written again, record orders until one starts like the lost order
+        assertTrue(logDir.delete() && logDir.mkdir());
+        String prefix = lost.getId().toString().substring(0, 1);
+        Order recorded = null;
+        for (int i = 0; i < 1_000 && recorded == null; i++) {
+            Order order = manager.createOrder(Order.OrderType.PURCHASE, new ItemMap(), "order " + i);
+            recorded = order.getId().toString().startsWith(prefix) ? order : null;
+        }
+
+        assertEquals(recorded.getId(), manager.findOrder(prefix).getId());
+        PillException e = assertThrows(PillException.class, () -> manager.findOrder(lost.getId().toString()));
+        assertEquals(ExceptionMessages.INVALID_ORDER.getMessage(), e.getMessage());
+    }
+
+    @Test
+    public void findOrder_inMemory_resolvesIdsAndUniquePrefixes() throws PillException {
+        TransactionManager manager = new TransactionManager(new ItemMap(), new Storage());
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            orders.add(manager.createOrder(Order.OrderType.PURCHASE, new ItemMap(), "order " + i));
+        }
+        assertFindsOrders(manager, orders);
+        assertSame(orders.get(7), manager.findOrder(orders.get(7).getId().toString()));
+
+        PillException e = assertThrows(PillException.class, () -> manager.findOrder("not-an-order"));
+        assertEquals(ExceptionMessages.INVALID_ORDER.getMessage(), e.getMessage());
+        assertThrows(PillException.class, () -> manager.findOrder(""));
+    }
+
+    @Test
+    public void findOrder_reopenedLog_resolvesRecordedOrders() throws PillException {
+        File logDir = new File(dir, "log");
+        Storage storage = Storage.builder().path(new File(dir, "data").getPath()).mode(Storage.Mode.SNAPSHOT).build();
+        TransactionLog log = new TransactionLog(logDir, false);
+        TransactionManager manager = new TransactionManager(new ItemMap(), storage, log);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            orders.add(manager.createOrder(Order.OrderType.DISPENSE, new ItemMap(), "order " + i));
+        }
+        log.close();
+
+        TransactionManager reopened = new TransactionManager(new ItemMap(), storage,
+                new TransactionLog(logDir, false));
+        assertFindsOrders(reopened, orders);
+        Order order = orders.get(3);
+        reopened.fulfillOrder(reopened.findOrder(order.getId().toString().substring(0, 8)));
+        assertEquals(Order.OrderStatus.FULFILLED, reopened.findOrder(order.getId().toString()).getStatus());
+    }
+}
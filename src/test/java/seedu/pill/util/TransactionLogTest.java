@@ -0,0 +1,136 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import seedu.pill.exceptions.PillException;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionLogTest {
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("pill-transactions").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static Transaction transaction(String itemName, LocalDateTime timestamp, Order order) {
+        return new Transaction(UUID.randomUUID(), itemName, 5, Transaction.TransactionType.INCOMING, timestamp,
+                "restock\twith\\tabs\nand lines", order);
+    }
+
+    @Test
+    public void readAllTransactions_afterReopen_returnsAppendedTransactions() throws PillException {
+        TransactionLog log = new TransactionLog(dir, false);
+        Transaction first = transaction("panadol", LocalDateTime.of(2024, 1, 1, 10, 0), null);
+        Transaction second = transaction("aspirin", LocalDateTime.of(2024, 1, 2, 10, 0), null);
+        log.appendTransaction(first);
+        log.appendTransaction(second);
+        log.close();
+
+        List<Transaction> transactions = new TransactionLog(dir, false).readAllTransactions();
+        assertEquals(2, transactions.size());
+        assertEquals(first.getId(), transactions.get(0).getId());
+        assertEquals(first.getNotes(), transactions.get(0).getNotes());
+        assertEquals(first.getTimestamp(), transactions.get(0).getTimestamp());
+        assertEquals("aspirin", transactions.get(1).getItemName());
+        assertNull(transactions.get(1).getAssociatedOrder());
+    }
+
+    @Test
+    public void readTransactions_acrossSegments_returnsOnlyRange() throws PillException {
+        TransactionLog log = new TransactionLog(dir, false);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int count = TransactionLog.MAX_SEGMENT_RECORDS + 500;
+        for (int i = 0; i < count; i++) {
+            log.appendTransaction(transaction("item" + (i % 7), start.plusHours(i), null));
+        }
+        log.close();
+
+        TransactionLog reopened = new TransactionLog(dir, false);
+        LocalDate from = LocalDate.of(2025, 2, 20);
+        LocalDate to = LocalDate.of(2025, 2, 22);
+        List<Transaction> transactions = reopened.readTransactions(from, to);
+
+        assertEquals(72, transactions.size());
+        assertEquals(from.atStartOfDay(), transactions.get(0).getTimestamp());
+        assertEquals(to.atTime(23, 0), transactions.get(71).getTimestamp());
+        assertTrue(new File(dir, "segment-000001.idx").exists());
+        assertEquals(0, reopened.readTransactions(to, from).size());
+    }
+
+    @Test
+    public void readItemTransactions_multipleItems_returnsExactNameMatches() throws PillException {
+        TransactionLog log = new TransactionLog(dir, false);
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        log.appendTransaction(transaction("panadol", now, null));
+        log.appendTransaction(transaction("Panadol", now.plusMinutes(1), null));
+        log.appendTransaction(transaction("aspirin", now.plusMinutes(2), null));
+        log.appendTransaction(transaction("panadol", now.plusMinutes(3), null));
+
+        List<Transaction> transactions = log.readItemTransactions("panadol");
+        assertEquals(2, transactions.size());
+        assertEquals(now.plusMinutes(3), transactions.get(1).getTimestamp());
+    }
+
+    @Test
+    public void readOrder_statusChanged_returnsLatestState() throws PillException {
+        TransactionLog log = new TransactionLog(dir, false);
+        ItemMap items = new ItemMap();
+        items.addItemSilent(new Item("panadol", 10, LocalDate.of(2030, 1, 1), 1.5, 2.5));
+        Order order = new Order(Order.OrderType.PURCHASE, items, null);
+        log.appendOrder(order);
+        log.appendTransaction(transaction("panadol", LocalDateTime.now(), order));
+        order.fulfill();
+        log.appendOrder(order);
+        log.close();
+
+        TransactionLog reopened = new TransactionLog(dir, false);
+        List<Order> orders = reopened.readOrders();
+        assertEquals(1, orders.size());
+        assertEquals(Order.OrderStatus.FULFILLED, orders.get(0).getStatus());
+        assertEquals(items, orders.get(0).getItems());
+        assertNull(orders.get(0).getNotes());
+        Transaction transaction = reopened.readAllTransactions().get(0);
+        assertEquals(order.getId(), transaction.getAssociatedOrder().getId());
+    }
+
+    @Test
+    public void open_partiallyWrittenRecord_isDiscarded() throws PillException, IOException {
+        TransactionLog log = new TransactionLog(dir, false);
+        log.appendTransaction(transaction("panadol", LocalDateTime.now(), null));
+        log.close();
+        try (FileWriter writer = new FileWriter(new File(dir, "segment-000001.log"), true)) {
+            writer.write("T\t" + UUID.randomUUID() + "\t2024-01-01T");
+        }
+
+        TransactionLog reopened = new TransactionLog(dir, false);
+        reopened.appendTransaction(transaction("aspirin", LocalDateTime.now(), null));
+        List<Transaction> transactions = new TransactionLog(dir, false).readAllTransactions();
+        assertEquals(2, transactions.size());
+        assertEquals("aspirin", transactions.get(1).getItemName());
+    }
+}
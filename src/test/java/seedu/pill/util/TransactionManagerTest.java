@@ -12,9 +12,14 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 //@@author philip1304
 
@@ -694,6 +699,56 @@ class TransactionManagerTest {
         assertTrue(output.contains("Second transaction"), "Output should contain second transaction notes");
     }
 
+    @Test
+    void createTransaction_sharedInventoryFromSeveralTerminals_dispensesEveryUnitOnce() throws Exception {
+        File dir = Files.createTempDirectory("pill-terminals").toFile();
+        Storage sharedStorage = Storage.builder().path(dir.getPath()).mode(Storage.Mode.SNAPSHOT)
+                .durability(PersistenceScheduler.Durability.BATCHED).build();
+        StripedInventory inventory = new StripedInventory();
+        TransactionManager shared = new TransactionManager(inventory, sharedStorage, null);
+        String[] names = {"aspirin", "bandage", "gauze", "syringe"};
+        for (String name : names) {
+            shared.createTransaction(name, 200, null, Transaction.TransactionType.INCOMING, "Restock", null);
+        }
+
+        int terminals = 8;
+        int dispensesPerTerminal = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < terminals; t++) {
+            int terminal = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < dispensesPerTerminal; i++) {
+                        shared.createTransaction(names[(terminal + i) % names.length], 1, null,
+                                Transaction.TransactionType.OUTGOING, "Terminal " + terminal, null);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        sharedStorage.close();
+
+        assertTrue(failures.isEmpty(), "Terminals failed: " + failures);
+        assertEquals(names.length + terminals * dispensesPerTerminal, shared.getTransactions().size());
+        ItemMap saved = Storage.builder().path(dir.getPath()).mode(Storage.Mode.SNAPSHOT).build().loadData();
+        for (String name : names) {
+            assertEquals(100, inventory.stockCount(name));
+            assertEquals(100, shared.getItemTransactions(name).stream()
+                    .filter(t -> t.getType() == Transaction.TransactionType.OUTGOING)
+                    .count());
+            assertEquals(100, saved.stockCount(name));
+        }
+    }
+
     @AfterEach
     void restoreSystemOut() {
         System.setOut(originalOut);
@@ -0,0 +1,62 @@
+package seedu.pill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrigramIndexTest {
+    private static final String[] WORDS = {"panadol", "aspirin", "vitamin", "extra", "syrup", "bandage", "ibu", "c"};
+
+    @Test
+    public void search_addedAndRemovedNames_findsNamesContainingQuery() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("panadol extra");
+        index.add("panadol");
+        index.add("aspirin");
+        index.add("ol");
+
+        assertEquals(new HashSet<>(List.of("panadol extra", "panadol")), new HashSet<>(index.search("pana")));
+        assertEquals(List.of("panadol extra"), index.search("l ex"));
+        assertEquals(List.of(), index.search("dolp"));
+        assertEquals(List.of(), index.search("xyz"));
+
+        index.remove("panadol");
+        assertEquals(List.of("panadol extra"), index.search("pan"));
+        assertFalse(index.canSearch("ol"));
+        assertTrue(index.canSearch("dol"));
+    }
+
+    @Test
+    public void findItem_randomNamesAndQueries_matchesContainsScan() {
+        Random random = new Random(5);
+        ItemMap items = new ItemMap();
+        for (int i = 0; i < 3000; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + (random.nextBoolean() ? "" : " " + random.nextInt(50));
+            if (random.nextInt(4) == 0) {
+                items.deleteItem(name, Optional.empty());
+            } else {
+                items.addItemSilent(new Item(random.nextBoolean() ? name.toUpperCase() : name, 1));
+            }
+
+            String query = WORDS[random.nextInt(WORDS.length)];
+            query = query.substring(random.nextInt(query.length()));
+            List<String> expected = new ArrayList<>();
+            for (String key : items.items.keySet()) {
+                if (key.contains(query)) {
+                    expected.add(key);
+                }
+            }
+            ItemMap found = items.findItem(random.nextBoolean() ? query.toUpperCase() : query);
+            assertEquals(expected, new ArrayList<>(found.items.keySet()));
+        }
+    }
+}